@@ -16,6 +16,10 @@ package eu.modapto.digitaltwinmanagement.config;
 
 import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.ArgumentValidationMode;
 import eu.modapto.digitaltwinmanagement.deployment.DeploymentType;
+import eu.modapto.digitaltwinmanagement.jpa.codec.ModelStorageFormat;
+import eu.modapto.digitaltwinmanagement.queue.OverflowPolicy;
+import eu.modapto.digitaltwinmanagement.queue.QueueType;
+import eu.modapto.digitaltwinmanagement.queue.WaitStrategyType;
 import eu.modapto.digitaltwinmanagement.util.AddressTranslationHelper;
 import lombok.Getter;
 import lombok.Setter;
@@ -81,6 +85,9 @@ public class DigitalTwinManagementConfig {
     @Value("${dt-management.docker.network:}")
     private String dockerNetwork;
 
+    @Value("${dt-management.events.internal.direct:true}")
+    private boolean internalDirectEvents;
+
     @Value("${dt-management.events.mqtt.host:localhost}")
     private String mqttHost;
 
@@ -99,6 +106,96 @@ public class DigitalTwinManagementConfig {
     @Value("${dt-management.events.mqtt.thread.count:1}")
     private int mqttThreadCount;
 
+    @Value("${dt-management.events.mqtt.queue.overflow-policy:BLOCK}")
+    private OverflowPolicy mqttQueueOverflowPolicy;
+
+    @Value("${dt-management.events.mqtt.queue.block-timeout:1000}")
+    private long mqttQueueBlockTimeout;
+
+    @Value("${dt-management.events.mqtt.queue.sample-rate:10}")
+    private int mqttQueueSampleRate;
+
+    @Value("${dt-management.events.mqtt.queue.persistent:false}")
+    private boolean mqttQueuePersistent;
+
+    @Value("${dt-management.events.mqtt.queue.rebalance-threshold:0.75}")
+    private double mqttQueueRebalanceThreshold;
+
+    @Value("${dt-management.events.mqtt.queue.type:ARRAY}")
+    private QueueType mqttQueueType;
+
+    @Value("${dt-management.events.mqtt.queue.wait-strategy:BLOCKING}")
+    private WaitStrategyType mqttQueueWaitStrategy;
+
+    @Value("${dt-management.events.mqtt.queue.batch-size:1}")
+    private int mqttQueueBatchSize;
+
+    @Value("${dt-management.events.spill.directory:spill}")
+    private String spillDirectory;
+
+    @Value("${dt-management.events.spill.segment-size:67108864}")
+    private int spillSegmentSize;
+
+    @Value("${dt-management.events.spill.max-size:1073741824}")
+    private long spillMaxSize;
+
+    @Value("${dt-management.events.spill.retention:604800000}")
+    private long spillRetention;
+
+    @Value("${dt-management.events.claim-check.enabled:false}")
+    private boolean claimCheckEnabled;
+
+    @Value("${dt-management.events.claim-check.threshold:1048576}")
+    private long claimCheckThreshold;
+
+    @Value("${dt-management.events.claim-check.directory:results}")
+    private String claimCheckDirectory;
+
+    @Value("${dt-management.events.claim-check.retention:86400000}")
+    private long claimCheckRetention;
+
+    @Value("${dt-management.fmu.cache.directory:fmu-cache}")
+    private String fmuCacheDirectory;
+
+    @Value("${dt-management.fmu.grace-period:600000}")
+    private long fmuGracePeriod;
+
+    @Value("${dt-management.invocation.tracking.enabled:true}")
+    private boolean invocationTrackingEnabled;
+
+    @Value("${dt-management.invocation.tracking.max-pending:10000}")
+    private int invocationTrackingMaxPending;
+
+    @Value("${dt-management.invocation.tracking.timeout:3600000}")
+    private long invocationTrackingTimeout;
+
+    @Value("${dt-management.invocation.tracking.attach-duration:true}")
+    private boolean invocationTrackingAttachDuration;
+
+    @Value("${dt-management.processor.watchdog.interval:10000}")
+    private long processorWatchdogInterval;
+
+    @Value("${dt-management.processor.watchdog.stall-timeout:60000}")
+    private long processorWatchdogStallTimeout;
+
+    @Value("${dt-management.processor.watchdog.restart:false}")
+    private boolean processorWatchdogRestart;
+
+    @Value("${dt-management.processor.watchdog.max-restarts:3}")
+    private int processorWatchdogMaxRestarts;
+
+    @Value("${dt-management.persistence.model-format:SMILE}")
+    private ModelStorageFormat modelStorageFormat;
+
+    @Value("${dt-management.persistence.decode-cache.max-size:67108864}")
+    private long decodeCacheMaxSize;
+
+    @Value("${dt-management.api.page-size.default:100}")
+    private int apiDefaultPageSize;
+
+    @Value("${dt-management.api.page-size.max:1000}")
+    private int apiMaxPageSize;
+
     @Value("${dt.deployment.docker.image:ghcr.io/modapto/digital-twin:latest}")
     private String dtDockerImage;
 
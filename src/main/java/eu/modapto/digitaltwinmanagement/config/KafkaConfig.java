@@ -14,11 +14,20 @@
  */
 package eu.modapto.digitaltwinmanagement.config;
 
+import de.fraunhofer.iosb.ilt.faaast.service.util.StringHelper;
+import eu.modapto.digitaltwinmanagement.messagebus.EventEncoding;
+import eu.modapto.digitaltwinmanagement.messagebus.EventKeyStrategy;
+import eu.modapto.digitaltwinmanagement.messagebus.OutboxMode;
+import eu.modapto.digitaltwinmanagement.queue.OverflowPolicy;
+import eu.modapto.digitaltwinmanagement.queue.QueueType;
+import eu.modapto.digitaltwinmanagement.queue.WaitStrategyType;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -41,12 +50,156 @@ public class KafkaConfig {
     @Value("${dt-management.kafka.thread.count:1}")
     private int threadCount;
 
+    @Value("${dt-management.kafka.queue.overflow-policy:BLOCK}")
+    private OverflowPolicy queueOverflowPolicy;
+
+    @Value("${dt-management.kafka.queue.block-timeout:1000}")
+    private long queueBlockTimeout;
+
+    @Value("${dt-management.kafka.queue.sample-rate:10}")
+    private int queueSampleRate;
+
+    @Value("${dt-management.kafka.queue.persistent:false}")
+    private boolean queuePersistent;
+
+    @Value("${dt-management.kafka.queue.rebalance-threshold:0.75}")
+    private double queueRebalanceThreshold;
+
+    @Value("${dt-management.kafka.queue.type:ARRAY}")
+    private QueueType queueType;
+
+    @Value("${dt-management.kafka.queue.wait-strategy:BLOCKING}")
+    private WaitStrategyType queueWaitStrategy;
+
+    @Value("${dt-management.kafka.queue.batch-size:1}")
+    private int queueBatchSize;
+
+    @Value("${dt-management.kafka.key.strategy:MODULE}")
+    private EventKeyStrategy keyStrategy;
+
+    @Value("${dt-management.kafka.key.service-strategy:MODULE}")
+    private EventKeyStrategy serviceKeyStrategy;
+
+    @Value("${dt-management.kafka.encoding.default:JSON}")
+    private EventEncoding encodingDefault;
+
+    @Value("${dt-management.kafka.encoding.topics:}")
+    private String encodingTopics;
+
+    @Value("${dt-management.kafka.aggregation.enabled:false}")
+    private boolean aggregationEnabled;
+
+    @Value("${dt-management.kafka.aggregation.window:10000}")
+    private long aggregationWindow;
+
+    @Value("${dt-management.kafka.aggregation.raw-sample-rate:0}")
+    private int aggregationRawSampleRate;
+
+    @Value("${dt-management.kafka.aggregation.raw-topic-suffix:-raw}")
+    private String aggregationRawTopicSuffix;
+
+    @Value("${dt-management.kafka.producer.partitioner:}")
+    private String producerPartitioner;
+
+    @Value("${dt-management.kafka.producer.batch-size:65536}")
+    private int producerBatchSize;
+
+    @Value("${dt-management.kafka.producer.linger:5}")
+    private long producerLinger;
+
+    @Value("${dt-management.kafka.producer.compression-type:lz4}")
+    private String producerCompressionType;
+
+    @Value("${dt-management.kafka.producer.acks:all}")
+    private String producerAcks;
+
+    @Value("${dt-management.kafka.producer.idempotence:true}")
+    private boolean producerIdempotence;
+
+    @Value("${dt-management.kafka.producer.max-in-flight-requests:5}")
+    private int producerMaxInFlightRequests;
+
+    @Value("${dt-management.kafka.producer.max-pending:1000}")
+    private int producerMaxPending;
+
+    @Value("${dt-management.kafka.producer.retry-backoff:100}")
+    private long producerRetryBackoff;
+
+    @Value("${dt-management.kafka.producer.retry-backoff-max:1000}")
+    private long producerRetryBackoffMax;
+
+    @Value("${dt-management.kafka.producer.delivery-timeout:120000}")
+    private int producerDeliveryTimeout;
+
+    @Value("${dt-management.kafka.outbox.enabled:true}")
+    private boolean outboxEnabled;
+
+    @Value("${dt-management.kafka.outbox.mode:NOTIFY}")
+    private OutboxMode outboxMode;
+
+    @Value("${dt-management.kafka.outbox.poll-interval:1000}")
+    private long outboxPollInterval;
+
+    @Value("${dt-management.kafka.outbox.batch-size:500}")
+    private int outboxBatchSize;
+
+    @Value("${dt-management.kafka.outbox.retry-backoff:1000}")
+    private long outboxRetryBackoff;
+
     @Bean
-    public KafkaTemplate<String, String> kafkaTemplate() {
+    public KafkaTemplate<String, byte[]> kafkaTemplate() {
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProperties()));
+    }
+
+
+    /**
+     * Creates the Kafka producer properties. Records are batched per partition for up to the linger time and compressed
+     * per batch. Failed sends are retried by the producer with exponential backoff until the delivery timeout expires;
+     * with idempotence enabled, retries neither duplicate nor reorder records. Records are assigned to partitions by the
+     * hash of their key unless a custom partitioner is configured.
+     *
+     * @return the producer properties
+     */
+    public Map<String, Object> producerProperties() {
         Map<String, Object> properties = new HashMap<>();
         properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, messageBusUrl);
         properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(properties));
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        properties.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        properties.put(ProducerConfig.LINGER_MS_CONFIG, producerLinger);
+        properties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producerCompressionType);
+        properties.put(ProducerConfig.ACKS_CONFIG, producerAcks);
+        properties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, producerIdempotence);
+        properties.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, producerMaxInFlightRequests);
+        properties.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, producerRetryBackoff);
+        properties.put(ProducerConfig.RETRY_BACKOFF_MAX_MS_CONFIG, producerRetryBackoffMax);
+        properties.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, producerDeliveryTimeout);
+        if (!StringHelper.isBlank(producerPartitioner)) {
+            properties.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, producerPartitioner);
+        }
+        return properties;
+    }
+
+
+    /**
+     * Parses the per-topic encodings configured as comma-separated list of {@code topic:encoding} pairs.
+     *
+     * @return the encoding per topic
+     * @throws IllegalArgumentException if the configuration is invalid
+     */
+    public Map<String, EventEncoding> topicEncodings() {
+        Map<String, EventEncoding> result = new HashMap<>();
+        if (StringHelper.isBlank(encodingTopics)) {
+            return result;
+        }
+        for (String entry: encodingTopics.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || StringHelper.isBlank(parts[0])) {
+                throw new IllegalArgumentException(String.format(
+                        "invalid topic encoding, expected <topic>:<encoding> (value: %s)", entry));
+            }
+            result.put(parts[0].trim(), EventEncoding.valueOf(parts[1].trim().toUpperCase(Locale.ROOT)));
+        }
+        return result;
     }
 }
@@ -63,6 +63,9 @@ public class SecurityConfig {
     @Value("${dt-management.security.secureProxyDTs:true}")
     private boolean secureProxyDTs;
 
+    @Value("${dt-management.security.publicMetrics:false}")
+    private boolean publicMetrics;
+
     @Bean
     public SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http, UnauthorizedEntryPoint entryPoint) throws Exception {
         http.sessionManagement(x -> x.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -74,6 +77,9 @@ public class SecurityConfig {
                     if (!secureProxyDTs) {
                         x.requestMatchers("/digital-twins/**").permitAll(); // Permit DT Proxying
                     }
+                    if (publicMetrics) {
+                        x.requestMatchers("/actuator/health", "/actuator/prometheus").permitAll(); // Permit monitoring
+                    }
                     x.anyRequest().authenticated();
                 })
                 .oauth2ResourceServer(x -> x.jwt(jwt -> jwt.jwtAuthenticationConverter(new JwtAuthConverter())));
@@ -14,6 +14,7 @@
  */
 package eu.modapto.digitaltwinmanagement.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.fraunhofer.iosb.ilt.faaast.service.dataformat.EnvironmentSerializationManager;
 import de.fraunhofer.iosb.ilt.faaast.service.dataformat.SerializationException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.EnvironmentContext;
@@ -21,16 +22,24 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.exception.ValidationException
 import de.fraunhofer.iosb.ilt.faaast.service.model.validation.ModelValidator;
 import de.fraunhofer.iosb.ilt.faaast.service.model.validation.ModelValidatorConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.util.StringHelper;
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.deployment.DeploymentType;
 import eu.modapto.digitaltwinmanagement.exception.InvalidModelException;
 import eu.modapto.digitaltwinmanagement.mapper.ModuleMapper;
+import eu.modapto.digitaltwinmanagement.messagebus.InvocationTracker;
 import eu.modapto.digitaltwinmanagement.model.Module;
 import eu.modapto.digitaltwinmanagement.model.request.ModuleRequestDto;
+import eu.modapto.digitaltwinmanagement.model.response.InvocationStatisticsResponseDto;
 import eu.modapto.digitaltwinmanagement.model.response.ModuleDetailsResponseDto;
 import eu.modapto.digitaltwinmanagement.model.response.ModuleResponseDto;
 import eu.modapto.digitaltwinmanagement.service.ModuleService;
+import eu.modapto.digitaltwinmanagement.util.PaginationHelper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.headers.Header;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -40,6 +49,7 @@ import java.net.URI;
 import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import org.eclipse.digitaltwin.aas4j.v3.model.Environment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +64,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -64,10 +75,16 @@ import org.springframework.web.bind.annotation.RestController;
 public class ModuleController {
     private static final Logger LOGGER = LoggerFactory.getLogger(ModuleController.class);
     private final ModuleService moduleService;
+    private final DigitalTwinManagementConfig config;
+    private final ObjectMapper mapper;
+    private final InvocationTracker invocationTracker;
 
     @Autowired
-    public ModuleController(ModuleService moduleService) {
+    public ModuleController(ModuleService moduleService, DigitalTwinManagementConfig config, ObjectMapper mapper, InvocationTracker invocationTracker) {
         this.moduleService = moduleService;
+        this.config = config;
+        this.mapper = mapper;
+        this.invocationTracker = invocationTracker;
     }
 
 
@@ -91,17 +108,30 @@ public class ModuleController {
     }
 
 
-    @Operation(summary = "Get all modules", description = "Returns a list of all modules", security = @SecurityRequirement(name = "bearerToken"))
+    @Operation(summary = "Get all modules", description = "Returns a page of modules ordered by ID. " + PaginationHelper.PAGINATION_DESCRIPTION, security = @SecurityRequirement(name = "bearerToken"))
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "200", description = "Success", headers = {
+                    @Header(name = PaginationHelper.HEADER_NEXT_CURSOR, description = "Cursor to request the next page, absent on the last page")
+            }, content = @Content(array = @ArraySchema(schema = @Schema(implementation = ModuleResponseDto.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid query parameters", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
     @GetMapping
-    public List<ModuleResponseDto> getAllModules() {
-        return moduleService.getAllModules().stream()
-                .map(ModuleMapper::toDto)
-                .toList();
+    public ResponseEntity<List<?>> getAllModules(
+            @Parameter(description = "Only return modules whose name starts with this value") @RequestParam(required = false) String name,
+            @Parameter(description = "Only return modules of this deployment type") @RequestParam(required = false) DeploymentType type,
+            @Parameter(description = "Cursor from the '" + PaginationHelper.HEADER_NEXT_CURSOR + "' header of the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Maximum number of modules to return") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Properties to include in the result, all if empty") @RequestParam(required = false) Set<String> fields) {
+        int pageSize = PaginationHelper.resolveLimit(limit, config);
+        return PaginationHelper.response(
+                moduleService.getModules(name, type, after, pageSize, ModuleMapper.requiresServices(fields)),
+                pageSize,
+                Module::getId,
+                x -> ModuleMapper.toDto(x, ModuleMapper.requiresServices(fields)),
+                fields,
+                mapper);
     }
 
 
@@ -127,7 +157,20 @@ public class ModuleController {
     })
     @GetMapping("/{moduleId}/details")
     public ModuleDetailsResponseDto getModuleDetails(@PathVariable String moduleId) throws SerializationException {
-        return ModuleMapper.toDetailsDto(moduleService.getModuleById(moduleId));
+        return ModuleMapper.toDetailsDto(moduleService.getModuleWithModels(moduleId));
+    }
+
+
+    @Operation(summary = "Get invocation statistics of module", description = "Returns latency percentiles and success rate across all smart services of the module", security = @SecurityRequirement(name = "bearerToken"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Module not found", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping("/{moduleId}/statistics")
+    public InvocationStatisticsResponseDto getModuleStatistics(@PathVariable String moduleId) {
+        return invocationTracker.getModuleStatistics(moduleService.getModuleById(moduleId).getId());
     }
 
 
@@ -14,22 +14,36 @@
  */
 package eu.modapto.digitaltwinmanagement.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
 import eu.modapto.digitaltwinmanagement.mapper.SmartServiceMapper;
+import eu.modapto.digitaltwinmanagement.messagebus.InvocationTracker;
+import eu.modapto.digitaltwinmanagement.model.SmartService;
+import eu.modapto.digitaltwinmanagement.model.request.SmartServiceFilter;
 import eu.modapto.digitaltwinmanagement.model.request.SmartServiceRequestDto;
+import eu.modapto.digitaltwinmanagement.model.response.InvocationStatisticsResponseDto;
 import eu.modapto.digitaltwinmanagement.model.response.SmartServiceResponseDto;
-import eu.modapto.digitaltwinmanagement.service.ModuleService;
+import eu.modapto.digitaltwinmanagement.service.FmuService;
 import eu.modapto.digitaltwinmanagement.service.SmartServiceService;
+import eu.modapto.digitaltwinmanagement.util.PaginationHelper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.headers.Header;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
 import java.util.List;
+import java.util.Set;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -38,6 +52,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -46,26 +61,61 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Smart Service Operations", description = "Operations related to smart service management")
 public class SmartServiceController {
 
-    private final ModuleService moduleService;
     private final SmartServiceService smartServiceService;
+    private final FmuService fmuService;
+    private final DigitalTwinManagementConfig config;
+    private final ObjectMapper mapper;
+    private final InvocationTracker invocationTracker;
 
-    public SmartServiceController(ModuleService moduleService, SmartServiceService smartServiceService) {
-        this.moduleService = moduleService;
+    public SmartServiceController(
+            SmartServiceService smartServiceService,
+            FmuService fmuService,
+            DigitalTwinManagementConfig config,
+            ObjectMapper mapper,
+            InvocationTracker invocationTracker) {
         this.smartServiceService = smartServiceService;
+        this.fmuService = fmuService;
+        this.config = config;
+        this.mapper = mapper;
+        this.invocationTracker = invocationTracker;
     }
 
 
-    @Operation(summary = "Get all smart services", description = "Returns a list of all smart services", security = @SecurityRequirement(name = "bearerToken"))
+    @Operation(summary = "Get all smart services", description = "Returns a page of smart services ordered by ID. " + PaginationHelper.PAGINATION_DESCRIPTION, security = @SecurityRequirement(name = "bearerToken"))
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "200", description = "Success", headers = {
+                    @Header(name = PaginationHelper.HEADER_NEXT_CURSOR, description = "Cursor to request the next page, absent on the last page")
+            }, content = @Content(array = @ArraySchema(schema = @Schema(implementation = SmartServiceResponseDto.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid query parameters", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
     @GetMapping("/services")
-    public List<SmartServiceResponseDto> getAllSmartServices() {
-        return smartServiceService.getAllSmartServices().stream()
-                .map(SmartServiceMapper::toDto)
-                .toList();
+    public ResponseEntity<List<?>> getAllSmartServices(
+            @Parameter(description = "Only return smart services whose name starts with this value") @RequestParam(required = false) String name,
+            @Parameter(description = "Only return smart services with this service catalog ID") @RequestParam(required = false) String serviceCatalogId,
+            @Parameter(description = "Only return smart services of this type (embedded, internal, external)") @RequestParam(required = false) String type,
+            @Parameter(description = "Only return smart services with an input parameter with this idShort") @RequestParam(required = false) String inputParam,
+            @Parameter(description = "Only return smart services with an output parameter with this idShort") @RequestParam(required = false) String outputParam,
+            @Parameter(description = "Only return smart services with an input or output parameter with this semantic ID") @RequestParam(required = false) String parameterSemanticId,
+            @Parameter(description = "Only return smart services with an input or output parameter of this value type, e.g. DOUBLE") @RequestParam(required = false) String parameterValueType,
+            @Parameter(description = "Cursor from the '" + PaginationHelper.HEADER_NEXT_CURSOR + "' header of the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Maximum number of smart services to return") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Properties to include in the result, all if empty") @RequestParam(required = false) Set<String> fields) {
+        return getSmartServices(
+                SmartServiceFilter.builder()
+                        .moduleId(null)
+                        .name(name)
+                        .serviceCatalogId(serviceCatalogId)
+                        .type(type)
+                        .inputParam(inputParam)
+                        .outputParam(outputParam)
+                        .parameterSemanticId(parameterSemanticId)
+                        .parameterValueType(parameterValueType)
+                        .build(),
+                after,
+                limit,
+                fields);
     }
 
 
@@ -82,6 +132,34 @@ public class SmartServiceController {
     }
 
 
+    @Operation(summary = "Get FMU of smart service", description = "Returns the FMU file of an existing embedded smart service by its ID", security = @SecurityRequirement(name = "bearerToken"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Embedded Smart Service not found", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping(value = "/services/{serviceId}/fmu", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void getSmartServiceFmu(@PathVariable String serviceId, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, String.format("attachment; filename=\"%s.fmu\"", serviceId));
+        fmuService.copyFmu(serviceId, response.getOutputStream());
+    }
+
+
+    @Operation(summary = "Get invocation statistics of smart service", description = "Returns latency percentiles and success rate of an existing smart service by its ID", security = @SecurityRequirement(name = "bearerToken"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Smart Service not found", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping("/services/{serviceId}/statistics")
+    public InvocationStatisticsResponseDto getSmartServiceStatistics(@PathVariable String serviceId) {
+        return invocationTracker.getServiceStatistics(smartServiceService.getSmartServiceById(serviceId).getId());
+    }
+
+
     @Operation(summary = "Create a new smart service", description = "Creates a new smart service within a module based on the provided details", security = @SecurityRequirement(name = "bearerToken"))
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Smart Service created successfully", headers = {
@@ -101,18 +179,43 @@ public class SmartServiceController {
     }
 
 
-    @Operation(summary = "Get services for a module", description = "Returns a list of services associated with the specified module", security = @SecurityRequirement(name = "bearerToken"))
+    @Operation(summary = "Get services for a module", description = "Returns a page of services associated with the specified module ordered by ID. " + PaginationHelper.PAGINATION_DESCRIPTION, security = @SecurityRequirement(name = "bearerToken"))
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "200", description = "Success", headers = {
+                    @Header(name = PaginationHelper.HEADER_NEXT_CURSOR, description = "Cursor to request the next page, absent on the last page")
+            }, content = @Content(array = @ArraySchema(schema = @Schema(implementation = SmartServiceResponseDto.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid query parameters", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
             @ApiResponse(responseCode = "404", description = "Module not found", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
     @GetMapping("/modules/{moduleId}/services")
-    public List<SmartServiceResponseDto> getServicesForModule(@PathVariable String moduleId) {
-        return moduleService.getModuleById(moduleId).getServices().stream()
-                .map(SmartServiceMapper::toDto)
-                .toList();
+    public ResponseEntity<List<?>> getServicesForModule(
+            @PathVariable String moduleId,
+            @Parameter(description = "Only return smart services whose name starts with this value") @RequestParam(required = false) String name,
+            @Parameter(description = "Only return smart services with this service catalog ID") @RequestParam(required = false) String serviceCatalogId,
+            @Parameter(description = "Only return smart services of this type (embedded, internal, external)") @RequestParam(required = false) String type,
+            @Parameter(description = "Only return smart services with an input parameter with this idShort") @RequestParam(required = false) String inputParam,
+            @Parameter(description = "Only return smart services with an output parameter with this idShort") @RequestParam(required = false) String outputParam,
+            @Parameter(description = "Only return smart services with an input or output parameter with this semantic ID") @RequestParam(required = false) String parameterSemanticId,
+            @Parameter(description = "Only return smart services with an input or output parameter of this value type, e.g. DOUBLE") @RequestParam(required = false) String parameterValueType,
+            @Parameter(description = "Cursor from the '" + PaginationHelper.HEADER_NEXT_CURSOR + "' header of the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Maximum number of smart services to return") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Properties to include in the result, all if empty") @RequestParam(required = false) Set<String> fields) {
+        return getSmartServices(
+                SmartServiceFilter.builder()
+                        .moduleId(moduleId)
+                        .name(name)
+                        .serviceCatalogId(serviceCatalogId)
+                        .type(type)
+                        .inputParam(inputParam)
+                        .outputParam(outputParam)
+                        .parameterSemanticId(parameterSemanticId)
+                        .parameterValueType(parameterValueType)
+                        .build(),
+                after,
+                limit,
+                fields);
     }
 
 
@@ -142,4 +245,17 @@ public class SmartServiceController {
     public void deleteSmartService(@PathVariable String serviceId) throws Exception {
         smartServiceService.deleteService(serviceId);
     }
+
+
+    private ResponseEntity<List<?>> getSmartServices(SmartServiceFilter filter, String after, Integer limit, Set<String> fields) {
+        int pageSize = PaginationHelper.resolveLimit(limit, config);
+        boolean includeParameters = SmartServiceMapper.requiresParameters(fields);
+        return PaginationHelper.response(
+                smartServiceService.getSmartServices(filter, after, pageSize, includeParameters),
+                pageSize,
+                SmartService::getId,
+                x -> SmartServiceMapper.toDto(x, includeParameters),
+                fields,
+                mapper);
+    }
 }
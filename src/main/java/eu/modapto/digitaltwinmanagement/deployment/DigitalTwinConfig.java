@@ -16,11 +16,13 @@ package eu.modapto.digitaltwinmanagement.deployment;
 
 import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.model.EnvironmentContext;
+import eu.modapto.digitaltwinmanagement.messagebus.DigitalTwinEventListener;
 import eu.modapto.digitaltwinmanagement.model.Module;
 import java.util.List;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
 
 
 @Getter
@@ -34,4 +36,6 @@ public class DigitalTwinConfig {
     private int messageBusMqttPort;
     private List<AssetConnectionConfig> assetConnections;
     private boolean smtSimulationReturnResultsForEachStep;
+    private DigitalTwinEventListener eventListener;
+    private List<Reference> forwardedOperations;
 }
@@ -16,10 +16,14 @@ package eu.modapto.digitaltwinmanagement.deployment;
 
 import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.endpoint.http.HttpEndpointConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBusConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal.MessageBusInternalConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.messagebus.internalmqttforward.MessageBusInternalMqttForwardConfig;
-import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.ExecuteEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.OperationFinishEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.OperationInvokeEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.validation.ModelValidatorConfig;
 import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.messagebus.DirectMessageBusConfig;
 import eu.modapto.digitaltwinmanagement.util.IdHelper;
 import eu.modapto.dt.faaast.service.smt.simulation.SimulationSubmodelTemplateProcessorConfig;
 
@@ -53,9 +57,19 @@ public abstract class DigitalTwinConnector {
     }
 
 
-    protected MessageBusInternalMqttForwardConfig getMessageBusMqttConfig() {
+    /**
+     * Creates the message bus config for DTs publishing their events via MQTT. DTs of modules without smart services do
+     * not forward any events and therefore use the internal message bus.
+     *
+     * @return the message bus config
+     */
+    protected MessageBusConfig<?> getMessageBusMqttConfig() {
+        if (dtConfig.getForwardedOperations().isEmpty()) {
+            return new MessageBusInternalConfig();
+        }
         return MessageBusInternalMqttForwardConfig.builder()
-                .eventToForward(ExecuteEventMessage.class)
+                .eventToForward(OperationInvokeEventMessage.class)
+                .eventToForward(OperationFinishEventMessage.class)
                 .host(dtConfig.getMessageBusMqttHost())
                 .port(dtConfig.getMessageBusMqttPort())
                 .topicPrefix(String.format("module/%s/", dtConfig.getModule().getId()))
@@ -64,6 +78,11 @@ public abstract class DigitalTwinConnector {
     }
 
 
+    protected DirectMessageBusConfig getMessageBusDirectConfig() {
+        return new DirectMessageBusConfig(dtConfig.getModule().getId(), dtConfig.getForwardedOperations(), dtConfig.getEventListener());
+    }
+
+
     protected SimulationSubmodelTemplateProcessorConfig getSimulationSubmodelTemplateProcessorConfig() {
         return SimulationSubmodelTemplateProcessorConfig.builder()
                 .returnResultsForEachStep(dtConfig.isSmtSimulationReturnResultsForEachStep())
@@ -16,10 +16,13 @@ package eu.modapto.digitaltwinmanagement.deployment;
 
 import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
 import eu.modapto.digitaltwinmanagement.exception.BadRequestException;
+import eu.modapto.digitaltwinmanagement.messagebus.DigitalTwinEventForwarder;
 import eu.modapto.digitaltwinmanagement.model.EmbeddedSmartService;
 import eu.modapto.digitaltwinmanagement.model.Module;
+import eu.modapto.digitaltwinmanagement.model.SmartService;
 import eu.modapto.digitaltwinmanagement.util.AddressTranslationHelper;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -31,10 +34,12 @@ public class DigitalTwinConnectorFactory {
     private static final DeploymentType DEFAULT_DEPLOYMENT_TYPE = DeploymentType.DOCKER;
 
     private final DigitalTwinManagementConfig config;
+    private final DigitalTwinEventForwarder eventForwarder;
 
     @Autowired
-    public DigitalTwinConnectorFactory(DigitalTwinManagementConfig config) {
+    public DigitalTwinConnectorFactory(DigitalTwinManagementConfig config, DigitalTwinEventForwarder eventForwarder) {
         this.config = config;
+        this.eventForwarder = eventForwarder;
     }
 
 
@@ -66,12 +71,19 @@ public class DigitalTwinConnectorFactory {
                 .messageBusMqttPort(config.getMqttPort())
                 .assetConnections(module.getAssetConnections())
                 .smtSimulationReturnResultsForEachStep(smtSimulationReturnResultsForEachStep)
+                .forwardedOperations(module.getServices().stream()
+                        .map(SmartService::getReference)
+                        .filter(Objects::nonNull)
+                        .toList())
                 .build();
         switch (Optional.ofNullable(module.getType()).orElse(DEFAULT_DEPLOYMENT_TYPE)) {
             case DOCKER -> {
                 return new DigitalTwinConnectorDocker(config, dtConfig);
             }
             case INTERNAL -> {
+                if (config.isInternalDirectEvents()) {
+                    dtConfig.setEventListener(eventForwarder);
+                }
                 return new DigitalTwinConnectorInternal(config, dtConfig);
             }
             default -> throw new IllegalArgumentException(String.format("Unsupported DT connector type '%s'", module.getType()));
@@ -23,6 +23,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.exception.PersistenceExceptio
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.memory.PersistenceInMemoryConfig;
 import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
 import eu.modapto.digitaltwinmanagement.exception.DigitalTwinException;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,7 +39,9 @@ public class DigitalTwinConnectorInternal extends DigitalTwinConnector {
         service = new Service(ServiceConfig.builder()
                 .core(getCoreConfig())
                 .endpoint(getHttpEndpointConfig(dtConfig.getHttpPort()))
-                .messageBus(getMessageBusMqttConfig())
+                .messageBus(Objects.nonNull(dtConfig.getEventListener())
+                        ? getMessageBusDirectConfig()
+                        : getMessageBusMqttConfig())
                 .submodelTemplateProcessor(getSimulationSubmodelTemplateProcessorConfig())
                 .assetConnections(dtConfig.getAssetConnections())
                 .persistence(PersistenceInMemoryConfig.builder()
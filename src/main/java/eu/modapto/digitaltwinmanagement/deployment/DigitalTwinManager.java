@@ -26,6 +26,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionConf
 import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.http.HttpAssetConnectionConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.http.provider.config.HttpOperationProviderConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.model.EnvironmentContext;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.LambdaExceptionHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.PortHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceBuilder;
@@ -41,6 +42,7 @@ import eu.modapto.digitaltwinmanagement.model.Module;
 import eu.modapto.digitaltwinmanagement.model.RestBasedSmartService;
 import eu.modapto.digitaltwinmanagement.model.SmartService;
 import eu.modapto.digitaltwinmanagement.repository.LiveModuleRepository;
+import eu.modapto.digitaltwinmanagement.service.FmuService;
 import eu.modapto.digitaltwinmanagement.util.AddressTranslationHelper;
 import eu.modapto.digitaltwinmanagement.util.DockerHelper;
 import eu.modapto.digitaltwinmanagement.util.EmbeddedSmartServiceHelper;
@@ -57,7 +59,9 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -71,6 +75,7 @@ import org.eclipse.digitaltwin.aas4j.v3.model.Qualifier;
 import org.eclipse.digitaltwin.aas4j.v3.model.QualifierKind;
 import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
 import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultLangStringNameType;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultLangStringTextType;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultOperation;
@@ -98,6 +103,7 @@ public class DigitalTwinManager {
 
     private final LiveModuleRepository liveModuleRepository;
     private final DigitalTwinConnectorFactory connectorFactory;
+    private final FmuService fmuService;
 
     private final Map<String, DigitalTwinConnector> instances = new HashMap<>();
     private DockerClient dockerClient;
@@ -108,10 +114,12 @@ public class DigitalTwinManager {
             DigitalTwinManagementConfig config,
             LiveModuleRepository liveModuleRepository,
             DigitalTwinConnectorFactory connectorFactory,
-            DigitalTwinEventForwarder eventForwarder) {
+            DigitalTwinEventForwarder eventForwarder,
+            FmuService fmuService) {
         this.config = config;
         this.liveModuleRepository = liveModuleRepository;
         this.connectorFactory = connectorFactory;
+        this.fmuService = fmuService;
     }
 
 
@@ -127,10 +135,12 @@ public class DigitalTwinManager {
         }
         liveModuleRepository.getAll().forEach(x -> {
             try {
-                DigitalTwinConnector connector = connectorFactory.create(x);
+                Module module = liveModuleRepository.loadWithModels(x.getId())
+                        .orElseThrow(() -> new DigitalTwinException(String.format("module not found (module id: %s)", x.getId())));
+                DigitalTwinConnector connector = connectorFactory.create(module);
                 connector.recreate();
-                liveModuleRepository.update(x);
-                instances.put(x.getId(), connector);
+                liveModuleRepository.update(module);
+                instances.put(module.getId(), connector);
             }
             catch (Exception e) {
                 LOGGER.warn("failed to re-create Digital Twin connector (moduleId: {}, reason: {})", x.getId(), e.getMessage(), e);
@@ -160,10 +170,11 @@ public class DigitalTwinManager {
     }
 
 
-    private void createActualModel(Module module) throws URISyntaxException, MalformedURLException {
+    private void createActualModel(Module module) throws URISyntaxException, IOException {
         LOGGER.debug("creating actual model via copy...");
         EnvironmentContext newActualModel = EnvironmentHelper.deepCopy(module.getProvidedModel());
         Submodel submodel = null;
+        List<AssetConnectionConfig> assetConnections = new ArrayList<>(Objects.requireNonNullElse(module.getAssetConnections(), List.of()));
         if (!module.getServices().isEmpty()) {
             submodel = createModaptoSubmodel(module.getActualModel());
             newActualModel.getEnvironment().getSubmodels().add(submodel);
@@ -175,20 +186,20 @@ public class DigitalTwinManager {
         for (var service: module.getServices()) {
             Operation operation = initializeOperation(service);
             if (service instanceof EmbeddedSmartService embedded) {
-                EmbeddedSmartServiceHelper.addSmartService(newActualModel, submodel, embedded, operation);
+                EmbeddedSmartServiceHelper.addSmartService(newActualModel, submodel, embedded, operation, fmuService.getFile(embedded));
             }
             else if (service instanceof InternalSmartService internal) {
                 ensureDockerRunning();
                 int port = startContainerForInternalService(internal);
                 submodel.getSubmodelElements().add(operation);
-                module.getAssetConnections().add(createAssetConnection(
+                assetConnections.add(createAssetConnection(
                         ReferenceBuilder.forSubmodel(submodel, operation),
                         internal,
                         port));
             }
             else if (service instanceof ExternalSmartService external) {
                 submodel.getSubmodelElements().add(operation);
-                module.getAssetConnections().add(createAssetConnection(
+                assetConnections.add(createAssetConnection(
                         ReferenceBuilder.forSubmodel(submodel, operation),
                         external));
             }
@@ -198,6 +209,7 @@ public class DigitalTwinManager {
             handleInputArgumentTypes(service, operation);
             service.setReference(ReferenceBuilder.forSubmodel(submodel, operation));
         }
+        module.setAssetConnections(assetConnections);
         module.setActualModel(newActualModel);
     }
 
@@ -414,12 +426,12 @@ public class DigitalTwinManager {
                         .build())
                 .inputVariables(service.getInputParameters().stream()
                         .map(x -> new DefaultOperationVariable.Builder()
-                                .value(x)
+                                .value(DeepCopyHelper.deepCopy(x, SubmodelElement.class))
                                 .build())
                         .collect(Collectors.toList()))
                 .outputVariables(service.getOutputParameters().stream()
                         .map(x -> new DefaultOperationVariable.Builder()
-                                .value(x)
+                                .value(DeepCopyHelper.deepCopy(x, SubmodelElement.class))
                                 .build())
                         .collect(Collectors.toList()))
                 .build();
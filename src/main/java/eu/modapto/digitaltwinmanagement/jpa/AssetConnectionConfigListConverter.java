@@ -19,11 +19,18 @@ import de.fraunhofer.iosb.ilt.faaast.service.dataformat.json.JsonApiDeserializer
 import de.fraunhofer.iosb.ilt.faaast.service.dataformat.json.JsonApiSerializer;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import org.hibernate.annotations.Immutable;
 
 
+/**
+ * Converts asset connections to/from the database. Asset connections are not kept in the decode cache as they are
+ * small and cannot be copied cheaper than decoding them again.
+ */
 @Converter(autoApply = false)
+@Immutable
 public class AssetConnectionConfigListConverter implements AttributeConverter<List<AssetConnectionConfig>, String> {
 
     @Override
@@ -43,7 +50,7 @@ public class AssetConnectionConfigListConverter implements AttributeConverter<Li
             return List.of();
         }
         try {
-            return new JsonApiDeserializer().readList(json, AssetConnectionConfig.class);
+            return Collections.unmodifiableList(new JsonApiDeserializer().readList(json, AssetConnectionConfig.class));
         }
         catch (Exception e) {
             throw new IllegalArgumentException("error reading asset connections from database", e);
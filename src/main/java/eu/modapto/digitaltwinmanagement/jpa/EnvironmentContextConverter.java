@@ -14,25 +14,47 @@
  */
 package eu.modapto.digitaltwinmanagement.jpa;
 
-import de.fraunhofer.iosb.ilt.faaast.service.dataformat.EnvironmentSerializationManager;
 import de.fraunhofer.iosb.ilt.faaast.service.model.EnvironmentContext;
-import de.fraunhofer.iosb.ilt.faaast.service.model.serialization.DataFormat;
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.jpa.cache.DecodeCache;
+import eu.modapto.digitaltwinmanagement.jpa.codec.EnvironmentContextCodec;
+import eu.modapto.digitaltwinmanagement.jpa.codec.EnvironmentContextCodecs;
+import eu.modapto.digitaltwinmanagement.util.EnvironmentHelper;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
-import java.io.ByteArrayInputStream;
 import java.util.Objects;
+import org.hibernate.annotations.Immutable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
 
 
+/**
+ * Converts AAS models to/from the database. Models are always written using the configured storage format while reading
+ * detects the format from the stored data. Rows stored in an older format are therefore migrated lazily upon their next
+ * update. Decoded models are cached, every entity receives its own deep copy, see {@link DecodeCache}.
+ */
+@Component
 @Converter(autoApply = false)
+@Immutable
 public class EnvironmentContextConverter implements AttributeConverter<EnvironmentContext, byte[]> {
 
+    private final EnvironmentContextCodec codec;
+    private final DecodeCache decodeCache;
+
+    @Autowired
+    public EnvironmentContextConverter(DigitalTwinManagementConfig config, DecodeCache decodeCache) {
+        this.codec = EnvironmentContextCodecs.forFormat(config.getModelStorageFormat());
+        this.decodeCache = decodeCache;
+    }
+
+
     @Override
     public byte[] convertToDatabaseColumn(EnvironmentContext environmentContext) {
         if (Objects.isNull(environmentContext)) {
             return new byte[0];
         }
         try {
-            return EnvironmentSerializationManager.serializerFor(DataFormat.AASX).write(environmentContext);
+            return codec.encode(environmentContext);
         }
         catch (Exception e) {
             throw new IllegalArgumentException("error writing AAS to database", e);
@@ -42,11 +64,15 @@ public class EnvironmentContextConverter implements AttributeConverter<Environme
 
     @Override
     public EnvironmentContext convertToEntityAttribute(byte[] data) {
-        if (Objects.isNull(data)) {
+        if (Objects.isNull(data) || data.length == 0) {
             return null;
         }
         try {
-            return EnvironmentSerializationManager.deserializerFor(DataFormat.AASX).read(new ByteArrayInputStream(data));
+            return decodeCache.get(
+                    EnvironmentContextConverter.class.getSimpleName(),
+                    data,
+                    x -> EnvironmentContextCodecs.detect(x).decode(x),
+                    EnvironmentHelper::deepCopy);
         }
         catch (Exception e) {
             throw new IllegalArgumentException("error reading AAS from database", e);
@@ -15,6 +15,8 @@
 package eu.modapto.digitaltwinmanagement.jpa;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
+import eu.modapto.digitaltwinmanagement.jpa.cache.DecodeCache;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 import java.io.ByteArrayInputStream;
@@ -25,19 +27,23 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.hibernate.annotations.Immutable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 
 @Component
 @Converter(autoApply = false)
+@Immutable
 public class ListOfSubmodelElementConverter implements AttributeConverter<List<SubmodelElement>, byte[]> {
 
     private final ObjectMapper mapper;
+    private final DecodeCache decodeCache;
 
     @Autowired
-    public ListOfSubmodelElementConverter(ObjectMapper mapper) {
+    public ListOfSubmodelElementConverter(ObjectMapper mapper, DecodeCache decodeCache) {
         this.mapper = mapper;
+        this.decodeCache = decodeCache;
     }
 
 
@@ -62,13 +68,28 @@ public class ListOfSubmodelElementConverter implements AttributeConverter<List<S
         if (Objects.isNull(data)) {
             return Collections.emptyList();
         }
-        try (ByteArrayInputStream temp = new ByteArrayInputStream(data)) {
-            return mapper.readValue(new InputStreamReader(temp, StandardCharsets.UTF_8),
-                    mapper.getTypeFactory().constructCollectionLikeType(List.class, SubmodelElement.class));
+        try {
+            return decodeCache.get(ListOfSubmodelElementConverter.class.getSimpleName(), data, this::decode, ListOfSubmodelElementConverter::copy);
         }
-        catch (IOException e) {
+        catch (Exception e) {
             throw new IllegalArgumentException("error reading AAS from database", e);
         }
     }
 
+
+    private static List<SubmodelElement> copy(List<SubmodelElement> submodelElements) {
+        return submodelElements.stream()
+                .map(x -> DeepCopyHelper.deepCopy(x, SubmodelElement.class))
+                .toList();
+    }
+
+
+    private List<SubmodelElement> decode(byte[] data) throws IOException {
+        try (ByteArrayInputStream temp = new ByteArrayInputStream(data)) {
+            List<SubmodelElement> result = mapper.readValue(new InputStreamReader(temp, StandardCharsets.UTF_8),
+                    mapper.getTypeFactory().constructCollectionLikeType(List.class, SubmodelElement.class));
+            return Collections.unmodifiableList(result);
+        }
+    }
+
 }
@@ -16,15 +16,34 @@ package eu.modapto.digitaltwinmanagement.jpa;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.modapto.digitaltwinmanagement.jpa.cache.DecodeCache;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import org.hibernate.annotations.Immutable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
 
 
+@Component
 @Converter(autoApply = false)
+@Immutable
 public class MapToJsonConverter implements AttributeConverter<Map<String, Object>, String> {
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    private final DecodeCache decodeCache;
+
+    @Autowired
+    public MapToJsonConverter(DecodeCache decodeCache) {
+        this.decodeCache = decodeCache;
+    }
+
+
     @Override
     public String convertToDatabaseColumn(Map<String, Object> map) {
         if (map == null)
@@ -43,10 +62,37 @@ public class MapToJsonConverter implements AttributeConverter<Map<String, Object
         if (json == null)
             return null;
         try {
-            return MAPPER.readValue(json, new TypeReference<Map<String, Object>>() {});
+            return decodeCache.get(
+                    MapToJsonConverter.class.getSimpleName(),
+                    json.getBytes(StandardCharsets.UTF_8),
+                    x -> toImmutable(MAPPER.readValue(x, new TypeReference<Map<String, Object>>() {})),
+                    x -> x);
         }
         catch (Exception e) {
             throw new IllegalArgumentException(e);
         }
     }
+
+
+    /**
+     * Converts a decoded JSON object to a deeply unmodifiable map, so that it can be shared between entities.
+     */
+    private static Map<String, Object> toImmutable(Map<?, ?> map) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        map.forEach((key, value) -> result.put(String.valueOf(key), toImmutableValue(value)));
+        return Collections.unmodifiableMap(result);
+    }
+
+
+    private static Object toImmutableValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return toImmutable(map);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> result = new ArrayList<>(list.size());
+            list.forEach(x -> result.add(toImmutableValue(x)));
+            return Collections.unmodifiableList(result);
+        }
+        return value;
+    }
 }
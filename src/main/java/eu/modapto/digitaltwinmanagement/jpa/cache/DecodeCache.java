@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.jpa.cache;
+
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Bounded cache mapping the raw data of a database column to its decoded value. Entries are keyed by the SHA-256 hash
+ * of the data and weighted by the size of the raw data. When the total size exceeds the configured maximum, least
+ * recently used entries are evicted. The weight is an approximation: decoded values usually take several times the size
+ * of their (possibly compressed) raw data on the heap, so the maximum size does not bound heap usage exactly.
+ *
+ * <p>Cached values are never handed out directly. Callers provide a copy function that is applied to every value
+ * returned, so that modifying the value of one entity does not affect other entities loaded from the same data. Values
+ * that are immutable may use the identity function.
+ */
+@Component
+public class DecodeCache {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final String METRIC_PREFIX = "dt.persistence.decode.cache";
+    private static final String TAG_CONVERTER = "converter";
+
+    private final long maxSize;
+    private final MeterRegistry meterRegistry;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Counter> hits = new ConcurrentHashMap<>();
+    private final Map<String, Counter> misses = new ConcurrentHashMap<>();
+    private final Counter evictions;
+    private long size;
+
+    @Autowired
+    public DecodeCache(DigitalTwinManagementConfig config, MeterRegistry meterRegistry) {
+        this.maxSize = config.getDecodeCacheMaxSize();
+        this.meterRegistry = meterRegistry;
+        this.evictions = Counter.builder(METRIC_PREFIX + ".evictions")
+                .description("number of decoded values evicted from the cache")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", this, DecodeCache::getSize)
+                .description("total size of the raw data of all cached values")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".entries", this, DecodeCache::getEntryCount)
+                .description("number of cached values")
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Gets the decoded value for given data, either from the cache or by decoding it.
+     *
+     * @param <T> the type of the decoded value
+     * @param converter name of the converter, used to separate entries and for metrics
+     * @param data the raw data
+     * @param decoder the decoder to use if the value is not yet cached
+     * @param copier creates a copy of a cached value that can safely be modified by the caller
+     * @return the decoded value, never shared with other callers
+     * @throws Exception if decoding fails
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String converter, byte[] data, Decoder<T> decoder, UnaryOperator<T> copier) throws Exception {
+        if (maxSize <= 0 || data.length > maxSize) {
+            return decoder.decode(data);
+        }
+        Key key = new Key(converter, hash(data));
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (Objects.nonNull(entry)) {
+                counter(hits, "hits", converter).increment();
+                return copier.apply((T) entry.value());
+            }
+        }
+        counter(misses, "misses", converter).increment();
+        T result = decoder.decode(data);
+        put(key, new Entry(result, data.length));
+        return copier.apply(result);
+    }
+
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            size = 0;
+        }
+    }
+
+
+    private void put(Key key, Entry entry) {
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            if (Objects.nonNull(previous)) {
+                size -= previous.size();
+            }
+            size += entry.size();
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                size -= iterator.next().size();
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+
+    private long getSize() {
+        synchronized (entries) {
+            return size;
+        }
+    }
+
+
+    private int getEntryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+
+    private Counter counter(Map<String, Counter> counters, String type, String converter) {
+        return counters.computeIfAbsent(converter, x -> Counter.builder(METRIC_PREFIX + "." + type)
+                .description(String.format("number of cache %s when decoding database columns", type))
+                .tag(TAG_CONVERTER, x)
+                .register(meterRegistry));
+    }
+
+
+    private static ByteBuffer hash(byte[] data) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance(HASH_ALGORITHM).digest(data));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(String.format("hash algorithm not available (algorithm: %s)", HASH_ALGORITHM), e);
+        }
+    }
+
+    /**
+     * Decodes raw column data.
+     *
+     * @param <T> the type of the decoded value
+     */
+    @FunctionalInterface
+    public interface Decoder<T> {
+        public T decode(byte[] data) throws Exception;
+    }
+
+    private record Key(String converter, ByteBuffer hash) {}
+
+    private record Entry(Object value, long size) {}
+}
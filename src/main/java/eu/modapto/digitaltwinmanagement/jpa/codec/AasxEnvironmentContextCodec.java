@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.jpa.codec;
+
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.EnvironmentSerializationManager;
+import de.fraunhofer.iosb.ilt.faaast.service.model.EnvironmentContext;
+import de.fraunhofer.iosb.ilt.faaast.service.model.serialization.DataFormat;
+import java.io.ByteArrayInputStream;
+
+
+/**
+ * Legacy codec storing models as plain AASX packages. Data is written without header so that older versions can still
+ * read it.
+ */
+public class AasxEnvironmentContextCodec implements EnvironmentContextCodec {
+
+    @Override
+    public ModelStorageFormat getFormat() {
+        return ModelStorageFormat.AASX;
+    }
+
+
+    @Override
+    public byte[] encode(EnvironmentContext environmentContext) throws Exception {
+        return EnvironmentSerializationManager.serializerFor(DataFormat.AASX).write(environmentContext);
+    }
+
+
+    @Override
+    public EnvironmentContext decode(byte[] data) throws Exception {
+        return EnvironmentSerializationManager.deserializerFor(DataFormat.AASX).read(new ByteArrayInputStream(data));
+    }
+}
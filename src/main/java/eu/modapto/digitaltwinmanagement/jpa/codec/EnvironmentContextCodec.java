@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.jpa.codec;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.EnvironmentContext;
+
+
+/**
+ * Encodes and decodes {@link EnvironmentContext} to/from the binary representation stored in the database.
+ */
+public interface EnvironmentContextCodec {
+
+    /**
+     * Gets the storage format produced by this codec.
+     *
+     * @return the storage format
+     */
+    public ModelStorageFormat getFormat();
+
+
+    /**
+     * Encodes the environment context.
+     *
+     * @param environmentContext the environment context to encode
+     * @return the encoded data
+     * @throws Exception if encoding fails
+     */
+    public byte[] encode(EnvironmentContext environmentContext) throws Exception;
+
+
+    /**
+     * Decodes the environment context.
+     *
+     * @param data the data as produced by {@link #encode(EnvironmentContext)}
+     * @return the decoded environment context
+     * @throws Exception if decoding fails
+     */
+    public EnvironmentContext decode(byte[] data) throws Exception;
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.jpa.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+
+/**
+ * Registry of available {@link EnvironmentContextCodec}s and helper methods for reading/writing the format header.
+ *
+ * <p>Header layout: 4 bytes magic ({@code MDTM}), 1 byte format id, 1 byte format version. Data without the magic
+ * prefix is considered to be a plain AASX package (legacy format).
+ */
+public class EnvironmentContextCodecs {
+
+    public static final int HEADER_LENGTH = 6;
+    private static final byte[] MAGIC = new byte[] {
+            'M',
+            'D',
+            'T',
+            'M'
+    };
+    private static final Map<ModelStorageFormat, EnvironmentContextCodec> CODECS = new EnumMap<>(ModelStorageFormat.class);
+
+    static {
+        register(new AasxEnvironmentContextCodec());
+        register(new SmileEnvironmentContextCodec());
+    }
+
+    private EnvironmentContextCodecs() {}
+
+
+    private static void register(EnvironmentContextCodec codec) {
+        CODECS.put(codec.getFormat(), codec);
+    }
+
+
+    /**
+     * Gets the codec for a given storage format.
+     *
+     * @param format the storage format
+     * @return the codec
+     */
+    public static EnvironmentContextCodec forFormat(ModelStorageFormat format) {
+        return CODECS.get(format);
+    }
+
+
+    /**
+     * Detects the codec needed to decode the given data based on its header.
+     *
+     * @param data the stored data
+     * @return the codec to decode the data with
+     */
+    public static EnvironmentContextCodec detect(byte[] data) {
+        return forFormat(detectFormat(data));
+    }
+
+
+    /**
+     * Detects the storage format of given data based on its header.
+     *
+     * @param data the stored data
+     * @return the storage format
+     */
+    public static ModelStorageFormat detectFormat(byte[] data) {
+        if (!hasHeader(data)) {
+            return ModelStorageFormat.AASX;
+        }
+        return ModelStorageFormat.fromId(data[MAGIC.length]);
+    }
+
+
+    static void writeHeader(ByteArrayOutputStream out, ModelStorageFormat format, byte version) {
+        out.write(MAGIC, 0, MAGIC.length);
+        out.write(format.getId());
+        out.write(version);
+    }
+
+
+    static byte readVersion(byte[] data) {
+        if (!hasHeader(data)) {
+            throw new IllegalArgumentException("data does not contain a model storage header");
+        }
+        return data[MAGIC.length + 1];
+    }
+
+
+    private static boolean hasHeader(byte[] data) {
+        if (Objects.isNull(data) || data.length < HEADER_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
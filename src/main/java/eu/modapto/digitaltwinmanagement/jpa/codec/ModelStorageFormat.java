@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.jpa.codec;
+
+/**
+ * Storage formats for AAS models persisted in the database.
+ */
+public enum ModelStorageFormat {
+    /**
+     * Plain AASX package without header. This is the legacy format and used for all rows written before storage codecs
+     * were introduced.
+     */
+    AASX((byte) 0),
+    /**
+     * Deflate-compressed Smile (binary JSON) encoding of the AAS JSON serialization, prefixed with a format header.
+     */
+    SMILE((byte) 1);
+
+    private final byte id;
+
+    ModelStorageFormat(byte id) {
+        this.id = id;
+    }
+
+
+    public byte getId() {
+        return id;
+    }
+
+
+    /**
+     * Finds the storage format by its header id.
+     *
+     * @param id the id as found in the header
+     * @return the matching format
+     * @throws IllegalArgumentException if there is no format with given id
+     */
+    public static ModelStorageFormat fromId(byte id) {
+        for (ModelStorageFormat format: values()) {
+            if (format.id == id) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException(String.format("unknown model storage format (id: %d)", id));
+    }
+}
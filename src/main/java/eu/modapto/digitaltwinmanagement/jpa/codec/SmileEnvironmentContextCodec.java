@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.jpa.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import de.fraunhofer.iosb.ilt.faaast.service.model.EnvironmentContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.aasx.InMemoryFile;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonMapperFactory;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.SimpleAbstractTypeResolverFactory;
+import org.eclipse.digitaltwin.aas4j.v3.model.Environment;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultEnvironment;
+
+
+/**
+ * Stores models as deflate-compressed Smile (binary JSON). The AAS environment is written using the regular AAS JSON
+ * mapping, supplementary files are written as raw binary values. Output is prefixed with a header as defined by
+ * {@link EnvironmentContextCodecs}.
+ */
+public class SmileEnvironmentContextCodec implements EnvironmentContextCodec {
+
+    private static final byte VERSION = 1;
+    private static final String FIELD_ENVIRONMENT = "environment";
+    private static final String FIELD_FILES = "files";
+    private static final String FIELD_PATH = "path";
+    private static final String FIELD_CONTENT = "content";
+
+    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+    private final SmileFactory smileFactory;
+
+    public SmileEnvironmentContextCodec() {
+        mapper = new JsonMapperFactory().create(new SimpleAbstractTypeResolverFactory().create());
+        writer = mapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        smileFactory = SmileFactory.builder()
+                .disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT)
+                .streamReadConstraints(StreamReadConstraints.builder()
+                        .maxStringLength(Integer.MAX_VALUE)
+                        .build())
+                .build();
+    }
+
+
+    @Override
+    public ModelStorageFormat getFormat() {
+        return ModelStorageFormat.SMILE;
+    }
+
+
+    @Override
+    public byte[] encode(EnvironmentContext environmentContext) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        EnvironmentContextCodecs.writeHeader(result, getFormat(), VERSION);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (OutputStream out = new DeflaterOutputStream(result, deflater);
+                JsonGenerator generator = smileFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeFieldName(FIELD_ENVIRONMENT);
+            writer.writeValue(generator, environmentContext.getEnvironment());
+            generator.writeArrayFieldStart(FIELD_FILES);
+            if (Objects.nonNull(environmentContext.getFiles())) {
+                for (InMemoryFile file: environmentContext.getFiles()) {
+                    generator.writeStartObject();
+                    generator.writeStringField(FIELD_PATH, file.getPath());
+                    generator.writeBinaryField(FIELD_CONTENT, file.getFileContent());
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        finally {
+            deflater.end();
+        }
+        return result.toByteArray();
+    }
+
+
+    @Override
+    public EnvironmentContext decode(byte[] data) throws IOException {
+        byte version = EnvironmentContextCodecs.readVersion(data);
+        if (version != VERSION) {
+            throw new IOException(String.format("unsupported Smile model version (version: %d)", version));
+        }
+        Environment environment = new DefaultEnvironment();
+        List<InMemoryFile> files = new ArrayList<>();
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(
+                data,
+                EnvironmentContextCodecs.HEADER_LENGTH,
+                data.length - EnvironmentContextCodecs.HEADER_LENGTH));
+                JsonParser parser = smileFactory.createParser(in)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (FIELD_ENVIRONMENT.equals(field)) {
+                    environment = mapper.readValue(parser, Environment.class);
+                }
+                else if (FIELD_FILES.equals(field)) {
+                    expect(token, JsonToken.START_ARRAY);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        files.add(readFile(parser));
+                    }
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return EnvironmentContext.builder()
+                .environment(environment)
+                .files(files)
+                .build();
+    }
+
+
+    private static InMemoryFile readFile(JsonParser parser) throws IOException {
+        String path = null;
+        byte[] content = new byte[0];
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (FIELD_PATH.equals(field)) {
+                path = parser.getValueAsString();
+            }
+            else if (FIELD_CONTENT.equals(field)) {
+                content = parser.getBinaryValue();
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+        return new InMemoryFile(content, path);
+    }
+
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException(String.format("malformed Smile model (expected: %s, actual: %s)", expected, actual));
+        }
+    }
+}
@@ -25,6 +25,8 @@ import eu.modapto.digitaltwinmanagement.model.response.ModuleDetailsResponseDto;
 import eu.modapto.digitaltwinmanagement.model.response.ModuleResponseDto;
 import java.io.ByteArrayInputStream;
 import java.util.Base64;
+import java.util.Objects;
+import java.util.Set;
 
 
 public class ModuleMapper {
@@ -45,15 +47,41 @@ public class ModuleMapper {
 
 
     public static ModuleResponseDto toDto(Module module) {
+        return toDto(module, true);
+    }
+
+
+    /**
+     * Maps a module to its DTO.
+     *
+     * @param module the module
+     * @param includeServices whether to include the smart services of the module, if false their lazily loaded state
+     *            is not accessed
+     * @return the DTO
+     */
+    public static ModuleResponseDto toDto(Module module, boolean includeServices) {
         return ModuleResponseDto.builder()
                 .id(module.getId())
                 .name(module.getName())
                 .endpoint(module.getExternalEndpoint())
-                .services(module.getServices().stream().map(SmartServiceMapper::toDto).toList())
+                .services(includeServices
+                        ? module.getServices().stream().map(SmartServiceMapper::toDto).toList()
+                        : null)
                 .build();
     }
 
 
+    /**
+     * Checks whether a field selection includes the smart services of a module.
+     *
+     * @param fields the selected fields, all if null or empty
+     * @return true if the services are selected, otherwise false
+     */
+    public static boolean requiresServices(Set<String> fields) {
+        return Objects.isNull(fields) || fields.isEmpty() || fields.contains("services");
+    }
+
+
     public static ModuleDetailsResponseDto toDetailsDto(Module module) throws SerializationException {
         return ModuleDetailsResponseDto.builder()
                 .actualModel(new String(EncodingHelper.base64Encode(EnvironmentSerializationManager
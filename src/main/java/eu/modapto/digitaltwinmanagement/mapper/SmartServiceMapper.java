@@ -18,6 +18,8 @@ import eu.modapto.digitaltwinmanagement.model.ArgumentMapping;
 import eu.modapto.digitaltwinmanagement.model.ArgumentType;
 import eu.modapto.digitaltwinmanagement.model.SmartService;
 import eu.modapto.digitaltwinmanagement.model.response.SmartServiceResponseDto;
+import java.util.Objects;
+import java.util.Set;
 
 
 public class SmartServiceMapper {
@@ -26,7 +28,20 @@ public class SmartServiceMapper {
 
 
     public static SmartServiceResponseDto toDto(SmartService service) {
-        return SmartServiceResponseDto.builder()
+        return toDto(service, true);
+    }
+
+
+    /**
+     * Maps a smart service to its DTO.
+     *
+     * @param service the smart service
+     * @param includeParameters whether to include the actual input and output parameters, if false the lazily loaded
+     *            parameters are not accessed
+     * @return the DTO
+     */
+    public static SmartServiceResponseDto toDto(SmartService service, boolean includeParameters) {
+        SmartServiceResponseDto result = SmartServiceResponseDto.builder()
                 .id(service.getId())
                 .serviceCatalogId(service.getServiceCatalogId())
                 .endpoint(service.getExternalEndpoint())
@@ -34,16 +49,34 @@ public class SmartServiceMapper {
                 .description(service.getDescription())
                 .inputArgumentTypes(service.getInputArgumentTypes())
                 .outputArgumentTypes(service.getOutputArgumentTypes())
-                .actualInputParameters(service.getInputParameters().stream()
-                        .filter(x -> service.getInputArgumentTypes()
-                                .getOrDefault(x.getIdShort(), ArgumentMapping.builder().type(ArgumentType.USER).build())
-                                .getType() == ArgumentType.USER)
-                        .toList())
-                .actualOutputParameters(service.getOutputParameters().stream()
-                        .filter(x -> service.getOutputArgumentTypes()
-                                .getOrDefault(x.getIdShort(), ArgumentMapping.builder().type(ArgumentType.USER).build())
-                                .getType() == ArgumentType.USER)
-                        .toList())
                 .build();
+        if (!includeParameters) {
+            return result;
+        }
+        result.setActualInputParameters(service.getInputParameters().stream()
+                .filter(x -> service.getInputArgumentTypes()
+                        .getOrDefault(x.getIdShort(), ArgumentMapping.builder().type(ArgumentType.USER).build())
+                        .getType() == ArgumentType.USER)
+                .toList());
+        result.setActualOutputParameters(service.getOutputParameters().stream()
+                .filter(x -> service.getOutputArgumentTypes()
+                        .getOrDefault(x.getIdShort(), ArgumentMapping.builder().type(ArgumentType.USER).build())
+                        .getType() == ArgumentType.USER)
+                .toList());
+        return result;
+    }
+
+
+    /**
+     * Checks whether a field selection includes the actual input or output parameters.
+     *
+     * @param fields the selected fields, all if null or empty
+     * @return true if the parameters are selected, otherwise false
+     */
+    public static boolean requiresParameters(Set<String> fields) {
+        return Objects.isNull(fields)
+                || fields.isEmpty()
+                || fields.contains("actualInputParameters")
+                || fields.contains("actualOutputParameters");
     }
 }
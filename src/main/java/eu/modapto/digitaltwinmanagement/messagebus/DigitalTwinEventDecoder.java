@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.DeserializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.SerializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.json.JsonEventDeserializer;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.json.JsonEventSerializer;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.ExecuteEventMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonMapperFactory;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.SimpleAbstractTypeResolverFactory;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+
+
+/**
+ * Decodes operation events published by DTs via MQTT. Decoding is split in cheap steps so that irrelevant messages can
+ * be discarded early: the module ID is taken from the topic without regular expressions, the operation reference is
+ * read by streaming the payload buffer without copying it, and only messages belonging to a known smart service are
+ * fully deserialized.
+ */
+public class DigitalTwinEventDecoder {
+
+    private static final String TOPIC_PREFIX = "module/";
+    private static final String[] TOPIC_SUFFIXES = {
+            "/OperationInvokeEventMessage",
+            "/OperationFinishEventMessage"
+    };
+    private static final int MODULE_ID_LENGTH = 36;
+    private static final String FIELD_ELEMENT = "element";
+
+    private final ObjectMapper mapper;
+    private final JsonFactory jsonFactory;
+    private final JsonEventDeserializer deserializer;
+    private final JsonEventSerializer serializer;
+
+    public DigitalTwinEventDecoder() {
+        mapper = new JsonMapperFactory().create(new SimpleAbstractTypeResolverFactory().create());
+        jsonFactory = mapper.getFactory();
+        deserializer = new JsonEventDeserializer();
+        serializer = new JsonEventSerializer();
+    }
+
+
+    /**
+     * Extracts the module ID from the topic of an operation event, i.e. from topics of the form
+     * {@code module/<moduleId>/Operation(Invoke|Finish)EventMessage}.
+     *
+     * @param topic the MQTT topic
+     * @return the module ID or null if the topic is not an operation event topic
+     */
+    public static String parseModuleId(String topic) {
+        if (Objects.isNull(topic) || !topic.startsWith(TOPIC_PREFIX)) {
+            return null;
+        }
+        int start = TOPIC_PREFIX.length();
+        int end = start + MODULE_ID_LENGTH;
+        if (topic.length() <= end || !isModuleId(topic, start, end) || !hasEventSuffix(topic, end)) {
+            return null;
+        }
+        return topic.substring(start, end);
+    }
+
+
+    /**
+     * Reads the reference to the operation from an event payload. Stops parsing as soon as the reference has been read,
+     * other top-level fields are skipped without being materialized. The reader index of the payload is not modified.
+     *
+     * @param payload the payload
+     * @return the reference or null if the payload does not contain a reference
+     * @throws IOException if the payload is not valid JSON
+     */
+    public Reference readElement(ByteBuf payload) throws IOException {
+        try (JsonParser parser = createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (FIELD_ELEMENT.equals(field)) {
+                    return mapper.readValue(parser, Reference.class);
+                }
+                parser.skipChildren();
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Fully deserializes an event payload. The reader index of the payload is not modified.
+     *
+     * @param payload the payload
+     * @return the event
+     * @throws DeserializationException if deserialization fails
+     */
+    public ExecuteEventMessage read(ByteBuf payload) throws DeserializationException {
+        return deserializer.read(payload.toString(StandardCharsets.UTF_8), ExecuteEventMessage.class);
+    }
+
+
+    /**
+     * Serializes an event to the same format DTs publish via MQTT.
+     *
+     * @param event the event
+     * @return the serialized event
+     * @throws SerializationException if serialization fails
+     */
+    public byte[] write(ExecuteEventMessage event) throws SerializationException {
+        return serializer.write(event).getBytes(StandardCharsets.UTF_8);
+    }
+
+
+    private JsonParser createParser(ByteBuf payload) throws IOException {
+        if (payload.hasArray()) {
+            return jsonFactory.createParser(payload.array(), payload.arrayOffset() + payload.readerIndex(), payload.readableBytes());
+        }
+        return jsonFactory.createParser((InputStream) new ByteBufInputStream(payload.duplicate()));
+    }
+
+
+    private static boolean isModuleId(String value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            boolean valid = c == '-'
+                    || (c >= '0' && c <= '9')
+                    || (c >= 'a' && c <= 'f')
+                    || (c >= 'A' && c <= 'F');
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static boolean hasEventSuffix(String topic, int offset) {
+        for (String suffix: TOPIC_SUFFIXES) {
+            if (topic.length() - offset == suffix.length() && topic.startsWith(suffix, offset)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -15,11 +15,10 @@
 package eu.modapto.digitaltwinmanagement.messagebus;
 
 import de.fraunhofer.iosb.ilt.faaast.service.dataformat.DeserializationException;
-import de.fraunhofer.iosb.ilt.faaast.service.dataformat.json.JsonEventDeserializer;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.SerializationException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.ExecuteEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.OperationFinishEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.OperationInvokeEventMessage;
-import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
 import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
 import eu.modapto.digitaltwinmanagement.exception.DigitalTwinException;
 import eu.modapto.digitaltwinmanagement.exception.ResourceNotFoundException;
@@ -28,8 +27,12 @@ import eu.modapto.digitaltwinmanagement.model.event.SmartServiceFinishedEvent;
 import eu.modapto.digitaltwinmanagement.model.event.SmartServiceInvokedEvent;
 import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceFinishedPayload;
 import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceInvokedPayload;
+import eu.modapto.digitaltwinmanagement.queue.EventCodec;
+import eu.modapto.digitaltwinmanagement.queue.PartitionedQueue;
+import eu.modapto.digitaltwinmanagement.queue.QueueSettings;
 import eu.modapto.digitaltwinmanagement.repository.LiveModuleRepository;
 import eu.modapto.digitaltwinmanagement.util.Processor;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.moquette.BrokerConstants;
 import io.moquette.broker.Server;
 import io.moquette.broker.config.IConfig;
@@ -42,21 +45,27 @@ import io.moquette.interception.messages.InterceptDisconnectMessage;
 import io.moquette.interception.messages.InterceptPublishMessage;
 import io.moquette.interception.messages.InterceptSubscribeMessage;
 import io.moquette.interception.messages.InterceptUnsubscribeMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Properties;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -64,34 +73,71 @@ import org.springframework.stereotype.Component;
 
 
 @Component
-public class DigitalTwinEventForwarder {
+public class DigitalTwinEventForwarder implements DigitalTwinEventListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DigitalTwinEventForwarder.class);
-    private static final Pattern REGEX_MQTT_TOPIC = Pattern.compile("module\\/([0-9a-fA-F-]{36})\\/Operation(Invoke|Finish)EventMessage");
+    private static final String QUEUE_NAME = "mqtt-consumer";
     private final DigitalTwinManagementConfig config;
     private final LiveModuleRepository liveModuleRepository;
     private final KafkaBridge kafkaBridge;
-    private final JsonEventDeserializer deserializer;
+    private final MeterRegistry meterRegistry;
+    private final ProcessorWatchdog processorWatchdog;
+    private final InvocationTracker invocationTracker;
+    private final DigitalTwinEventDecoder decoder;
     private ExecutorService executorService;
     private Server mqttServer;
-    private BlockingQueue<InterceptPublishMessage> eventQueue;
+    private PartitionedQueue<ReceivedEvent> eventQueue;
 
     @Autowired
-    public DigitalTwinEventForwarder(DigitalTwinManagementConfig config, LiveModuleRepository liveModuleRepository, KafkaBridge kafkaBridge) {
+    public DigitalTwinEventForwarder(DigitalTwinManagementConfig config,
+            LiveModuleRepository liveModuleRepository,
+            KafkaBridge kafkaBridge,
+            MeterRegistry meterRegistry,
+            ProcessorWatchdog processorWatchdog,
+            InvocationTracker invocationTracker) {
         this.config = config;
         this.liveModuleRepository = liveModuleRepository;
         this.kafkaBridge = kafkaBridge;
-        deserializer = new JsonEventDeserializer();
+        this.meterRegistry = meterRegistry;
+        this.processorWatchdog = processorWatchdog;
+        this.invocationTracker = invocationTracker;
+        decoder = new DigitalTwinEventDecoder();
     }
 
 
     @PostConstruct
     public void init() {
-        eventQueue = new ArrayBlockingQueue<>(config.getMqttQueueSize());
-        executorService = Executors.newFixedThreadPool(config.getMqttThreadCount());
-        for (int i = 0; i < config.getMqttThreadCount(); i++) {
-            executorService.submit(new Processor<>(eventQueue, this::handle, "mqtt-consumer"));
+        try {
+            eventQueue = new PartitionedQueue<>(
+                    QueueSettings.builder()
+                            .name(QUEUE_NAME)
+                            .capacity(config.getMqttQueueSize())
+                            .queueType(config.getMqttQueueType())
+                            .waitStrategy(config.getMqttQueueWaitStrategy())
+                            .batchSize(config.getMqttQueueBatchSize())
+                            .overflowPolicy(config.getMqttQueueOverflowPolicy())
+                            .blockTimeout(Duration.ofMillis(config.getMqttQueueBlockTimeout()))
+                            .sampleRate(config.getMqttQueueSampleRate())
+                            .spillDirectory(Path.of(config.getSpillDirectory()))
+                            .segmentSize(config.getSpillSegmentSize())
+                            .maxSpillSize(config.getSpillMaxSize())
+                            .retention(Duration.ofMillis(config.getSpillRetention()))
+                            .persistent(config.isMqttQueuePersistent())
+                            .build(),
+                    config.getMqttThreadCount(),
+                    config.getMqttQueueRebalanceThreshold(),
+                    ReceivedEvent::moduleId,
+                    new ReceivedEventCodec(),
+                    ReceivedEvent::release,
+                    meterRegistry);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("failed to create MQTT event queue", e);
         }
+        executorService = Executors.newCachedThreadPool();
+        List<Processor<ReceivedEvent>> processors = eventQueue.createProcessors(this::handle);
+        processors.forEach(executorService::submit);
+        processorWatchdog.watch(processors, executorService);
         startMqttServer();
     }
 
@@ -122,20 +168,28 @@ public class DigitalTwinEventForwarder {
         }
         executorService.shutdown();
         try {
-            if (executorService.awaitTermination(2, TimeUnit.SECONDS)) {
-                return;
+            if (!executorService.awaitTermination(2, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+                executorService.awaitTermination(2, TimeUnit.SECONDS);
             }
         }
         catch (InterruptedException ex) {
             LOGGER.error("Interrupted while waiting for shutdown.", ex);
             Thread.currentThread().interrupt();
+            executorService.shutdownNow();
+        }
+        LOGGER.warn("There were {} messages left on the MQTT queue", eventQueue.size());
+        try {
+            eventQueue.close();
+        }
+        catch (IOException e) {
+            LOGGER.warn("failed to close MQTT event queue (reason: {})", e.getMessage(), e);
         }
-        List<Runnable> list = executorService.shutdownNow();
-        LOGGER.warn("There were {} messages left on the MQTT queue", list.size());
     }
 
 
-    private void handle(SmartService service, OperationInvokeEventMessage event) {
+    private void handle(SmartService service, OperationInvokeEventMessage event, long received) {
+        invocationTracker.invoked(service, event.getInvocationId(), received);
         kafkaBridge.publish(SmartServiceInvokedEvent.builder()
                 .moduleId(service.getModule().getId())
                 .payload(SmartServiceInvokedPayload.builder()
@@ -150,7 +204,8 @@ public class DigitalTwinEventForwarder {
     }
 
 
-    private void handle(SmartService service, OperationFinishEventMessage event) {
+    private void handle(SmartService service, OperationFinishEventMessage event, long received) {
+        OptionalLong duration = invocationTracker.finished(service, event.getInvocationId(), event.getSuccess(), received);
         kafkaBridge.publish(SmartServiceFinishedEvent.builder()
                 .moduleId(service.getModule().getId())
                 .payload(SmartServiceFinishedPayload.builder()
@@ -161,78 +216,177 @@ public class DigitalTwinEventForwarder {
                         .name(service.getName())
                         .serviceCatalogId(service.getServiceCatalogId())
                         .endpoint(service.getExternalEndpoint())
+                        .durationMs(duration.isPresent() && config.isInvocationTrackingAttachDuration()
+                                ? duration.getAsLong()
+                                : null)
                         .build())
                 .build());
     }
 
 
-    private SmartService findServiceByAasOperation(String moduleId, Reference reference) {
+    /**
+     * Handles events of DTs running in the same JVM. Events are already filtered by operation by the DT and are queued
+     * as objects, i.e. they are neither serialized nor deserialized.
+     *
+     * @param moduleId the ID of the module the event belongs to
+     * @param event the event
+     */
+    @Override
+    public void onEvent(String moduleId, ExecuteEventMessage event) {
         if (!liveModuleRepository.contains(moduleId)) {
-            return null;
+            return;
+        }
+        if (!eventQueue.offer(new ReceivedEvent(null, moduleId, InvocationTracker.now(), null, event))) {
+            LOGGER.warn("internal DT event dropped due to full queue (moduleId: {}, policy: {})",
+                    moduleId,
+                    config.getMqttQueueOverflowPolicy());
+            return;
         }
-        return liveModuleRepository.get(moduleId)
-                .getServices().stream()
-                .filter(x -> ReferenceHelper.equals(reference, x.getReference()))
-                .findFirst()
-                .orElse(null);
+        LOGGER.trace("internal DT event queued (moduleId: {})", moduleId);
     }
 
 
-    private void handle(InterceptPublishMessage msg) {
-        if (LOGGER.isTraceEnabled()) {
-            LOGGER.trace("handling MQTT message (clientId: {}, topic: {}, payload: {})",
-                    msg.getClientID(),
-                    msg.getClientID(),
-                    msg.getPayload().toString(StandardCharsets.UTF_8));
+    private void handle(SmartService service, ExecuteEventMessage event, long received) {
+        if (event instanceof OperationInvokeEventMessage invoke) {
+            handle(service, invoke, received);
         }
-        String topic = msg.getTopicName();
-        Matcher matcher = REGEX_MQTT_TOPIC.matcher(topic);
-        if (!matcher.matches()) {
+        else if (event instanceof OperationFinishEventMessage finish) {
+            handle(service, finish, received);
+        }
+        else {
+            throw new DigitalTwinException(String.format("Received unsupported message from Digital Twin message bus (type: %s)", event.getClass().getSimpleName()));
+        }
+    }
+
+
+    private void handleDirect(ReceivedEvent received) {
+        try {
+            Optional<SmartService> service = liveModuleRepository.findServiceByOperation(received.moduleId(), received.event().getElement());
+            if (service.isPresent()) {
+                handle(service.get(), received.event(), received.received());
+            }
+            LOGGER.trace("internal DT event handled (moduleId: {})", received.moduleId());
+        }
+        catch (ResourceNotFoundException e) {
+            LOGGER.warn("error handling internal DT event (reason: {})", e.getMessage(), e);
+        }
+    }
+
+
+    private void handle(ReceivedEvent received) {
+        if (Objects.isNull(received.payload())) {
+            handleDirect(received);
             return;
         }
-        String payload = msg.getPayload().toString(StandardCharsets.UTF_8);
-        String moduleId = matcher.group(1);
+        ByteBuf payload = received.payload();
         try {
-            ExecuteEventMessage event = deserializer.read(payload, ExecuteEventMessage.class);
-            SmartService service = findServiceByAasOperation(moduleId, event.getElement());
-            if (Objects.isNull(service)) {
-                return;
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace("handling MQTT message (clientId: {}, moduleId: {}, payload: {})",
+                        received.clientId(),
+                        received.moduleId(),
+                        payload.toString(StandardCharsets.UTF_8));
             }
-            if (event instanceof OperationInvokeEventMessage invoke) {
-                handle(service, invoke);
+            Optional<SmartService> service = liveModuleRepository.findServiceByOperation(received.moduleId(), decoder.readElement(payload));
+            if (service.isEmpty()) {
+                return;
             }
-            else if (event instanceof OperationFinishEventMessage finish) {
-                handle(service, finish);
+            handle(service.get(), decoder.read(payload), received.received());
+            LOGGER.trace("MQTT message handled (clientId: {}, moduleId: {})", received.clientId(), received.moduleId());
+        }
+        catch (IOException | ResourceNotFoundException | DeserializationException e) {
+            LOGGER.warn("error handling MQTT message from DT (reason: {})", e.getMessage(), e);
+        }
+        finally {
+            payload.release();
+        }
+    }
+
+    /**
+     * An operation event received either via MQTT or directly from a DT running in the same JVM. Events received via
+     * MQTT hold a reference to the payload buffer handed over by the broker, which must be released once the event has
+     * been handled. Events received directly hold the event object and no payload. The time of receipt is taken
+     * from {@link InvocationTracker#now()}.
+     */
+    private record ReceivedEvent(String clientId, String moduleId, long received, ByteBuf payload, ExecuteEventMessage event) {
+
+        ReceivedEvent(String clientId, String moduleId, long received, ByteBuf payload) {
+            this(clientId, moduleId, received, payload, null);
+        }
+
+
+        void release() {
+            if (Objects.nonNull(payload)) {
+                payload.release();
             }
-            else {
-                throw new DigitalTwinException(String.format("Received unsupported message from Digital Twin message bus (type: %s)", event.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Writes received events to disk. Events received directly are serialized to the MQTT payload format. Events read
+     * back from disk hold an unpooled copy of the payload.
+     */
+    private class ReceivedEventCodec implements EventCodec<ReceivedEvent> {
+
+        @Override
+        public byte[] encode(ReceivedEvent event) throws IOException {
+            ByteBuf payload = event.payload();
+            if (Objects.isNull(payload)) {
+                try {
+                    payload = Unpooled.wrappedBuffer(decoder.write(event.event()));
+                }
+                catch (SerializationException e) {
+                    throw new IOException("failed to serialize internal DT event", e);
+                }
             }
-            if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace("MQTT message handled (clientId: {}, topic: {}, payload: {})",
-                        msg.getClientID(),
-                        msg.getClientID(),
-                        msg.getPayload().toString(StandardCharsets.UTF_8));
+            ByteArrayOutputStream result = new ByteArrayOutputStream(payload.readableBytes() + 128);
+            try (DataOutputStream out = new DataOutputStream(result)) {
+                out.writeUTF(Objects.requireNonNullElse(event.clientId(), ""));
+                out.writeUTF(event.moduleId());
+                out.writeLong(event.received());
+                out.writeInt(payload.readableBytes());
+                payload.getBytes(payload.readerIndex(), out, payload.readableBytes());
             }
-
+            return result.toByteArray();
         }
-        catch (ResourceNotFoundException | DeserializationException e) {
-            LOGGER.warn("error handling MQTT message from DT (reason: {})", e.getMessage(), e);
+
+
+        @Override
+        public ReceivedEvent decode(byte[] data) throws IOException {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+                String clientId = in.readUTF();
+                String moduleId = in.readUTF();
+                long received = in.readLong();
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                return new ReceivedEvent(clientId, moduleId, received, Unpooled.wrappedBuffer(payload));
+            }
         }
     }
 
     private class MqttInterceptHandler extends AbstractInterceptHandler {
 
+        /**
+         * Filters and queues published messages. The broker passes a retained duplicate of the payload to each
+         * interceptor which is released here for messages that are discarded, by the queue for messages that are
+         * dropped or spilled to disk and after handling for all others.
+         *
+         * @param msg the published message
+         */
         @Override
         public void onPublish(InterceptPublishMessage msg) {
-            if (!eventQueue.offer(msg)) {
-                LOGGER.error("Failed to queue MQTT message");
+            String moduleId = DigitalTwinEventDecoder.parseModuleId(msg.getTopicName());
+            if (Objects.isNull(moduleId) || !liveModuleRepository.contains(moduleId)) {
+                msg.getPayload().release();
+                return;
             }
-            if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace("MQTT message queued (clientId: {}, topic: {}, payload: {})",
-                        msg.getClientID(),
+            if (!eventQueue.offer(new ReceivedEvent(msg.getClientID(), moduleId, InvocationTracker.now(), msg.getPayload()))) {
+                LOGGER.warn("MQTT message dropped due to full queue (clientId: {}, topic: {}, policy: {})",
                         msg.getClientID(),
-                        msg.getPayload().toString(StandardCharsets.UTF_8));
+                        msg.getTopicName(),
+                        config.getMqttQueueOverflowPolicy());
+                return;
             }
+            LOGGER.trace("MQTT message queued (clientId: {}, topic: {})", msg.getClientID(), msg.getTopicName());
         }
 
 
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.ExecuteEventMessage;
+
+
+/**
+ * Receives operation events directly from Digital Twins running in the same JVM.
+ */
+@FunctionalInterface
+public interface DigitalTwinEventListener {
+
+    /**
+     * Called for each operation event published by a Digital Twin.
+     *
+     * @param moduleId the ID of the module the Digital Twin belongs to
+     * @param event the event
+     */
+    public void onEvent(String moduleId, ExecuteEventMessage event);
+}
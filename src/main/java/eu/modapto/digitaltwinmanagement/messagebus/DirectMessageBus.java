@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import de.fraunhofer.iosb.ilt.faaast.service.ServiceContext;
+import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.ConfigurationInitializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal.MessageBusInternal;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal.MessageBusInternalConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionId;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.ExecuteEventMessage;
+import java.util.Objects;
+
+
+/**
+ * FA³ST message bus for Digital Twins running in the same JVM as DT Management. Works like the internal message bus
+ * and additionally hands {@link ExecuteEventMessage}s directly to a {@link DigitalTwinEventListener}, i.e. without
+ * serialization, MQTT broker or MQTT client. Only events of operations contained in
+ * {@link DirectMessageBusConfig#getOperations()} are handed to the listener.
+ */
+public class DirectMessageBus implements MessageBus<DirectMessageBusConfig> {
+
+    private final MessageBusInternal local = new MessageBusInternal();
+    private DirectMessageBusConfig config;
+    private OperationFilter filter;
+
+    @Override
+    public void init(CoreConfig coreConfig, DirectMessageBusConfig config, ServiceContext serviceContext) throws ConfigurationInitializationException {
+        this.config = config;
+        this.filter = new OperationFilter(config.getOperations());
+        local.init(coreConfig, new MessageBusInternalConfig(), serviceContext);
+    }
+
+
+    @Override
+    public DirectMessageBusConfig asConfig() {
+        return config;
+    }
+
+
+    @Override
+    public void publish(EventMessage message) throws MessageBusException {
+        local.publish(message);
+        if (message instanceof ExecuteEventMessage event
+                && Objects.nonNull(config.getListener())
+                && filter.matches(event.getElement())) {
+            config.getListener().onEvent(config.getModuleId(), event);
+        }
+    }
+
+
+    @Override
+    public void start() throws MessageBusException {
+        local.start();
+    }
+
+
+    @Override
+    public void stop() {
+        local.stop();
+    }
+
+
+    @Override
+    public SubscriptionId subscribe(SubscriptionInfo subscriptionInfo) {
+        return local.subscribe(subscriptionInfo);
+    }
+
+
+    @Override
+    public void unsubscribe(SubscriptionId id) {
+        local.unsubscribe(id);
+    }
+}
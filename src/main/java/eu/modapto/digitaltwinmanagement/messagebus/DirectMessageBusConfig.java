@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBusConfig;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+
+
+/**
+ * Configuration of {@link DirectMessageBus}.
+ */
+public class DirectMessageBusConfig extends MessageBusConfig<DirectMessageBus> {
+
+    private String moduleId;
+    private List<Reference> operations = new ArrayList<>();
+    @JsonIgnore
+    private DigitalTwinEventListener listener;
+
+    public DirectMessageBusConfig() {}
+
+
+    public DirectMessageBusConfig(String moduleId, List<Reference> operations, DigitalTwinEventListener listener) {
+        this.moduleId = moduleId;
+        this.operations = operations;
+        this.listener = listener;
+    }
+
+
+    public String getModuleId() {
+        return moduleId;
+    }
+
+
+    public void setModuleId(String moduleId) {
+        this.moduleId = moduleId;
+    }
+
+
+    /**
+     * Gets the operations for which events are handed to the listener. Events of all other operations are only
+     * published locally.
+     *
+     * @return the operations
+     */
+    public List<Reference> getOperations() {
+        return operations;
+    }
+
+
+    public void setOperations(List<Reference> operations) {
+        this.operations = operations;
+    }
+
+
+    public DigitalTwinEventListener getListener() {
+        return listener;
+    }
+
+
+    public void setListener(DigitalTwinEventListener listener) {
+        this.listener = listener;
+    }
+}
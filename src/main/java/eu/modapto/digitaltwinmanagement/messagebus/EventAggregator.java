@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
+import eu.modapto.digitaltwinmanagement.model.event.AbstractEvent;
+import eu.modapto.digitaltwinmanagement.model.event.SmartServiceFinishedEvent;
+import eu.modapto.digitaltwinmanagement.model.event.SmartServiceInvokedEvent;
+import eu.modapto.digitaltwinmanagement.model.event.SmartServiceSummaryEvent;
+import eu.modapto.digitaltwinmanagement.model.event.payload.AbstractSmartServicePayload;
+import eu.modapto.digitaltwinmanagement.model.event.payload.ResultReference;
+import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceFinishedPayload;
+import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceInvokedPayload;
+import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceSummaryPayload;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Aggregates {@link SmartServiceInvokedEvent}s and {@link SmartServiceFinishedEvent}s per module and smart service in
+ * tumbling windows aligned to multiples of the window length. At the end of each window, one
+ * {@link SmartServiceSummaryEvent} is published for every smart service that received events, containing counts,
+ * success rate, latency percentiles (based on {@code durationMs} of the finish events) and the last output arguments.
+ * Large output arguments can be offloaded when the summary is created, so that they are serialized at most once per
+ * window and smart service instead of once per finish event. The summary then contains a reference to them.
+ *
+ * <p>Raw events are sampled by invocation ID so that invoke and finish events of the same invocation are either both
+ * kept or both dropped. Kept raw events are published on their original topic with a configurable suffix.
+ *
+ * <p>Metrics: {@code dt.kafka.aggregation.events} and {@code dt.kafka.aggregation.summaries}.
+ */
+public class EventAggregator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventAggregator.class);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private final long window;
+    private final int rawSampleRate;
+    private final String rawTopicSuffix;
+    private final Consumer<AbstractEvent<?>> publisher;
+    private final Function<Map<String, ElementValue>, ResultReference> offloader;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong rawCounter = new AtomicLong();
+    private final Counter aggregated;
+    private final Counter summaries;
+    private Map<WindowKey, Window> windows = new ConcurrentHashMap<>();
+    private long windowStart;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param window the window length
+     * @param rawSampleRate publish every n-th invocation as raw events, 0 to drop all raw events
+     * @param rawTopicSuffix suffix appended to the topic of raw events
+     * @param publisher used to publish summary events
+     * @param meterRegistry the meter registry
+     */
+    public EventAggregator(Duration window, int rawSampleRate, String rawTopicSuffix, Consumer<AbstractEvent<?>> publisher, MeterRegistry meterRegistry) {
+        this(window, rawSampleRate, rawTopicSuffix, publisher, x -> null, meterRegistry);
+    }
+
+
+    /**
+     * Creates a new instance.
+     *
+     * @param window the window length
+     * @param rawSampleRate publish every n-th invocation as raw events, 0 to drop all raw events
+     * @param rawTopicSuffix suffix appended to the topic of raw events
+     * @param publisher used to publish summary events
+     * @param offloader stores the last output arguments of a window and returns a reference to them, or null if they
+     *            should be kept in the summary event
+     * @param meterRegistry the meter registry
+     */
+    public EventAggregator(Duration window,
+            int rawSampleRate,
+            String rawTopicSuffix,
+            Consumer<AbstractEvent<?>> publisher,
+            Function<Map<String, ElementValue>, ResultReference> offloader,
+            MeterRegistry meterRegistry) {
+        this.window = window.toMillis();
+        this.rawSampleRate = rawSampleRate;
+        this.rawTopicSuffix = Objects.requireNonNullElse(rawTopicSuffix, "");
+        this.publisher = publisher;
+        this.offloader = offloader;
+        this.aggregated = Counter.builder("dt.kafka.aggregation.events")
+                .description("Number of smart service events aggregated into summary events")
+                .register(meterRegistry);
+        this.summaries = Counter.builder("dt.kafka.aggregation.summaries")
+                .description("Number of published summary events")
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Starts closing windows periodically.
+     */
+    public void start() {
+        long now = System.currentTimeMillis();
+        windowStart = now - now % window;
+        scheduler = Executors.newSingleThreadScheduledExecutor(x -> {
+            Thread result = new Thread(x, "event-aggregator");
+            result.setDaemon(true);
+            return result;
+        });
+        scheduler.scheduleAtFixedRate(this::flush, windowStart + window - now, window, TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Stops closing windows periodically and publishes summaries of the current windows.
+     */
+    public void stop() {
+        if (Objects.nonNull(scheduler)) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+
+    /**
+     * Checks if an event is subject to aggregation.
+     *
+     * @param event the event
+     * @return true if the event is an invoke or finish event of a smart service
+     */
+    public static boolean accepts(AbstractEvent<?> event) {
+        return event instanceof SmartServiceInvokedEvent || event instanceof SmartServiceFinishedEvent;
+    }
+
+
+    /**
+     * Adds an event to the current window of its smart service.
+     *
+     * @param event the event, must be accepted by {@link #accepts(AbstractEvent)}
+     * @return the topic to publish the raw event on, or null if the raw event should be dropped
+     */
+    public String add(AbstractEvent<?> event) {
+        AbstractSmartServicePayload payload = (AbstractSmartServicePayload) event.getPayload();
+        String invocationId;
+        lock.readLock().lock();
+        try {
+            invocationId = windows.computeIfAbsent(
+                    new WindowKey(event.getModuleId(), Objects.nonNull(payload) ? payload.getServiceId() : null),
+                    x -> new Window())
+                    .add(event);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        aggregated.increment();
+        return isSampled(invocationId) ? event.getTopic() + rawTopicSuffix : null;
+    }
+
+
+    private boolean isSampled(String invocationId) {
+        if (rawSampleRate <= 1) {
+            return rawSampleRate == 1;
+        }
+        long value = Objects.nonNull(invocationId)
+                ? invocationId.hashCode()
+                : rawCounter.getAndIncrement();
+        return Math.floorMod(value, rawSampleRate) == 0;
+    }
+
+
+    /**
+     * Closes the current windows and publishes their summaries.
+     */
+    void flush() {
+        try {
+            Map<WindowKey, Window> closed;
+            long start;
+            long end;
+            lock.writeLock().lock();
+            try {
+                closed = windows;
+                windows = new ConcurrentHashMap<>();
+                long now = System.currentTimeMillis();
+                start = windowStart;
+                end = Math.max(now - now % window, start);
+                if (end == start) {
+                    end = now;
+                }
+                windowStart = end;
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+            for (var entry: closed.entrySet()) {
+                publisher.accept(entry.getValue().toEvent(entry.getKey(), toLocalDateTime(start), toLocalDateTime(end), offloader));
+                summaries.increment();
+            }
+            LOGGER.trace("aggregation window closed (summaries: {})", closed.size());
+        }
+        catch (RuntimeException e) {
+            LOGGER.warn("failed to publish summary events (reason: {})", e.getMessage(), e);
+        }
+    }
+
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private record WindowKey(String moduleId, String serviceId) {}
+
+    /**
+     * Statistics of a single smart service within one window.
+     */
+    private static class Window {
+
+        private final Histogram latency = new Histogram(SIGNIFICANT_DIGITS);
+        private long invokedCount;
+        private long finishedCount;
+        private long successCount;
+        private AbstractSmartServicePayload last;
+        private String lastInvocationId;
+        private Map<String, ElementValue> lastOutputArguments = Map.of();
+
+        synchronized String add(AbstractEvent<?> event) {
+            if (event instanceof SmartServiceInvokedEvent invokedEvent && Objects.nonNull(invokedEvent.getPayload())) {
+                SmartServiceInvokedPayload payload = invokedEvent.getPayload();
+                invokedCount++;
+                last = payload;
+                lastInvocationId = payload.getInvocationId();
+            }
+            else if (event instanceof SmartServiceFinishedEvent finishedEvent && Objects.nonNull(finishedEvent.getPayload())) {
+                SmartServiceFinishedPayload payload = finishedEvent.getPayload();
+                finishedCount++;
+                if (payload.isSuccess()) {
+                    successCount++;
+                }
+                if (Objects.nonNull(payload.getDurationMs())) {
+                    latency.recordValue(Math.max(0, payload.getDurationMs()));
+                }
+                if (Objects.nonNull(payload.getOutputArguments())) {
+                    lastOutputArguments = payload.getOutputArguments();
+                }
+                last = payload;
+                lastInvocationId = payload.getInvocationId();
+            }
+            return lastInvocationId;
+        }
+
+
+        synchronized SmartServiceSummaryEvent toEvent(WindowKey key,
+                LocalDateTime start,
+                LocalDateTime end,
+                Function<Map<String, ElementValue>, ResultReference> offloader) {
+            boolean hasLatency = latency.getTotalCount() > 0;
+            ResultReference lastResult = offloader.apply(lastOutputArguments);
+            return SmartServiceSummaryEvent.builder()
+                    .moduleId(key.moduleId())
+                    .payload(SmartServiceSummaryPayload.builder()
+                            .serviceId(key.serviceId())
+                            .serviceCatalogId(Objects.nonNull(last) ? last.getServiceCatalogId() : null)
+                            .name(Objects.nonNull(last) ? last.getName() : null)
+                            .endpoint(Objects.nonNull(last) ? last.getEndpoint() : null)
+                            .windowStart(start)
+                            .windowEnd(end)
+                            .invokedCount(invokedCount)
+                            .finishedCount(finishedCount)
+                            .successCount(successCount)
+                            .successRate(finishedCount == 0 ? 0 : (double) successCount / finishedCount)
+                            .minMs(hasLatency ? (double) latency.getMinValue() : null)
+                            .meanMs(hasLatency ? latency.getMean() : null)
+                            .p50Ms(hasLatency ? (double) latency.getValueAtPercentile(50) : null)
+                            .p95Ms(hasLatency ? (double) latency.getValueAtPercentile(95) : null)
+                            .p99Ms(hasLatency ? (double) latency.getValueAtPercentile(99) : null)
+                            .maxMs(hasLatency ? (double) latency.getMaxValue() : null)
+                            .lastInvocationId(lastInvocationId)
+                            .lastOutputArguments(Objects.isNull(lastResult) ? lastOutputArguments : Map.of())
+                            .lastResult(lastResult)
+                            .build())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import eu.modapto.digitaltwinmanagement.model.event.AbstractEvent;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+
+/**
+ * Encodes events in the {@link EventEncoding} configured for their topic. Events are written directly to bytes using
+ * the regular event mapping, binary encodings only differ in the generator used. Records carry the content type and
+ * the schema version of the event as headers {@value #HEADER_CONTENT_TYPE} and {@value #HEADER_SCHEMA_VERSION} so that
+ * consumers can pick the matching decoder.
+ */
+public class EventEncoder {
+
+    public static final String HEADER_CONTENT_TYPE = "content-type";
+    public static final String HEADER_SCHEMA_VERSION = "schema-version";
+    /**
+     * Version of the event schema. Must be increased on incompatible changes to the events.
+     */
+    public static final int SCHEMA_VERSION = 1;
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private final ObjectWriter writer;
+    private final EventEncoding defaultEncoding;
+    private final Map<String, EventEncoding> topicEncodings;
+    private final Map<EventEncoding, JsonFactory> binaryFactories = new EnumMap<>(EventEncoding.class);
+    private final Map<EventEncoding, List<Header>> headers = new EnumMap<>(EventEncoding.class);
+
+    public EventEncoder(ObjectMapper mapper, EventEncoding defaultEncoding, Map<String, EventEncoding> topicEncodings) {
+        this.writer = mapper.writer();
+        this.defaultEncoding = defaultEncoding;
+        this.topicEncodings = Map.copyOf(topicEncodings);
+        binaryFactories.put(EventEncoding.SMILE, SmileFactory.builder()
+                .disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT)
+                .build());
+        binaryFactories.put(EventEncoding.CBOR, new CBORFactory());
+        byte[] schemaVersion = Integer.toString(SCHEMA_VERSION).getBytes(StandardCharsets.UTF_8);
+        for (EventEncoding encoding: EventEncoding.values()) {
+            headers.put(encoding, List.of(
+                    new RecordHeader(HEADER_CONTENT_TYPE, encoding.getContentType().getBytes(StandardCharsets.UTF_8)),
+                    new RecordHeader(HEADER_SCHEMA_VERSION, schemaVersion)));
+        }
+    }
+
+
+    /**
+     * Gets the encoding configured for a topic.
+     *
+     * @param topic the topic
+     * @return the encoding
+     */
+    public EventEncoding encodingOf(String topic) {
+        return topicEncodings.getOrDefault(topic, defaultEncoding);
+    }
+
+
+    /**
+     * Encodes an event.
+     *
+     * @param event the event
+     * @param encoding the encoding to use
+     * @return the encoded event
+     * @throws IOException if encoding fails
+     */
+    public byte[] encode(AbstractEvent<?> event, EventEncoding encoding) throws IOException {
+        if (encoding == EventEncoding.JSON) {
+            return writer.writeValueAsBytes(event);
+        }
+        ByteArrayOutputStream result = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        try (JsonGenerator generator = binaryFactories.get(encoding).createGenerator(result)) {
+            writer.writeValue(generator, event);
+        }
+        return result.toByteArray();
+    }
+
+
+    /**
+     * Gets the record headers for an encoding.
+     *
+     * @param encoding the encoding
+     * @return the headers containing content type and schema version
+     */
+    public List<Header> headers(EventEncoding encoding) {
+        return headers.get(encoding);
+    }
+}
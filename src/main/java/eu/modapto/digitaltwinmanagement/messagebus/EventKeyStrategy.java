@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import eu.modapto.digitaltwinmanagement.model.event.AbstractEvent;
+import eu.modapto.digitaltwinmanagement.model.event.payload.AbstractSmartServicePayload;
+import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceFinishedPayload;
+import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceInvokedPayload;
+import java.util.Objects;
+
+
+/**
+ * Determines the Kafka record key of an event. Events with the same key are written to the same partition and are
+ * therefore consumed in order. Strategies that do not apply to an event (e.g. INVOCATION for module events) fall back
+ * to the module ID.
+ */
+public enum EventKeyStrategy {
+    /**
+     * No key, events are distributed across all partitions.
+     */
+    NONE,
+    /**
+     * Events of the same module are kept in order.
+     */
+    MODULE,
+    /**
+     * Events of the same smart service are kept in order.
+     */
+    SMART_SERVICE,
+    /**
+     * Invoke and finish events of the same invocation are kept in order.
+     */
+    INVOCATION;
+
+    /**
+     * Gets the key of an event.
+     *
+     * @param event the event
+     * @return the key, may be null
+     */
+    public String keyOf(AbstractEvent<?> event) {
+        String result = switch (this) {
+            case NONE -> null;
+            case MODULE -> event.getModuleId();
+            case SMART_SERVICE -> event.getPayload() instanceof AbstractSmartServicePayload payload
+                    ? payload.getServiceId()
+                    : null;
+            case INVOCATION -> invocationId(event.getPayload());
+        };
+        return this == NONE ? null : Objects.requireNonNullElse(result, event.getModuleId());
+    }
+
+
+    private static String invocationId(Object payload) {
+        if (payload instanceof SmartServiceInvokedPayload invoked) {
+            return invoked.getInvocationId();
+        }
+        if (payload instanceof SmartServiceFinishedPayload finished) {
+            return finished.getInvocationId();
+        }
+        return null;
+    }
+}
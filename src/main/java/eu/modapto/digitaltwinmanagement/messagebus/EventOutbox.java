@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import eu.modapto.digitaltwinmanagement.config.KafkaConfig;
+import eu.modapto.digitaltwinmanagement.model.OutboxEvent;
+import eu.modapto.digitaltwinmanagement.model.event.AbstractEvent;
+import eu.modapto.digitaltwinmanagement.repository.OutboxEventRepository;
+import java.io.IOException;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+/**
+ * Publishes lifecycle events via a transactional outbox. Events are stored in the outbox within the transaction of the
+ * caller and therefore only become visible to the {@link OutboxRelay} if that transaction commits, i.e. events are
+ * neither lost nor published for changes that were rolled back. Events reporting a failed operation are stored via
+ * {@link #publishIndependently(AbstractEvent)} instead, so that they survive the rollback of the failed operation. If
+ * the outbox is disabled, events are published via {@link KafkaBridge} directly.
+ */
+@Component
+public class EventOutbox {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventOutbox.class);
+    private final KafkaConfig kafkaConfig;
+    private final KafkaBridge kafkaBridge;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelay outboxRelay;
+
+    @Autowired
+    public EventOutbox(KafkaConfig kafkaConfig,
+            KafkaBridge kafkaBridge,
+            OutboxEventRepository outboxEventRepository,
+            OutboxRelay outboxRelay) {
+        this.kafkaConfig = kafkaConfig;
+        this.kafkaBridge = kafkaBridge;
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxRelay = outboxRelay;
+    }
+
+
+    /**
+     * Adds an event to the outbox as part of the current transaction.
+     *
+     * @param event the event
+     */
+    @Transactional
+    public void publish(AbstractEvent<?> event) {
+        if (!kafkaConfig.isOutboxEnabled()) {
+            kafkaBridge.publish(event);
+            return;
+        }
+        OutboundMessage message;
+        try {
+            message = kafkaBridge.prepare(event);
+        }
+        catch (IOException e) {
+            LOGGER.warn("failed to serialize event (type: {}, reason: {})", event.getClass().getSimpleName(), e.getMessage(), e);
+            return;
+        }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventKey(message.key())
+                .topic(message.topic())
+                .encoding(message.encoding())
+                .value(message.value())
+                .createdAt(Instant.now())
+                .build());
+        if (kafkaConfig.getOutboxMode() == OutboxMode.NOTIFY && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxRelay.wakeUp();
+                }
+            });
+        }
+        LOGGER.trace("event added to outbox (type: {})", event.getClass().getSimpleName());
+    }
+
+
+    /**
+     * Adds an event to the outbox in a new transaction that commits independently of the transaction of the caller.
+     *
+     * @param event the event
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void publishIndependently(AbstractEvent<?> event) {
+        publish(event);
+    }
+}
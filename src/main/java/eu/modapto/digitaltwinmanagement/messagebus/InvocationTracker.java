@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.model.SmartService;
+import eu.modapto.digitaltwinmanagement.model.response.InvocationStatisticsResponseDto;
+import eu.modapto.digitaltwinmanagement.util.TransactionHelper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Correlates invoke and finish events of smart service operations by invocation ID and records the latency between
+ * them per smart service and per module. Pending invocations are held in a bounded map and evicted (counted as timed
+ * out) if no finish event is received within the configured timeout.
+ *
+ * <p>Latencies are recorded in HDR histograms with microsecond resolution. Metrics: {@code dt.invocation.duration}
+ * (timer tagged with module and service), {@code dt.invocation.completed} (tagged with module, service and outcome),
+ * {@code dt.invocation.pending} and {@code dt.invocation.untracked} (invocations not tracked because the map is full).
+ * Statistics and metrics of a smart service or module are removed once it has been deleted.
+ */
+@Component
+public class InvocationTracker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InvocationTracker.class);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final long MIN_EVICTION_INTERVAL = 1000;
+    private static final String TAG_MODULE = "module";
+    private static final String TAG_SERVICE = "service";
+    private static final String TAG_OUTCOME = "outcome";
+    private final DigitalTwinManagementConfig config;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, PendingInvocation> pending = new ConcurrentHashMap<>();
+    private final Map<String, InvocationStatistics> serviceStatistics = new ConcurrentHashMap<>();
+    private final Map<String, InvocationStatistics> moduleStatistics = new ConcurrentHashMap<>();
+    private Counter untracked;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public InvocationTracker(DigitalTwinManagementConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+    }
+
+
+    @PostConstruct
+    public void init() {
+        if (!config.isInvocationTrackingEnabled()) {
+            return;
+        }
+        Gauge.builder("dt.invocation.pending", pending, Map::size)
+                .description("Number of invocations waiting for their finish event")
+                .register(meterRegistry);
+        untracked = Counter.builder("dt.invocation.untracked")
+                .description("Number of invocations not tracked because the maximum number of pending invocations was reached")
+                .register(meterRegistry);
+        long interval = Math.max(MIN_EVICTION_INTERVAL, config.getInvocationTrackingTimeout() / 10);
+        scheduler = Executors.newSingleThreadScheduledExecutor(x -> {
+            Thread result = new Thread(x, "invocation-tracker");
+            result.setDaemon(true);
+            return result;
+        });
+        scheduler.scheduleWithFixedDelay(this::evictExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+
+    @PreDestroy
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Gets the current time in microseconds since epoch. Used as timestamp for events passed to this class.
+     *
+     * @return the current time
+     */
+    public static long now() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    }
+
+
+    /**
+     * Registers the start of an invocation.
+     *
+     * @param service the smart service being invoked
+     * @param invocationId the invocation ID
+     * @param timestamp time the invoke event was received, see {@link #now()}
+     */
+    public void invoked(SmartService service, String invocationId, long timestamp) {
+        if (!config.isInvocationTrackingEnabled() || Objects.isNull(invocationId)) {
+            return;
+        }
+        if (pending.size() >= config.getInvocationTrackingMaxPending()) {
+            evictExpired();
+            if (pending.size() >= config.getInvocationTrackingMaxPending()) {
+                untracked.increment();
+                LOGGER.debug("invocation not tracked as maximum number of pending invocations is reached (invocationId: {}, serviceId: {})",
+                        invocationId,
+                        service.getId());
+                return;
+            }
+        }
+        pending.put(invocationId, new PendingInvocation(service.getModule().getId(), service.getId(), timestamp));
+    }
+
+
+    /**
+     * Registers the end of an invocation and records its latency.
+     *
+     * @param service the smart service that has been invoked
+     * @param invocationId the invocation ID
+     * @param success whether the invocation was successful
+     * @param timestamp time the finish event was received, see {@link #now()}
+     * @return the latency in milliseconds or empty if the start of the invocation is unknown
+     */
+    public OptionalLong finished(SmartService service, String invocationId, boolean success, long timestamp) {
+        if (!config.isInvocationTrackingEnabled() || Objects.isNull(invocationId)) {
+            return OptionalLong.empty();
+        }
+        PendingInvocation invocation = pending.remove(invocationId);
+        if (Objects.isNull(invocation)) {
+            return OptionalLong.empty();
+        }
+        long duration = Math.max(0, timestamp - invocation.started());
+        forService(invocation.moduleId(), invocation.serviceId()).record(duration, success);
+        forModule(invocation.moduleId()).record(duration, success);
+        return OptionalLong.of(TimeUnit.MICROSECONDS.toMillis(duration));
+    }
+
+
+    /**
+     * Gets the latency statistics of a smart service.
+     *
+     * @param serviceId the ID of the smart service
+     * @return the statistics, empty if no invocation has been recorded yet
+     */
+    public InvocationStatisticsResponseDto getServiceStatistics(String serviceId) {
+        return toDto(serviceStatistics.get(serviceId));
+    }
+
+
+    /**
+     * Gets the latency statistics across all smart services of a module.
+     *
+     * @param moduleId the ID of the module
+     * @return the statistics, empty if no invocation has been recorded yet
+     */
+    public InvocationStatisticsResponseDto getModuleStatistics(String moduleId) {
+        return toDto(moduleStatistics.get(moduleId));
+    }
+
+
+    /**
+     * Removes pending invocations, statistics and metrics of a smart service once the current transaction commits, or
+     * immediately if there is no transaction.
+     *
+     * @param serviceId the ID of the smart service
+     */
+    public void removeService(String serviceId) {
+        TransactionHelper.afterCommit(() -> {
+            pending.values().removeIf(x -> Objects.equals(x.serviceId(), serviceId));
+            InvocationStatistics statistics = serviceStatistics.remove(serviceId);
+            if (Objects.nonNull(statistics)) {
+                statistics.removeMeters();
+            }
+        });
+    }
+
+
+    /**
+     * Removes pending invocations, statistics and metrics of a module and all of its smart services once the current
+     * transaction commits, or immediately if there is no transaction.
+     *
+     * @param moduleId the ID of the module
+     */
+    public void removeModule(String moduleId) {
+        TransactionHelper.afterCommit(() -> {
+            pending.values().removeIf(x -> Objects.equals(x.moduleId(), moduleId));
+            moduleStatistics.remove(moduleId);
+            serviceStatistics.values().removeIf(x -> {
+                if (!Objects.equals(x.moduleId, moduleId)) {
+                    return false;
+                }
+                x.removeMeters();
+                return true;
+            });
+        });
+    }
+
+
+    void evictExpired() {
+        long threshold = now() - TimeUnit.MILLISECONDS.toMicros(config.getInvocationTrackingTimeout());
+        pending.entrySet().removeIf(x -> {
+            if (x.getValue().started() >= threshold) {
+                return false;
+            }
+            forService(x.getValue().moduleId(), x.getValue().serviceId()).timeout();
+            forModule(x.getValue().moduleId()).timeout();
+            LOGGER.debug("invocation timed out (invocationId: {}, serviceId: {})", x.getKey(), x.getValue().serviceId());
+            return true;
+        });
+    }
+
+
+    private InvocationStatistics forService(String moduleId, String serviceId) {
+        return serviceStatistics.computeIfAbsent(serviceId, x -> new InvocationStatistics(moduleId, serviceId));
+    }
+
+
+    private InvocationStatistics forModule(String moduleId) {
+        return moduleStatistics.computeIfAbsent(moduleId, x -> new InvocationStatistics(moduleId, null));
+    }
+
+
+    private static InvocationStatisticsResponseDto toDto(InvocationStatistics statistics) {
+        if (Objects.isNull(statistics)) {
+            return new InvocationStatisticsResponseDto();
+        }
+        Histogram histogram = statistics.histogram.copy();
+        long successCount = statistics.succeeded.sum();
+        long failureCount = statistics.failed.sum();
+        long timeoutCount = statistics.timedOut.sum();
+        long total = successCount + failureCount + timeoutCount;
+        return InvocationStatisticsResponseDto.builder()
+                .successCount(successCount)
+                .failureCount(failureCount)
+                .timeoutCount(timeoutCount)
+                .successRate(total == 0 ? 0 : (double) successCount / total)
+                .minMs(toMillis(histogram.getTotalCount() == 0 ? 0 : histogram.getMinValue()))
+                .meanMs(histogram.getMean() / 1000)
+                .p50Ms(toMillis(histogram.getValueAtPercentile(50)))
+                .p90Ms(toMillis(histogram.getValueAtPercentile(90)))
+                .p95Ms(toMillis(histogram.getValueAtPercentile(95)))
+                .p99Ms(toMillis(histogram.getValueAtPercentile(99)))
+                .maxMs(toMillis(histogram.getMaxValue()))
+                .build();
+    }
+
+
+    private static double toMillis(long micros) {
+        return micros / 1000d;
+    }
+
+    private record PendingInvocation(String moduleId, String serviceId, long started) {}
+
+    /**
+     * Latency histogram and outcome counters of either a single smart service or a whole module. Only statistics of
+     * single smart services are published as Micrometer metrics, module-level values can be aggregated from these.
+     */
+    private class InvocationStatistics {
+
+        private final String moduleId;
+        private final Histogram histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final Timer timer;
+        private final Counter successCounter;
+        private final Counter failureCounter;
+        private final Counter timeoutCounter;
+
+        InvocationStatistics(String moduleId, String serviceId) {
+            this.moduleId = moduleId;
+            if (Objects.isNull(serviceId)) {
+                timer = null;
+                successCounter = null;
+                failureCounter = null;
+                timeoutCounter = null;
+                return;
+            }
+            timer = Timer.builder("dt.invocation.duration")
+                    .description("Latency between invoke and finish event of a smart service invocation")
+                    .tag(TAG_MODULE, moduleId)
+                    .tag(TAG_SERVICE, serviceId)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            successCounter = counter(moduleId, serviceId, "success");
+            failureCounter = counter(moduleId, serviceId, "failure");
+            timeoutCounter = counter(moduleId, serviceId, "timeout");
+        }
+
+
+        private Counter counter(String moduleId, String serviceId, String outcome) {
+            return Counter.builder("dt.invocation.completed")
+                    .tag(TAG_MODULE, moduleId)
+                    .tag(TAG_SERVICE, serviceId)
+                    .tag(TAG_OUTCOME, outcome)
+                    .register(meterRegistry);
+        }
+
+
+        void record(long durationMicros, boolean success) {
+            histogram.recordValue(durationMicros);
+            (success ? succeeded : failed).increment();
+            if (Objects.nonNull(timer)) {
+                timer.record(durationMicros, TimeUnit.MICROSECONDS);
+                (success ? successCounter : failureCounter).increment();
+            }
+        }
+
+
+        void timeout() {
+            timedOut.increment();
+            if (Objects.nonNull(timeoutCounter)) {
+                timeoutCounter.increment();
+            }
+        }
+
+
+        void removeMeters() {
+            if (Objects.isNull(timer)) {
+                return;
+            }
+            meterRegistry.remove(timer);
+            meterRegistry.remove(successCounter);
+            meterRegistry.remove(failureCounter);
+            meterRegistry.remove(timeoutCounter);
+        }
+    }
+}
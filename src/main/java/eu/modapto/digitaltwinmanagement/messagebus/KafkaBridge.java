@@ -15,86 +15,422 @@
 package eu.modapto.digitaltwinmanagement.messagebus;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
 import eu.modapto.digitaltwinmanagement.config.KafkaConfig;
 import eu.modapto.digitaltwinmanagement.model.event.AbstractEvent;
+import eu.modapto.digitaltwinmanagement.model.event.payload.AbstractSmartServicePayload;
+import eu.modapto.digitaltwinmanagement.queue.PartitionedQueue;
+import eu.modapto.digitaltwinmanagement.queue.QueueSettings;
+import eu.modapto.digitaltwinmanagement.service.ResultService;
 import eu.modapto.digitaltwinmanagement.util.Processor;
+import eu.modapto.digitaltwinmanagement.util.TransactionHelper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
 
+/**
+ * Publishes events on Kafka. Events are encoded on the caller thread using the encoding configured for their topic (see
+ * {@link EventEncoder}), queued and sent asynchronously by one thread per queue lane. The number of sent but not yet
+ * acknowledged events is bounded by {@code dt-management.kafka.producer.max-pending}. Batching, compression and retries
+ * are handled by the Kafka producer, see {@link KafkaConfig#producerProperties()}.
+ *
+ * <p>If enabled, invoke and finish events of smart services are aggregated into summary events by
+ * {@link EventAggregator}, raw events are only published as sampled. Large output arguments in summary events are
+ * offloaded via {@link ResultService}.
+ *
+ * <p>Events are keyed according to {@link EventKeyStrategy} so that related events end up in the same partition and are
+ * consumed in order. The same key is used to assign events to queue lanes.
+ *
+ * <p>Metrics: {@code dt.kafka.send} (tagged with outcome), {@code dt.kafka.send.latency} (time from send until
+ * acknowledgement), {@code dt.kafka.pending}, {@code dt.kafka.module.events} (tagged with module, to spot hot modules),
+ * {@code dt.kafka.partition.events} (tagged with topic and partition) and {@code dt.kafka.partition.skew} (events in
+ * the busiest partition of a topic relative to the average of all partitions that received events, 1 if evenly
+ * distributed).
+ */
 @Component
 public class KafkaBridge {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(KafkaBridge.class);
+    private static final String QUEUE_NAME = "kafka-producer";
+    private static final long RETRY_BACKOFF_INITIAL = 100;
+    private static final long RETRY_BACKOFF_MAX = 30000;
     private final KafkaConfig kafkaConfig;
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper mapper;
-    private BlockingQueue<AbstractEvent> eventQueue;
+    private final DigitalTwinManagementConfig config;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final EventEncoder encoder;
+    private final MeterRegistry meterRegistry;
+    private final ProcessorWatchdog processorWatchdog;
+    private final ResultService resultService;
+    private final Map<String, Counter> moduleCounters = new ConcurrentHashMap<>();
+    private final Map<String, PartitionStatistics> partitionStatistics = new ConcurrentHashMap<>();
+    private PartitionedQueue<OutboundMessage> eventQueue;
+    private EventAggregator aggregator;
     private ExecutorService executorService;
+    private Semaphore pending;
+    private Counter sendSucceeded;
+    private Counter sendFailed;
+    private Timer sendLatency;
 
     @Autowired
-    public KafkaBridge(KafkaConfig kafkaConfig, KafkaTemplate<String, String> kafkaTemplate, ObjectMapper mapper) {
+    public KafkaBridge(KafkaConfig kafkaConfig,
+            DigitalTwinManagementConfig config,
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            ObjectMapper mapper,
+            MeterRegistry meterRegistry,
+            ProcessorWatchdog processorWatchdog,
+            ResultService resultService) {
         this.kafkaConfig = kafkaConfig;
+        this.config = config;
         this.kafkaTemplate = kafkaTemplate;
-        this.mapper = mapper;
+        this.encoder = new EventEncoder(mapper, kafkaConfig.getEncodingDefault(), kafkaConfig.topicEncodings());
+        this.meterRegistry = meterRegistry;
+        this.processorWatchdog = processorWatchdog;
+        this.resultService = resultService;
     }
 
 
     @PostConstruct
     public void init() {
-        eventQueue = new ArrayBlockingQueue<>(kafkaConfig.getQueueSize());
-        executorService = Executors.newFixedThreadPool(kafkaConfig.getThreadCount());
-        for (int i = 0; i < kafkaConfig.getThreadCount(); i++) {
-            executorService.submit(new Processor<>(eventQueue, this::publishToKafka, "kafka-producer"));
+        try {
+            eventQueue = new PartitionedQueue<>(
+                    QueueSettings.builder()
+                            .name(QUEUE_NAME)
+                            .capacity(kafkaConfig.getQueueSize())
+                            .queueType(kafkaConfig.getQueueType())
+                            .waitStrategy(kafkaConfig.getQueueWaitStrategy())
+                            .batchSize(kafkaConfig.getQueueBatchSize())
+                            .overflowPolicy(kafkaConfig.getQueueOverflowPolicy())
+                            .blockTimeout(Duration.ofMillis(kafkaConfig.getQueueBlockTimeout()))
+                            .sampleRate(kafkaConfig.getQueueSampleRate())
+                            .spillDirectory(Path.of(config.getSpillDirectory()))
+                            .segmentSize(config.getSpillSegmentSize())
+                            .maxSpillSize(config.getSpillMaxSize())
+                            .retention(Duration.ofMillis(config.getSpillRetention()))
+                            .persistent(kafkaConfig.isQueuePersistent())
+                            .build(),
+                    kafkaConfig.getThreadCount(),
+                    kafkaConfig.getQueueRebalanceThreshold(),
+                    OutboundMessage::key,
+                    new OutboundMessageCodec(),
+                    null,
+                    meterRegistry);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("failed to create Kafka event queue", e);
         }
+        pending = new Semaphore(kafkaConfig.getProducerMaxPending());
+        Gauge.builder("dt.kafka.pending", pending, x -> kafkaConfig.getProducerMaxPending() - x.availablePermits())
+                .description("Number of events sent to Kafka but not yet acknowledged")
+                .register(meterRegistry);
+        sendSucceeded = sendCounter("success");
+        sendFailed = sendCounter("failure");
+        sendLatency = Timer.builder("dt.kafka.send.latency")
+                .description("Time from sending an event to Kafka until it is acknowledged")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        if (kafkaConfig.isAggregationEnabled()) {
+            aggregator = new EventAggregator(
+                    Duration.ofMillis(kafkaConfig.getAggregationWindow()),
+                    kafkaConfig.getAggregationRawSampleRate(),
+                    kafkaConfig.getAggregationRawTopicSuffix(),
+                    this::publish,
+                    resultService::offload,
+                    meterRegistry);
+            aggregator.start();
+        }
+        executorService = Executors.newCachedThreadPool();
+        List<Processor<OutboundMessage>> processors = eventQueue.createProcessors(this::publishToKafka);
+        processors.forEach(executorService::submit);
+        processorWatchdog.watch(processors, executorService);
     }
 
 
+    /**
+     * Encodes an event and queues it for publishing on Kafka. Invoke and finish events of smart services are passed to
+     * the aggregation first if enabled.
+     *
+     * @param event the event
+     */
     public void publish(AbstractEvent<?> event) {
-        if (!eventQueue.offer(event)) {
-            LOGGER.error("Failed to add event to event queue");
+        String topic = event.getTopic();
+        if (Objects.nonNull(aggregator) && EventAggregator.accepts(event)) {
+            topic = aggregator.add(event);
+            if (Objects.isNull(topic)) {
+                return;
+            }
+        }
+        OutboundMessage message;
+        try {
+            message = prepare(event, topic);
+        }
+        catch (IOException e) {
+            LOGGER.warn("failed to serialize event (type: {}, reason: {})", event.getClass().getSimpleName(), e.getMessage(), e);
+            return;
+        }
+        if (!eventQueue.offer(message)) {
+            LOGGER.warn("event for Kafka dropped due to full queue (type: {}, policy: {})",
+                    event.getClass().getSimpleName(),
+                    kafkaConfig.getQueueOverflowPolicy());
+            return;
         }
         LOGGER.trace("event queued for Kafka (type: {})", event.getClass().getSimpleName());
     }
 
 
-    private void publishToKafka(AbstractEvent<?> event) {
+    /**
+     * Encodes an event and determines its key. The event is counted for metric {@code dt.kafka.module.events}.
+     *
+     * @param event the event
+     * @return the message to send
+     * @throws IOException if encoding fails
+     */
+    public OutboundMessage prepare(AbstractEvent<?> event) throws IOException {
+        return prepare(event, event.getTopic());
+    }
+
+
+    private OutboundMessage prepare(AbstractEvent<?> event, String topic) throws IOException {
+        EventEncoding encoding = encoder.encodingOf(topic);
+        OutboundMessage result = new OutboundMessage(keyOf(event), topic, encoding, encoder.encode(event, encoding));
+        if (Objects.nonNull(event.getModuleId())) {
+            moduleCounters.computeIfAbsent(event.getModuleId(), x -> Counter.builder("dt.kafka.module.events")
+                    .description("Number of events published per module")
+                    .tag("module", x)
+                    .register(meterRegistry))
+                    .increment();
+        }
+        return result;
+    }
+
+
+    /**
+     * Removes the metrics of a module once the current transaction commits, or immediately if there is no transaction.
+     *
+     * @param moduleId the ID of the module
+     */
+    public void removeModule(String moduleId) {
+        TransactionHelper.afterCommit(() -> {
+            Counter counter = moduleCounters.remove(moduleId);
+            if (Objects.nonNull(counter)) {
+                meterRegistry.remove(counter);
+            }
+        });
+    }
+
+
+    /**
+     * Sends a message to Kafka without queueing it. Outcome and latency are recorded as metrics.
+     *
+     * @param message the message
+     * @return future completed once Kafka acknowledged the message
+     */
+    public CompletableFuture<SendResult<String, byte[]>> send(OutboundMessage message) {
+        long start = System.nanoTime();
         try {
-            kafkaTemplate.send(event.getTopic(), mapper.writeValueAsString(event));
-            LOGGER.trace("event published on Kafka (type: {})", event.getClass().getSimpleName());
+            return kafkaTemplate.send(new ProducerRecord<>(
+                    message.topic(),
+                    null,
+                    message.key(),
+                    message.value(),
+                    encoder.headers(message.encoding())))
+                    .whenComplete((result, e) -> recordSend(message, start, result, e));
         }
         catch (Exception e) {
-            LOGGER.warn("failed to publish event to Kafka (reason: {})", e.getMessage(), e);
+            recordSend(message, start, null, e);
+            return CompletableFuture.failedFuture(e);
         }
+    }
+
+
+    private String keyOf(AbstractEvent<?> event) {
+        return event.getPayload() instanceof AbstractSmartServicePayload
+                ? kafkaConfig.getServiceKeyStrategy().keyOf(event)
+                : kafkaConfig.getKeyStrategy().keyOf(event);
+    }
 
+
+    private Counter sendCounter(String outcome) {
+        return Counter.builder("dt.kafka.send")
+                .description("Number of events sent to Kafka")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+
+    private void publishToKafka(OutboundMessage message) {
+        if (kafkaConfig.isQueuePersistent()) {
+            publishToKafkaUntilAcknowledged(message);
+            return;
+        }
+        try {
+            pending.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            requeue(message);
+            return;
+        }
+        send(message).whenComplete((result, e) -> {
+            pending.release();
+            if (Objects.nonNull(e)) {
+                LOGGER.warn("failed to publish event to Kafka (topic: {}, reason: {})", message.topic(), e.getMessage(), e);
+                return;
+            }
+            LOGGER.trace("event published on Kafka (topic: {})", message.topic());
+        });
+    }
+
+
+    private void recordSend(OutboundMessage message, long start, SendResult<String, byte[]> result, Throwable error) {
+        if (Objects.nonNull(error)) {
+            sendFailed.increment();
+            return;
+        }
+        sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        sendSucceeded.increment();
+        if (Objects.nonNull(result) && Objects.nonNull(result.getRecordMetadata())) {
+            partitionStatistics.computeIfAbsent(message.topic(), PartitionStatistics::new).increment(result.getRecordMetadata().partition());
+        }
+    }
+
+
+    /**
+     * Publishes a message and waits for the acknowledgement, retrying with exponential backoff while Kafka is not
+     * reachable. The message and all following messages stay in the journal meanwhile so that they are published in
+     * order once Kafka is reachable again. If interrupted, the message is left unacknowledged at the head of the journal
+     * (see {@link PartitionedQueue#createProcessors}) and published by the next processor
+     * or after restart.
+     */
+    private void publishToKafkaUntilAcknowledged(OutboundMessage message) {
+        long backoff = RETRY_BACKOFF_INITIAL;
+        while (true) {
+            try {
+                send(message).get();
+                LOGGER.trace("event published on Kafka (topic: {})", message.topic());
+                return;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (Exception e) {
+                LOGGER.warn("failed to publish event to Kafka, retrying (topic: {}, backoff: {} ms, reason: {})", message.topic(), backoff, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoff);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = Math.min(backoff * 2, RETRY_BACKOFF_MAX);
+        }
+    }
+
+
+    private void requeue(OutboundMessage message) {
+        if (!eventQueue.offer(message)) {
+            LOGGER.warn("failed to keep unpublished event for replay (topic: {})", message.topic());
+        }
     }
 
 
     @PreDestroy
     public void cleanup() {
+        if (Objects.nonNull(aggregator)) {
+            aggregator.stop();
+        }
         executorService.shutdown();
         try {
-            if (executorService.awaitTermination(2, TimeUnit.SECONDS)) {
-                return;
+            if (!executorService.awaitTermination(2, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+                executorService.awaitTermination(2, TimeUnit.SECONDS);
             }
         }
         catch (InterruptedException ex) {
             LOGGER.error("Interrupted while waiting for shutdown.", ex);
             Thread.currentThread().interrupt();
+            executorService.shutdownNow();
+        }
+        try {
+            kafkaTemplate.flush();
+        }
+        catch (Exception e) {
+            LOGGER.warn("failed to flush Kafka producer (reason: {})", e.getMessage(), e);
+        }
+        LOGGER.warn("There were {} messages left on the Kafka queue.", eventQueue.size());
+        try {
+            eventQueue.close();
+        }
+        catch (IOException e) {
+            LOGGER.warn("failed to close Kafka event queue (reason: {})", e.getMessage(), e);
         }
-        List<Runnable> list = executorService.shutdownNow();
-        LOGGER.warn("There were {} messages left on the Kafka queue.", list.size());
     }
 
+    /**
+     * Counts published events per partition of a topic.
+     */
+    private class PartitionStatistics {
+
+        private final String topic;
+        private final Map<Integer, LongAdder> counts = new ConcurrentHashMap<>();
+
+        PartitionStatistics(String topic) {
+            this.topic = topic;
+            Gauge.builder("dt.kafka.partition.skew", this, PartitionStatistics::skew)
+                    .description("Events in the busiest partition relative to the average across partitions that received events")
+                    .tag("topic", topic)
+                    .register(meterRegistry);
+        }
+
+
+        void increment(int partition) {
+            counts.computeIfAbsent(partition, x -> {
+                LongAdder result = new LongAdder();
+                Gauge.builder("dt.kafka.partition.events", result, LongAdder::sum)
+                        .description("Number of events published per partition")
+                        .tag("topic", topic)
+                        .tag("partition", Integer.toString(x))
+                        .register(meterRegistry);
+                return result;
+            }).increment();
+        }
+
+
+        double skew() {
+            long max = 0;
+            long total = 0;
+            for (LongAdder count: counts.values()) {
+                long value = count.sum();
+                max = Math.max(max, value);
+                total += value;
+            }
+            return total == 0 ? 0 : (double) max * counts.size() / total;
+        }
+    }
 }
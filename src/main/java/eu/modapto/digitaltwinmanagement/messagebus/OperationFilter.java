@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.eclipse.digitaltwin.aas4j.v3.model.Key;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+
+
+/**
+ * Matches operation references against a fixed set of operations, e.g. the operations implementing the smart services
+ * of a module. Lookup is done via a normalized key so that matching an unknown operation does not require comparing
+ * it to all known references.
+ */
+public class OperationFilter {
+
+    private final Map<String, Reference> operations;
+
+    public OperationFilter(Collection<Reference> operations) {
+        Map<String, Reference> temp = new HashMap<>();
+        if (Objects.nonNull(operations)) {
+            for (Reference operation: operations) {
+                if (Objects.nonNull(operation)) {
+                    temp.putIfAbsent(key(operation), operation);
+                }
+            }
+        }
+        this.operations = Map.copyOf(temp);
+    }
+
+
+    /**
+     * Checks if the given operation is contained in the filter.
+     *
+     * @param operation reference to the operation
+     * @return true if the operation is contained, otherwise false
+     */
+    public boolean matches(Reference operation) {
+        if (Objects.isNull(operation)) {
+            return false;
+        }
+        Reference candidate = operations.get(key(operation));
+        return Objects.nonNull(candidate) && ReferenceHelper.equals(operation, candidate);
+    }
+
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+
+    /**
+     * Normalizes a reference to a key which only contains the values of its keys. Each value is prefixed with its
+     * length so that different references never result in the same key.
+     *
+     * @param reference the reference
+     * @return the key
+     */
+    public static String key(Reference reference) {
+        StringBuilder result = new StringBuilder();
+        if (Objects.nonNull(reference.getKeys())) {
+            for (Key key: reference.getKeys()) {
+                String value = Objects.requireNonNullElse(key.getValue(), "");
+                result.append(value.length()).append(':').append(value);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+/**
+ * An encoded event ready to be sent to Kafka.
+ *
+ * @param key the key used to keep related events in order, e.g. the module ID, may be null
+ * @param topic the topic
+ * @param encoding the encoding of the value
+ * @param value the encoded event
+ */
+public record OutboundMessage(String key, String topic, EventEncoding encoding, byte[] value) {}
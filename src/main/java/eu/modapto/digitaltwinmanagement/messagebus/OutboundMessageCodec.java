@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import eu.modapto.digitaltwinmanagement.queue.EventCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Objects;
+
+
+/**
+ * Writes {@link OutboundMessage}s to disk as optional key, topic and encoding followed by the length-prefixed value.
+ */
+public class OutboundMessageCodec implements EventCodec<OutboundMessage> {
+
+    @Override
+    public byte[] encode(OutboundMessage message) throws IOException {
+        byte[] value = message.value();
+        ByteArrayOutputStream result = new ByteArrayOutputStream(value.length + 64);
+        try (DataOutputStream out = new DataOutputStream(result)) {
+            out.writeBoolean(Objects.nonNull(message.key()));
+            if (Objects.nonNull(message.key())) {
+                out.writeUTF(message.key());
+            }
+            out.writeUTF(message.topic());
+            out.writeUTF(message.encoding().name());
+            out.writeInt(value.length);
+            out.write(value);
+        }
+        return result.toByteArray();
+    }
+
+
+    @Override
+    public OutboundMessage decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            String key = in.readBoolean() ? in.readUTF() : null;
+            String topic = in.readUTF();
+            EventEncoding encoding = EventEncoding.valueOf(in.readUTF());
+            byte[] value = new byte[in.readInt()];
+            in.readFully(value);
+            return new OutboundMessage(key, topic, encoding, value);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import eu.modapto.digitaltwinmanagement.config.KafkaConfig;
+import eu.modapto.digitaltwinmanagement.model.OutboxEvent;
+import eu.modapto.digitaltwinmanagement.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+/**
+ * Relays events from the transactional outbox to Kafka. A single thread reads batches of events in insertion order,
+ * sends them via {@link KafkaBridge#send(OutboundMessage)}, waits for all acknowledgements and deletes the acknowledged
+ * events in one batch. If an event fails, only the events before it are deleted. The failed event and all following
+ * events are kept and retried in order after {@code dt-management.kafka.outbox.retry-backoff}. Delivery is
+ * at-least-once: events following a failed one as well as events acknowledged right before the application stops are
+ * sent again, so consumers must tolerate duplicates.
+ *
+ * <p>Depending on {@link OutboxMode}, the outbox is either checked every {@code dt-management.kafka.outbox.poll-interval}
+ * or additionally whenever {@link #wakeUp()} is called after a commit.
+ *
+ * <p>Metrics: {@code dt.outbox.relayed} and {@code dt.outbox.failed}.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+    private final KafkaConfig kafkaConfig;
+    private final KafkaBridge kafkaBridge;
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore signal = new Semaphore(0);
+    private final Counter relayed;
+    private final Counter failed;
+    private ExecutorService executorService;
+
+    @Autowired
+    public OutboxRelay(KafkaConfig kafkaConfig,
+            KafkaBridge kafkaBridge,
+            OutboxEventRepository outboxEventRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+        this.kafkaConfig = kafkaConfig;
+        this.kafkaBridge = kafkaBridge;
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.relayed = Counter.builder("dt.outbox.relayed")
+                .description("Number of events relayed from the outbox to Kafka")
+                .register(meterRegistry);
+        this.failed = Counter.builder("dt.outbox.failed")
+                .description("Number of failed attempts to relay an event from the outbox to Kafka")
+                .register(meterRegistry);
+    }
+
+
+    @PostConstruct
+    public void init() {
+        if (!kafkaConfig.isOutboxEnabled()) {
+            return;
+        }
+        executorService = Executors.newSingleThreadExecutor(x -> {
+            Thread result = new Thread(x, "outbox-relay");
+            result.setDaemon(true);
+            return result;
+        });
+        executorService.submit(this::run);
+    }
+
+
+    @PreDestroy
+    public void tearDown() {
+        if (Objects.isNull(executorService)) {
+            return;
+        }
+        executorService.shutdownNow();
+        try {
+            executorService.awaitTermination(kafkaConfig.getOutboxPollInterval(), TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /**
+     * Notifies the relay that new events have been committed to the outbox.
+     */
+    public void wakeUp() {
+        if (signal.availablePermits() == 0) {
+            signal.release();
+        }
+    }
+
+
+    private void run() {
+        // the first iteration relays events left over from a previous run
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (drain()) {
+                    signal.tryAcquire(kafkaConfig.getOutboxPollInterval(), TimeUnit.MILLISECONDS);
+                    signal.drainPermits();
+                }
+                else {
+                    Thread.sleep(kafkaConfig.getOutboxRetryBackoff());
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (RuntimeException e) {
+                LOGGER.warn("failed to relay events from outbox (reason: {})", e.getMessage(), e);
+                try {
+                    Thread.sleep(kafkaConfig.getOutboxRetryBackoff());
+                }
+                catch (InterruptedException e2) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Relays batches of events until the outbox is empty or an event could not be delivered.
+     *
+     * @return true if the outbox is empty, false if an event could not be delivered
+     * @throws InterruptedException if interrupted while waiting for acknowledgements
+     */
+    boolean drain() throws InterruptedException {
+        while (true) {
+            List<OutboxEvent> batch = transactionTemplate.execute(
+                    x -> outboxEventRepository.findByOrderByIdAsc(Limit.of(kafkaConfig.getOutboxBatchSize())));
+            if (Objects.isNull(batch) || batch.isEmpty()) {
+                return true;
+            }
+            List<CompletableFuture<SendResult<String, byte[]>>> results = new ArrayList<>(batch.size());
+            for (OutboxEvent event: batch) {
+                results.add(kafkaBridge.send(new OutboundMessage(event.getEventKey(), event.getTopic(), event.getEncoding(), event.getValue())));
+            }
+            try {
+                CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get();
+            }
+            catch (ExecutionException e) {
+                // individual outcomes are evaluated below
+            }
+            // only the events before the first failure are deleted so that the remaining events are retried in order
+            List<Long> delivered = new ArrayList<>(batch.size());
+            while (delivered.size() < batch.size() && !results.get(delivered.size()).isCompletedExceptionally()) {
+                delivered.add(batch.get(delivered.size()).getId());
+            }
+            if (!delivered.isEmpty()) {
+                transactionTemplate.executeWithoutResult(x -> outboxEventRepository.deleteAllByIdInBatch(delivered));
+            }
+            relayed.increment(delivered.size());
+            if (delivered.size() < batch.size()) {
+                failed.increment(results.stream().filter(CompletableFuture::isCompletedExceptionally).count());
+                LOGGER.warn("failed to relay events from outbox to Kafka, retrying (pending: {}, backoff: {} ms)",
+                        batch.size() - delivered.size(),
+                        kafkaConfig.getOutboxRetryBackoff());
+                return false;
+            }
+            LOGGER.trace("events relayed from outbox to Kafka (count: {})", delivered.size());
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.util.Processor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Periodically checks registered {@link Processor}s via {@link Processor#isFine(Instant)} and flags those that are
+ * handling a single event for longer than the configured stall timeout. If enabled, stalled processors are interrupted
+ * and replaced by a new processor on the same queue. The replacement is only started once the interrupted processor has
+ * stopped, so that events of a queue are never handled by two threads at the same time, and each processor is restarted
+ * at most {@code dt-management.processor.watchdog.max-restarts} times. Restarting therefore only helps if the stalled
+ * event handling reacts to interrupts; an interrupted processor that has not stopped within another stall timeout is
+ * reported once as stuck and counted as a further stall.
+ *
+ * <p>Metrics (tagged with the processor name): {@code dt.processor.stalled} (1 if currently stalled),
+ * {@code dt.processor.stalls} and {@code dt.processor.restarts}.
+ */
+@Component
+public class ProcessorWatchdog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessorWatchdog.class);
+    private static final String TAG_PROCESSOR = "processor";
+    private final DigitalTwinManagementConfig config;
+    private final MeterRegistry meterRegistry;
+    private final List<Watched> watched = new CopyOnWriteArrayList<>();
+    private final Map<String, AtomicBoolean> stalled = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> restarts = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ProcessorWatchdog(DigitalTwinManagementConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+    }
+
+
+    @PostConstruct
+    public void init() {
+        if (config.getProcessorWatchdogInterval() <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(x -> {
+            Thread result = new Thread(x, "processor-watchdog");
+            result.setDaemon(true);
+            return result;
+        });
+        scheduler.scheduleWithFixedDelay(
+                this::check,
+                config.getProcessorWatchdogInterval(),
+                config.getProcessorWatchdogInterval(),
+                TimeUnit.MILLISECONDS);
+    }
+
+
+    @PreDestroy
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Starts watching processors. Replacements for stalled processors are submitted to the given executor, which
+     * therefore must be able to start additional threads.
+     *
+     * @param processors the processors to watch
+     * @param executor the executor running the processors
+     */
+    public void watch(List<? extends Processor<?>> processors, ExecutorService executor) {
+        for (Processor<?> processor: processors) {
+            watched.add(new Watched(processor, executor));
+            restarts.putIfAbsent(processor.getName(), new AtomicInteger());
+            stalled.computeIfAbsent(processor.getName(), name -> {
+                AtomicBoolean result = new AtomicBoolean();
+                Gauge.builder("dt.processor.stalled", result, x -> x.get() ? 1 : 0)
+                        .description("1 if the processor is handling a single event for longer than the stall timeout")
+                        .tag(TAG_PROCESSOR, name)
+                        .register(meterRegistry);
+                return result;
+            });
+        }
+    }
+
+
+    void check() {
+        Instant threshold = Instant.now().minus(Duration.ofMillis(config.getProcessorWatchdogStallTimeout()));
+        for (Watched entry: watched) {
+            if (entry.executor.isShutdown()) {
+                watched.remove(entry);
+                continue;
+            }
+            Processor<?> processor = entry.processor;
+            if (Objects.nonNull(entry.interrupted.get())) {
+                replaceIfStopped(entry, threshold);
+                continue;
+            }
+            AtomicBoolean flag = stalled.get(processor.getName());
+            if (processor.isFine(threshold)) {
+                if (flag.compareAndSet(true, false)) {
+                    LOGGER.info("processor recovered (name: {})", processor.getName());
+                }
+                continue;
+            }
+            boolean newlyStalled = flag.compareAndSet(false, true);
+            if (newlyStalled) {
+                LOGGER.warn("processor stalled (name: {}, working since: {})", processor.getName(), processor.getWorkStarted());
+                counter("dt.processor.stalls", processor).increment();
+            }
+            if (!config.isProcessorWatchdogRestart()) {
+                continue;
+            }
+            if (restarts.get(processor.getName()).get() < config.getProcessorWatchdogMaxRestarts()) {
+                restart(entry, threshold);
+            }
+            else if (newlyStalled) {
+                LOGGER.warn("stalled processor not restarted, maximum number of restarts reached (name: {}, maxRestarts: {})",
+                        processor.getName(),
+                        config.getProcessorWatchdogMaxRestarts());
+            }
+        }
+    }
+
+
+    private void restart(Watched entry, Instant threshold) {
+        entry.interrupted.set(Instant.now());
+        entry.processor.interrupt();
+        replaceIfStopped(entry, threshold);
+    }
+
+
+    private void replaceIfStopped(Watched entry, Instant threshold) {
+        if (entry.processor.getStatus() != Processor.Status.STOPPED) {
+            if (entry.interrupted.get().isBefore(threshold) && entry.stuck.compareAndSet(false, true)) {
+                LOGGER.warn("interrupted processor did not stop within stall timeout and cannot be replaced, event handling does not react to interrupts (name: {}, interrupted at: {})",
+                        entry.processor.getName(),
+                        entry.interrupted.get());
+                counter("dt.processor.stalls", entry.processor).increment();
+            }
+            else {
+                LOGGER.debug("waiting for interrupted processor to stop before replacing it (name: {})", entry.processor.getName());
+            }
+            return;
+        }
+        Processor<?> replacement = entry.processor.copy();
+        try {
+            entry.executor.submit(replacement);
+        }
+        catch (RejectedExecutionException e) {
+            return;
+        }
+        watched.remove(entry);
+        watched.add(new Watched(replacement, entry.executor));
+        stalled.get(replacement.getName()).set(false);
+        restarts.get(replacement.getName()).incrementAndGet();
+        counter("dt.processor.restarts", replacement).increment();
+        LOGGER.warn("stalled processor replaced (name: {})", replacement.getName());
+    }
+
+
+    private Counter counter(String name, Processor<?> processor) {
+        return Counter.builder(name)
+                .tag(TAG_PROCESSOR, processor.getName())
+                .register(meterRegistry);
+    }
+
+    private record Watched(Processor<?> processor, ExecutorService executor, AtomicReference<Instant> interrupted, AtomicBoolean stuck) {
+
+        private Watched(Processor<?> processor, ExecutorService executor) {
+            this(processor, executor, new AtomicReference<>(), new AtomicBoolean());
+        }
+    }
+}
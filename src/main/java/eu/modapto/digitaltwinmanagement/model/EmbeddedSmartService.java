@@ -17,9 +17,14 @@ package eu.modapto.digitaltwinmanagement.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Basic;
+import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Lob;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Transient;
 import java.util.Map;
 import java.util.Objects;
@@ -27,6 +32,7 @@ import java.util.Optional;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import lombok.experimental.SuperBuilder;
 
 
@@ -43,11 +49,43 @@ public class EmbeddedSmartService extends SmartService {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
-    @Lob
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private byte[] fmu;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "fmu_hash")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private FmuBlob fmuBlob;
+
+    /**
+     * FMU content stored inline by previous versions. Moved to {@link FmuBlob} on startup, see
+     * {@link eu.modapto.digitaltwinmanagement.service.FmuService#migrateLegacyFmus()}.
+     */
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "fmu")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private byte[] legacyFmu;
+
+    /**
+     * Gets the FMU content if it has been provided in this session or is still stored inline by a previous version.
+     * FMUs stored in {@link FmuBlob} are not read into memory, use
+     * {@link eu.modapto.digitaltwinmanagement.service.FmuService#getFile(EmbeddedSmartService)} instead.
+     *
+     * @return the FMU content if present, otherwise null
+     */
     public byte[] getFmu() {
-        return fmu;
+        if (Objects.nonNull(fmu)) {
+            return fmu;
+        }
+        return legacyFmu;
     }
 
 
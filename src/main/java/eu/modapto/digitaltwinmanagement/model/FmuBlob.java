@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Basic;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+
+/**
+ * Content-addressed storage of FMU files. FMUs are identified by the SHA-256 hash of their content so that identical
+ * FMUs assigned to multiple modules are only stored once.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FmuBlob {
+    @Id
+    private String hash;
+
+    private long size;
+
+    /**
+     * Time the FMU has last been stored. Unreferenced FMUs are only deleted after a grace period so that FMUs stored
+     * by a transaction that has not yet committed its reference are not removed.
+     */
+    private Instant storedAt;
+
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Blob content;
+
+    /**
+     * Opens a stream on the stored content. Must be called within an active transaction.
+     *
+     * @return stream of the FMU content
+     */
+    public InputStream openStream() {
+        try {
+            return content.getBinaryStream();
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException(String.format("error reading FMU from database (hash: %s)", hash), e);
+        }
+    }
+}
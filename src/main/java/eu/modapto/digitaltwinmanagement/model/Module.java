@@ -22,35 +22,59 @@ import eu.modapto.digitaltwinmanagement.exception.ResourceNotFoundException;
 import eu.modapto.digitaltwinmanagement.jpa.AssetConnectionConfigListConverter;
 import eu.modapto.digitaltwinmanagement.jpa.EnvironmentContextConverter;
 import eu.modapto.digitaltwinmanagement.util.AddressTranslationHelper;
+import eu.modapto.digitaltwinmanagement.util.EnvironmentDeltaHelper;
+import eu.modapto.digitaltwinmanagement.util.EnvironmentHelper;
+import eu.modapto.digitaltwinmanagement.util.IdHelper;
+import jakarta.persistence.Basic;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Lob;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_module_name", columnList = "name, id"),
+        @Index(name = "idx_module_type", columnList = "type, id")
+})
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Module {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
 
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     private String name;
 
     private int externalPort;
@@ -58,6 +82,7 @@ public class Module {
     private String containerId;
 
     @OneToMany(mappedBy = "module", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @Builder.Default
     private List<SmartService> services = new ArrayList<>();
 
@@ -65,17 +90,98 @@ public class Module {
 
     @Convert(converter = EnvironmentContextConverter.class)
     @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private EnvironmentContext providedModel;
 
+    /**
+     * The actual model, reconstructed from {@link #providedModel} and {@link #actualModelDelta} on first access.
+     */
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private EnvironmentContext actualModel;
+
+    /**
+     * Changes of the actual model compared to the provided model.
+     */
     @Convert(converter = EnvironmentContextConverter.class)
     @Lob
-    private EnvironmentContext actualModel;
+    @Basic(fetch = FetchType.LAZY)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private EnvironmentContext actualModelDelta;
+
+    /**
+     * The complete actual model, only used if the actual model can not be expressed as delta of the provided model and
+     * for data stored by previous versions.
+     */
+    @Convert(converter = EnvironmentContextConverter.class)
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "actual_model")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private EnvironmentContext fullActualModel;
 
     @Convert(converter = AssetConnectionConfigListConverter.class)
     @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @Builder.Default
     private List<AssetConnectionConfig> assetConnections = new ArrayList<>();
 
+    public EnvironmentContext getActualModel() {
+        if (Objects.isNull(actualModel)) {
+            if (Objects.nonNull(actualModelDelta)) {
+                actualModel = EnvironmentDeltaHelper.apply(providedModel, actualModelDelta);
+            }
+            else if (Objects.nonNull(fullActualModel)) {
+                actualModel = EnvironmentHelper.deepCopy(fullActualModel);
+            }
+        }
+        return actualModel;
+    }
+
+
+    public void setActualModel(EnvironmentContext actualModel) {
+        this.actualModel = actualModel;
+        updateActualModelStorage();
+    }
+
+
+    public void setProvidedModel(EnvironmentContext providedModel) {
+        EnvironmentContext currentActualModel = getActualModel();
+        this.providedModel = providedModel;
+        this.actualModel = currentActualModel;
+        updateActualModelStorage();
+    }
+
+
+    @PrePersist
+    private void prePersist() {
+        if (Objects.isNull(id)) {
+            id = IdHelper.timeOrderedUuid();
+        }
+        if (Objects.nonNull(actualModel)) {
+            updateActualModelStorage();
+        }
+    }
+
+
+    private void updateActualModelStorage() {
+        Optional<EnvironmentContext> delta = EnvironmentDeltaHelper.diff(providedModel, actualModel);
+        actualModelDelta = delta.orElse(null);
+        fullActualModel = delta.isPresent() ? null : actualModel;
+    }
+
+
     @Transient
     @JsonIgnore
     public String getInternalEndpoint() {
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import java.util.List;
+import java.util.Objects;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.eclipse.digitaltwin.aas4j.v3.model.Property;
+import org.eclipse.digitaltwin.aas4j.v3.model.Range;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+
+
+/**
+ * Flattened description of a top-level input or output parameter of a smart service. Stored in a separate, indexed
+ * table so that services can be searched by their parameters without deserializing the parameter definitions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Embeddable
+public class OperationParameter {
+    @Enumerated(EnumType.STRING)
+    private ParameterDirection direction;
+    private String idShort;
+    private String valueType;
+    @Column(length = 1024)
+    private String semanticId;
+
+    /**
+     * Creates index entries for a list of parameters.
+     *
+     * @param direction the direction of the parameters
+     * @param parameters the parameters, may be null
+     * @return the index entries
+     */
+    public static List<OperationParameter> of(ParameterDirection direction, List<SubmodelElement> parameters) {
+        if (Objects.isNull(parameters)) {
+            return List.of();
+        }
+        return parameters.stream()
+                .filter(Objects::nonNull)
+                .map(x -> OperationParameter.builder()
+                        .direction(direction)
+                        .idShort(x.getIdShort())
+                        .valueType(getValueType(x))
+                        .semanticId(getSemanticId(x.getSemanticId()))
+                        .build())
+                .toList();
+    }
+
+
+    private static String getValueType(SubmodelElement element) {
+        if (element instanceof Property property && Objects.nonNull(property.getValueType())) {
+            return property.getValueType().name();
+        }
+        if (element instanceof Range range && Objects.nonNull(range.getValueType())) {
+            return range.getValueType().name();
+        }
+        return null;
+    }
+
+
+    private static String getSemanticId(Reference reference) {
+        if (Objects.isNull(reference) || Objects.isNull(reference.getKeys()) || reference.getKeys().isEmpty()) {
+            return null;
+        }
+        return reference.getKeys().get(reference.getKeys().size() - 1).getValue();
+    }
+}
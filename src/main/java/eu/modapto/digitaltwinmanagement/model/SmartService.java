@@ -21,29 +21,45 @@ import eu.modapto.digitaltwinmanagement.jpa.ListOfSubmodelElementConverter;
 import eu.modapto.digitaltwinmanagement.jpa.MapToJsonConverter;
 import eu.modapto.digitaltwinmanagement.jpa.ReferenceConverter;
 import eu.modapto.digitaltwinmanagement.util.AddressTranslationHelper;
+import eu.modapto.digitaltwinmanagement.util.IdHelper;
+import jakarta.persistence.Basic;
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Convert;
 import jakarta.persistence.DiscriminatorColumn;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Objects;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.Singular;
+import lombok.ToString;
 import lombok.experimental.SuperBuilder;
 import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
 import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.LazyGroup;
 
 
 @Entity
@@ -58,29 +74,76 @@ import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
 })
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "service_type")
+@Table(indexes = {
+        @Index(name = "idx_smart_service_module", columnList = "module_id, id"),
+        @Index(name = "idx_smart_service_name", columnList = "name, id"),
+        @Index(name = "idx_smart_service_catalog_id", columnList = "serviceCatalogId, id"),
+        @Index(name = "idx_smart_service_type", columnList = "service_type, id")
+})
+@DynamicUpdate
 public abstract class SmartService {
     @Id
     private String id;
+    @Version
+    @ColumnDefault("0")
+    private Long version;
     private String serviceCatalogId;
     private String name;
     private String description;
     @Singular
     @Convert(converter = ListOfSubmodelElementConverter.class)
     @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("parameters")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<SubmodelElement> inputParameters;
     @Singular
     @Convert(converter = ListOfSubmodelElementConverter.class)
     @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("parameters")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<SubmodelElement> outputParameters;
 
     @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)
     @Builder.Default
     private Map<String, ArgumentMapping> inputArgumentTypes = new HashMap<>();
 
     @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)
     @Builder.Default
     private Map<String, ArgumentMapping> outputArgumentTypes = new HashMap<>();
 
+    /**
+     * Index of {@link #inputParameters} and {@link #outputParameters}, kept in sync by their setters and before
+     * persisting. The getters return unmodifiable lists so that the parameters cannot be changed without updating the
+     * index.
+     */
+    @ElementCollection
+    @CollectionTable(
+            name = "smart_service_parameter",
+            joinColumns = @JoinColumn(name = "smart_service_id"),
+            indexes = {
+                    @Index(name = "idx_smart_service_parameter_id_short", columnList = "direction, idShort, smart_service_id"),
+                    @Index(name = "idx_smart_service_parameter_semantic_id", columnList = "semanticId, smart_service_id"),
+                    @Index(name = "idx_smart_service_parameter_value_type", columnList = "valueType, smart_service_id")
+            })
+    @Builder.Default
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<OperationParameter> parameterIndex = new ArrayList<>();
+
+    /**
+     * Whether {@link #parameterIndex} has been built. False for services stored by previous versions.
+     */
+    @ColumnDefault("false")
+    @JsonIgnore
+    private boolean parameterIndexed;
+
     @JsonIgnore
     @Convert(converter = ReferenceConverter.class)
     private Reference reference;
@@ -108,10 +171,61 @@ public abstract class SmartService {
     }
 
 
+    /**
+     * Gets the input parameters. The list is unmodifiable, changes must be made via
+     * {@link #setInputParameters(List)} so that {@link #parameterIndex} stays in sync.
+     *
+     * @return the input parameters
+     */
+    public List<SubmodelElement> getInputParameters() {
+        return Objects.isNull(inputParameters) ? null : Collections.unmodifiableList(inputParameters);
+    }
+
+
+    /**
+     * Gets the output parameters. The list is unmodifiable, changes must be made via
+     * {@link #setOutputParameters(List)} so that {@link #parameterIndex} stays in sync.
+     *
+     * @return the output parameters
+     */
+    public List<SubmodelElement> getOutputParameters() {
+        return Objects.isNull(outputParameters) ? null : Collections.unmodifiableList(outputParameters);
+    }
+
+
+    public void setInputParameters(List<SubmodelElement> inputParameters) {
+        this.inputParameters = inputParameters;
+        updateParameterIndex();
+    }
+
+
+    public void setOutputParameters(List<SubmodelElement> outputParameters) {
+        this.outputParameters = outputParameters;
+        updateParameterIndex();
+    }
+
+
+    /**
+     * Rebuilds {@link #parameterIndex} from the current input and output parameters.
+     */
+    public void updateParameterIndex() {
+        if (Objects.isNull(parameterIndex)) {
+            parameterIndex = new ArrayList<>();
+        }
+        parameterIndex.clear();
+        parameterIndex.addAll(OperationParameter.of(ParameterDirection.INPUT, inputParameters));
+        parameterIndex.addAll(OperationParameter.of(ParameterDirection.OUTPUT, outputParameters));
+        parameterIndexed = true;
+    }
+
+
     @PrePersist
     public void generateId() {
         if (id == null) {
-            id = UUID.randomUUID().toString();
+            id = IdHelper.timeOrderedUuid();
+        }
+        if (!parameterIndexed) {
+            updateParameterIndex();
         }
     }
 }
@@ -15,6 +15,7 @@
 package eu.modapto.digitaltwinmanagement.model.event.payload;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
@@ -38,6 +39,9 @@ public class SmartServiceFinishedPayload extends AbstractSmartServicePayload {
 
     private boolean success;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long durationMs;
+
     @Singular
     @JsonIgnore
     @JsonSerialize(using = ElementValueMapSerializer.class)
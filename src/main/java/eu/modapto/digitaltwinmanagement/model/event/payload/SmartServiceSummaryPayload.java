@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.model.event.payload;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
+import eu.modapto.digitaltwinmanagement.serialization.ElementValueMapSerializer;
+import eu.modapto.digitaltwinmanagement.serialization.NullDeserializer;
+import java.time.LocalDateTime;
+import java.util.Map;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.Singular;
+import lombok.experimental.SuperBuilder;
+
+
+@Data
+@SuperBuilder
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class SmartServiceSummaryPayload extends AbstractSmartServicePayload {
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime windowStart;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime windowEnd;
+
+    private long invokedCount;
+
+    private long finishedCount;
+
+    private long successCount;
+
+    private double successRate;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double minMs;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double meanMs;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double p50Ms;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double p95Ms;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double p99Ms;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double maxMs;
+
+    private String lastInvocationId;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ResultReference lastResult;
+
+    @Singular
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @JsonSerialize(using = ElementValueMapSerializer.class)
+    @JsonDeserialize(using = NullDeserializer.class)
+    private Map<String, ElementValue> lastOutputArguments;
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.model.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "InvocationStatisticsResponse")
+public class InvocationStatisticsResponseDto {
+    @Schema(description = "Number of invocations that finished successfully.")
+    private long successCount;
+    @Schema(description = "Number of invocations that finished unsuccessfully.")
+    private long failureCount;
+    @Schema(description = "Number of invocations for which no finish event has been received within the configured timeout.")
+    private long timeoutCount;
+    @Schema(description = "Ratio of successful invocations to all completed or timed out invocations.")
+    private double successRate;
+    @Schema(description = "Latency between invocation and finish event in milliseconds.")
+    private double minMs;
+    private double meanMs;
+    private double p50Ms;
+    private double p90Ms;
+    private double p95Ms;
+    private double p99Ms;
+    private double maxMs;
+}
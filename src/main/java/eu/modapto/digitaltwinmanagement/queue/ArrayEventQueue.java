@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * {@link EventQueue} backed by an {@link ArrayBlockingQueue}.
+ *
+ * @param <T> type of events
+ */
+public class ArrayEventQueue<T> implements EventQueue<T> {
+
+    private final BlockingQueue<T> queue;
+    private final int capacity;
+
+    public ArrayEventQueue(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+    }
+
+
+    @Override
+    public boolean offer(T event) {
+        return queue.offer(event);
+    }
+
+
+    @Override
+    public boolean offer(T event, long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.offer(event, timeout, unit);
+    }
+
+
+    @Override
+    public T poll() {
+        return queue.poll();
+    }
+
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+
+    @Override
+    public T take() throws InterruptedException {
+        return queue.take();
+    }
+
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxEvents) {
+        return queue.drainTo(target, maxEvents);
+    }
+
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,505 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * {@link EventQueue} that applies an {@link OverflowPolicy} when the underlying in-memory queue is full.
+ *
+ * <p>With {@link OverflowPolicy#SPILL}, events that do not fit into memory are written to a
+ * {@link MappedSegmentJournal}. Once the first event has been spilled, all following events are spilled as well until
+ * the journal has been drained again, so that events are always consumed in the order they have been added. If the
+ * queue is {@link QueueSettings#isPersistent() persistent}, all events are written to the journal and an event is only
+ * removed from the journal once it has been {@link #acknowledge() acknowledged}, so that events that are being handled
+ * on shutdown are replayed as well. Spilled events that have not been consumed on shutdown are replayed after restart.
+ *
+ * <p>Metrics (tagged with the queue name): {@code dt.queue.depth}, {@code dt.queue.remaining},
+ * {@code dt.queue.spill.depth}, {@code dt.queue.dropped}, {@code dt.queue.spilled} and {@code dt.queue.wait} (time
+ * between adding and removing an event).
+ *
+ * @param <T> type of events
+ */
+public class BackpressureQueue<T> implements EventQueue<T>, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackpressureQueue.class);
+    private static final String TAG_QUEUE = "queue";
+    private static final int TIMESTAMP_SIZE = Long.BYTES;
+
+    private final QueueSettings settings;
+    private final EventQueue<Entry<T>> delegate;
+    private final EventCodec<T> codec;
+    private final Consumer<T> disposer;
+    private final Consumer<T> evictionListener;
+    private final EventJournal journal;
+    private final Object spillLock = new Object();
+    private final Semaphore available = new Semaphore(0);
+    private final AtomicLong overflowCount = new AtomicLong();
+    // one entry per event read from a persistent journal but not yet committed, false if it could not be decoded
+    private final Deque<Boolean> unacknowledged = new ArrayDeque<>();
+    private final Deque<T> handedBack = new ConcurrentLinkedDeque<>();
+    private final Counter dropped;
+    private final Counter spilled;
+    private final Timer wait;
+    private volatile boolean spilling;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param settings the settings
+     * @param codec codec used to write events to disk, only required for {@link OverflowPolicy#SPILL} or persistent
+     *            queues
+     * @param disposer called for every event that is dropped or has been written to disk, e.g. to release resources
+     *            held by the event, may be null
+     * @param meterRegistry registry to publish metrics to
+     * @throws IOException if opening the journal fails
+     */
+    public BackpressureQueue(QueueSettings settings, EventCodec<T> codec, Consumer<T> disposer, MeterRegistry meterRegistry) throws IOException {
+        this(settings, codec, disposer, null, meterRegistry);
+    }
+
+
+    /**
+     * Creates a new instance.
+     *
+     * @param settings the settings
+     * @param codec codec used to write events to disk, only required for {@link OverflowPolicy#SPILL} or persistent
+     *            queues
+     * @param disposer called for every event that is dropped or has been written to disk, e.g. to release resources
+     *            held by the event, may be null
+     * @param evictionListener called for every event that has already been added but is dropped to make room for a
+     *            newer one ({@link OverflowPolicy#DROP_OLDEST}, {@link OverflowPolicy#SAMPLE}), may be null
+     * @param meterRegistry registry to publish metrics to
+     * @throws IOException if opening the journal fails
+     */
+    public BackpressureQueue(QueueSettings settings, EventCodec<T> codec, Consumer<T> disposer, Consumer<T> evictionListener, MeterRegistry meterRegistry)
+            throws IOException {
+        this.settings = settings;
+        this.delegate = createDelegate(settings);
+        this.codec = codec;
+        this.disposer = Objects.requireNonNullElse(disposer, x -> {});
+        this.evictionListener = Objects.requireNonNullElse(evictionListener, x -> {});
+        if (settings.getOverflowPolicy() == OverflowPolicy.SPILL || settings.isPersistent()) {
+            if (Objects.isNull(codec)) {
+                throw new IllegalArgumentException(String.format("writing events to disk requires a codec (queue: %s)", settings.getName()));
+            }
+            journal = new MappedSegmentJournal(
+                    settings.getSpillDirectory().resolve(settings.getName()),
+                    settings.getSegmentSize(),
+                    settings.getMaxSpillSize(),
+                    settings.getRetention());
+            spilling = !journal.isEmpty();
+            available.release((int) Math.min(Integer.MAX_VALUE, journal.size()));
+        }
+        else {
+            journal = null;
+        }
+        Gauge.builder("dt.queue.depth", delegate, EventQueue::size)
+                .description("Number of events in memory")
+                .tag(TAG_QUEUE, settings.getName())
+                .register(meterRegistry);
+        Gauge.builder("dt.queue.remaining", delegate, x -> x.capacity() - x.size())
+                .description("Remaining capacity of the in-memory queue")
+                .tag(TAG_QUEUE, settings.getName())
+                .register(meterRegistry);
+        Gauge.builder("dt.queue.spill.depth", this, x -> x.spilledCount())
+                .description("Number of events spilled to disk and not yet consumed")
+                .tag(TAG_QUEUE, settings.getName())
+                .register(meterRegistry);
+        dropped = Counter.builder("dt.queue.dropped")
+                .description("Number of events dropped due to overflow")
+                .tag(TAG_QUEUE, settings.getName())
+                .tag("policy", settings.getOverflowPolicy().name())
+                .register(meterRegistry);
+        spilled = Counter.builder("dt.queue.spilled")
+                .description("Number of events spilled to disk")
+                .tag(TAG_QUEUE, settings.getName())
+                .register(meterRegistry);
+        wait = Timer.builder("dt.queue.wait")
+                .description("Time between adding an event to the queue and removing it")
+                .tag(TAG_QUEUE, settings.getName())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Adds an event applying the overflow policy if the queue is full. Events that are not added are passed to the
+     * disposer.
+     *
+     * @param event the event
+     * @return true if the event has been queued (in memory or on disk), false if it has been dropped
+     */
+    @Override
+    public boolean offer(T event) {
+        if (settings.isPersistent()) {
+            return spill(event);
+        }
+        return switch (settings.getOverflowPolicy()) {
+            case BLOCK -> offerBlocking(event);
+            case DROP_OLDEST -> offerReplacingOldest(event);
+            case DROP_NEWEST -> offerOrDrop(event);
+            case SPILL -> offerOrSpill(event);
+            case SAMPLE -> offerSampled(event);
+        };
+    }
+
+
+    @Override
+    public boolean offer(T event, long timeout, TimeUnit unit) throws InterruptedException {
+        if (Objects.nonNull(journal)) {
+            return offer(event);
+        }
+        if (delegate.offer(new Entry<>(event), timeout, unit)) {
+            return true;
+        }
+        drop(event);
+        return false;
+    }
+
+
+    @Override
+    public T poll() {
+        if (Objects.isNull(journal)) {
+            T result = handedBack.pollFirst();
+            return Objects.nonNull(result) ? result : unwrap(delegate.poll());
+        }
+        return available.tryAcquire() ? next() : null;
+    }
+
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (Objects.isNull(journal)) {
+            T result = handedBack.pollFirst();
+            return Objects.nonNull(result) ? result : unwrap(delegate.poll(timeout, unit));
+        }
+        return available.tryAcquire(timeout, unit) ? next() : null;
+    }
+
+
+    @Override
+    public T take() throws InterruptedException {
+        if (Objects.isNull(journal)) {
+            T result = handedBack.pollFirst();
+            return Objects.nonNull(result) ? result : unwrap(delegate.take());
+        }
+        while (true) {
+            available.acquire();
+            T result = next();
+            if (Objects.nonNull(result)) {
+                return result;
+            }
+        }
+    }
+
+
+    /**
+     * Returns events that have been removed but not been handled. They are removed again before any other event, so
+     * their order is preserved. Events of persistent queues are still in the journal, so the journal is
+     * {@link #rewind() rewound} instead.
+     *
+     * @param events the events in the order they have been removed
+     */
+    @Override
+    public void handBack(List<T> events) {
+        if (settings.isPersistent()) {
+            rewind();
+            return;
+        }
+        for (int i = events.size() - 1; i >= 0; i--) {
+            handedBack.addFirst(events.get(i));
+        }
+        if (Objects.nonNull(journal)) {
+            available.release(events.size());
+        }
+    }
+
+
+    @Override
+    public int size() {
+        return handedBack.size() + delegate.size() + (int) Math.min(Integer.MAX_VALUE, spilledCount());
+    }
+
+
+    @Override
+    public int capacity() {
+        return delegate.capacity();
+    }
+
+
+    public String getName() {
+        return settings.getName();
+    }
+
+
+    public boolean isPersistent() {
+        return settings.isPersistent();
+    }
+
+
+    /**
+     * Confirms that the oldest event removed from a persistent queue has been handled and removes it from the journal.
+     * Does nothing if the queue is not persistent.
+     */
+    public void acknowledge() {
+        if (!settings.isPersistent()) {
+            return;
+        }
+        synchronized (spillLock) {
+            if (unacknowledged.isEmpty()) {
+                return;
+            }
+            unacknowledged.removeFirst();
+            journal.commit();
+            commitUndecodable();
+        }
+    }
+
+
+    /**
+     * Makes all events removed from a persistent queue but not yet acknowledged available again, so that they are
+     * removed again in their original order. Does nothing if the queue is not persistent.
+     */
+    public void rewind() {
+        if (!settings.isPersistent()) {
+            return;
+        }
+        synchronized (spillLock) {
+            unacknowledged.clear();
+            available.release((int) Math.min(Integer.MAX_VALUE, journal.rewind()));
+        }
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        if (Objects.nonNull(journal)) {
+            synchronized (spillLock) {
+                if (!journal.isEmpty()) {
+                    LOGGER.info("keeping events on disk for replay after restart (queue: {}, count: {})", settings.getName(), journal.size());
+                }
+                journal.close();
+            }
+        }
+    }
+
+
+    private static <T> EventQueue<Entry<T>> createDelegate(QueueSettings settings) {
+        return switch (settings.getQueueType()) {
+            case ARRAY -> new ArrayEventQueue<>(settings.getCapacity());
+            case RING_BUFFER -> new RingBufferQueue<>(settings.getCapacity(), WaitStrategy.create(settings.getWaitStrategy()));
+        };
+    }
+
+
+    private boolean offerBlocking(T event) {
+        try {
+            return offer(event, settings.getBlockTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop(event);
+            return false;
+        }
+    }
+
+
+    private boolean offerOrDrop(T event) {
+        if (delegate.offer(new Entry<>(event))) {
+            return true;
+        }
+        drop(event);
+        return false;
+    }
+
+
+    private boolean offerReplacingOldest(T event) {
+        Entry<T> entry = new Entry<>(event);
+        while (!delegate.offer(entry)) {
+            Entry<T> oldest = delegate.poll();
+            if (Objects.nonNull(oldest)) {
+                drop(oldest.event());
+                evictionListener.accept(oldest.event());
+            }
+        }
+        return true;
+    }
+
+
+    private boolean offerSampled(T event) {
+        if (delegate.offer(new Entry<>(event))) {
+            return true;
+        }
+        if (overflowCount.incrementAndGet() % Math.max(1, settings.getSampleRate()) == 0) {
+            return offerReplacingOldest(event);
+        }
+        drop(event);
+        return false;
+    }
+
+
+    private boolean offerOrSpill(T event) {
+        if (!spilling && delegate.offer(new Entry<>(event))) {
+            available.release();
+            return true;
+        }
+        synchronized (spillLock) {
+            if (!spilling && delegate.offer(new Entry<>(event))) {
+                available.release();
+                return true;
+            }
+            return spill(event);
+        }
+    }
+
+
+    private boolean spill(T event) {
+        synchronized (spillLock) {
+            try {
+                byte[] encoded = codec.encode(event);
+                journal.append(ByteBuffer.allocate(TIMESTAMP_SIZE + encoded.length)
+                        .putLong(System.currentTimeMillis())
+                        .put(encoded)
+                        .array());
+            }
+            catch (IOException e) {
+                LOGGER.warn("failed to spill event to disk (queue: {}, reason: {})", settings.getName(), e.getMessage(), e);
+                drop(event);
+                return false;
+            }
+            spilling = true;
+            spilled.increment();
+            available.release();
+            disposer.accept(event);
+            return true;
+        }
+    }
+
+
+    private T next() {
+        T result = handedBack.pollFirst();
+        if (Objects.nonNull(result)) {
+            return result;
+        }
+        result = unwrap(delegate.poll());
+        if (Objects.nonNull(result)) {
+            return result;
+        }
+        return pollSpilled();
+    }
+
+
+    private T pollSpilled() {
+        try {
+            byte[] data;
+            synchronized (spillLock) {
+                if (settings.isPersistent()) {
+                    data = journal.read();
+                    if (Objects.nonNull(data)) {
+                        unacknowledged.addLast(true);
+                    }
+                }
+                else {
+                    data = journal.poll();
+                }
+                if (journal.isEmpty()) {
+                    spilling = false;
+                }
+            }
+            if (Objects.isNull(data)) {
+                return null;
+            }
+            wait.record(Math.max(0, System.currentTimeMillis() - ByteBuffer.wrap(data).getLong()), TimeUnit.MILLISECONDS);
+            return decode(data);
+        }
+        catch (IOException e) {
+            LOGGER.error("failed to read spilled event from disk (queue: {}, reason: {})", settings.getName(), e.getMessage(), e);
+            dropped.increment();
+            return null;
+        }
+    }
+
+
+    private T decode(byte[] data) throws IOException {
+        try {
+            return codec.decode(Arrays.copyOfRange(data, TIMESTAMP_SIZE, data.length));
+        }
+        catch (IOException e) {
+            if (settings.isPersistent()) {
+                synchronized (spillLock) {
+                    unacknowledged.pollLast();
+                    unacknowledged.addLast(false);
+                    commitUndecodable();
+                }
+            }
+            throw e;
+        }
+    }
+
+
+    private void commitUndecodable() {
+        while (Boolean.FALSE.equals(unacknowledged.peekFirst())) {
+            unacknowledged.removeFirst();
+            journal.commit();
+        }
+    }
+
+
+    private T unwrap(Entry<T> entry) {
+        if (Objects.isNull(entry)) {
+            return null;
+        }
+        wait.record(System.nanoTime() - entry.enqueued(), TimeUnit.NANOSECONDS);
+        return entry.event();
+    }
+
+
+    private long spilledCount() {
+        return Objects.isNull(journal) ? 0 : journal.size();
+    }
+
+
+    private void drop(T event) {
+        dropped.increment();
+        disposer.accept(event);
+    }
+
+    private record Entry<T>(T event, long enqueued) {
+
+        private Entry(T event) {
+            this(event, System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import java.io.IOException;
+
+
+/**
+ * Converts events to and from bytes so they can be written to an {@link EventJournal}.
+ *
+ * @param <T> type of events
+ */
+public interface EventCodec<T> {
+
+    /**
+     * Encodes an event.
+     *
+     * @param event the event
+     * @return the encoded event
+     * @throws IOException if encoding fails
+     */
+    public byte[] encode(T event) throws IOException;
+
+
+    /**
+     * Decodes an event.
+     *
+     * @param data the data as produced by {@link #encode(Object)}
+     * @return the decoded event
+     * @throws IOException if decoding fails
+     */
+    public T decode(byte[] data) throws IOException;
+}
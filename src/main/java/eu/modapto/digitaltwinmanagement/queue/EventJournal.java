@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+
+/**
+ * Append-only FIFO storage of serialized events on disk.
+ */
+public interface EventJournal extends Closeable {
+
+    /**
+     * Appends a record at the end of the journal.
+     *
+     * @param data the record
+     * @throws IOException if writing fails
+     */
+    public void append(byte[] data) throws IOException;
+
+
+    /**
+     * Reads and removes the oldest record of the journal.
+     *
+     * @return the oldest record or null if the journal is empty
+     * @throws IOException if reading fails
+     */
+    public byte[] poll() throws IOException;
+
+
+    /**
+     * Reads the oldest record that has not been read yet without removing it. The record stays in the journal, and is
+     * replayed after a restart, until it is removed by {@link #commit()}. Must not be mixed with {@link #poll()}.
+     *
+     * @return the oldest unread record or null if all records have been read
+     * @throws IOException if reading fails
+     */
+    public byte[] read() throws IOException;
+
+
+    /**
+     * Removes the oldest record that has been returned by {@link #read()}.
+     *
+     * @throws IllegalStateException if there is no such record
+     */
+    public void commit();
+
+
+    /**
+     * Makes all records that have been returned by {@link #read()} but not been committed available for reading
+     * again.
+     *
+     * @return the number of records that can be read again
+     */
+    public long rewind();
+
+
+    /**
+     * Gets the number of unread records in the journal.
+     *
+     * @return the number of records
+     */
+    public long size();
+
+
+    public default boolean isEmpty() {
+        return size() == 0;
+    }
+}
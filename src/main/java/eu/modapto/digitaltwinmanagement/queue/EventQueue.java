@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Bounded queue used to hand over events between producer threads and {@link eu.modapto.digitaltwinmanagement.util.Processor}s.
+ *
+ * @param <T> type of events
+ */
+public interface EventQueue<T> {
+
+    /**
+     * Inserts an event if possible without waiting.
+     *
+     * @param event the event
+     * @return true if the event has been added, false if the queue is full
+     */
+    public boolean offer(T event);
+
+
+    /**
+     * Inserts an event, waiting up to the given time for space to become available.
+     *
+     * @param event the event
+     * @param timeout how long to wait
+     * @param unit unit of timeout
+     * @return true if the event has been added, false if the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean offer(T event, long timeout, TimeUnit unit) throws InterruptedException;
+
+
+    /**
+     * Retrieves and removes the head of the queue without waiting.
+     *
+     * @return the head of the queue or null if the queue is empty
+     */
+    public T poll();
+
+
+    /**
+     * Retrieves and removes the head of the queue, waiting up to the given time for an event to become available.
+     *
+     * @param timeout how long to wait
+     * @param unit unit of timeout
+     * @return the head of the queue or null if the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+
+    /**
+     * Retrieves and removes the head of the queue, waiting until an event becomes available.
+     *
+     * @return the head of the queue
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public T take() throws InterruptedException;
+
+
+    /**
+     * Removes up to the given number of available events without waiting and adds them to the given collection.
+     *
+     * @param target the collection to add the events to
+     * @param maxEvents maximum number of events to remove
+     * @return the number of events removed
+     */
+    public default int drainTo(Collection<? super T> target, int maxEvents) {
+        int result = 0;
+        while (result < maxEvents) {
+            T event = poll();
+            if (Objects.isNull(event)) {
+                break;
+            }
+            target.add(event);
+            result++;
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns events that have been removed from the queue but not been handled, e.g. because the consumer has been
+     * interrupted while handling a batch. The default implementation adds them again at the tail of the queue.
+     *
+     * @param events the events in the order they have been removed
+     */
+    public default void handBack(List<T> events) {
+        for (T event: events) {
+            offer(event);
+        }
+    }
+
+
+    /**
+     * Gets the number of events currently in the queue.
+     *
+     * @return the number of events
+     */
+    public int size();
+
+
+    /**
+     * Gets the maximum number of events the queue can hold in memory.
+     *
+     * @return the capacity
+     */
+    public int capacity();
+}
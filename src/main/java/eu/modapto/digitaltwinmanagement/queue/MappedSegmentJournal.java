@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Append-only {@link EventJournal} backed by memory-mapped segment files.
+ *
+ * <p>Records are appended to the newest segment. When a record does not fit into the remaining space, a new segment is
+ * created. Segments are deleted as soon as all of their records have been committed. Records are committed either
+ * directly when polled or explicitly after {@link #read()}. The commit position is persisted in a checkpoint file so
+ * that uncommitted records are replayed in order after a restart.
+ *
+ * <p>Record layout: 4 bytes length, 4 bytes CRC32 of the data, data. Segment files are pre-allocated with zeros, so a
+ * length of 0 marks the end of written data. When recovering, the first record with invalid length or checksum ends
+ * the segment.
+ *
+ * <p>Disk usage is bounded by {@code maxSize}. When a new segment would exceed that limit, segments older than
+ * {@code retention} are discarded. Segments containing records that have been read but not yet committed are never
+ * discarded, nor are any segments after them. If that does not free enough space, appending fails.
+ */
+public class MappedSegmentJournal implements EventJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedSegmentJournal.class);
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int CHECKPOINT_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxSize;
+    private final Duration retention;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final FileChannel checkpointChannel;
+    private final MappedByteBuffer checkpoint;
+    private final CRC32 crc = new CRC32();
+    private long count;
+    private long diskUsage;
+    private long nextSegmentId;
+
+    /**
+     * Opens a journal, recovering all unread records from a previous run.
+     *
+     * @param directory the directory to store the segments in
+     * @param segmentSize size of a segment file in bytes
+     * @param maxSize maximum total size of all segment files in bytes
+     * @param retention maximum age of a segment before it may be discarded to free space, null or zero to never
+     *            discard unread segments
+     * @throws IOException if opening or recovering the journal fails
+     */
+    public MappedSegmentJournal(Path directory, int segmentSize, long maxSize, Duration retention) throws IOException {
+        if (segmentSize <= RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException(String.format("segment size too small (segmentSize: %d)", segmentSize));
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+        this.retention = retention;
+        Files.createDirectories(directory);
+        checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, CHECKPOINT_SIZE);
+        recover();
+    }
+
+
+    @Override
+    public synchronized void append(byte[] data) throws IOException {
+        if (data.length == 0) {
+            throw new IllegalArgumentException("journal records must not be empty");
+        }
+        int recordSize = RECORD_HEADER_SIZE + data.length;
+        Segment segment = segments.peekLast();
+        if (Objects.isNull(segment) || segment.buffer.capacity() - segment.writePosition < recordSize) {
+            segment = roll(recordSize);
+        }
+        crc.reset();
+        crc.update(data);
+        int position = segment.writePosition;
+        segment.buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        segment.buffer.put(position + RECORD_HEADER_SIZE, data);
+        // length is written last so that a partially written record is never considered valid
+        segment.buffer.putInt(position, data.length);
+        segment.writePosition += recordSize;
+        segment.count++;
+        count++;
+    }
+
+
+    @Override
+    public synchronized byte[] poll() throws IOException {
+        byte[] result = read();
+        if (Objects.nonNull(result)) {
+            commit();
+        }
+        return result;
+    }
+
+
+    @Override
+    public synchronized byte[] read() throws IOException {
+        for (Segment segment: segments) {
+            if (segment.readPosition < segment.writePosition) {
+                int length = segment.buffer.getInt(segment.readPosition);
+                byte[] result = new byte[length];
+                segment.buffer.get(segment.readPosition + RECORD_HEADER_SIZE, result);
+                segment.readPosition += RECORD_HEADER_SIZE + length;
+                segment.count--;
+                count--;
+                return result;
+            }
+        }
+        return null;
+    }
+
+
+    @Override
+    public synchronized void commit() {
+        while (true) {
+            Segment segment = segments.peekFirst();
+            if (Objects.nonNull(segment) && segment.commitPosition < segment.readPosition) {
+                segment.commitPosition += RECORD_HEADER_SIZE + segment.buffer.getInt(segment.commitPosition);
+                checkpoint.putLong(0, segment.id);
+                checkpoint.putInt(Long.BYTES, segment.commitPosition);
+                return;
+            }
+            if (Objects.isNull(segment) || segment.readPosition < segment.writePosition || segments.size() == 1) {
+                throw new IllegalStateException(String.format("no record to commit (directory: %s)", directory));
+            }
+            segments.removeFirst();
+            delete(segment);
+        }
+    }
+
+
+    @Override
+    public synchronized long rewind() {
+        long result = 0;
+        for (Segment segment: segments) {
+            int position = segment.commitPosition;
+            while (position < segment.readPosition) {
+                position += RECORD_HEADER_SIZE + segment.buffer.getInt(position);
+                segment.count++;
+                result++;
+            }
+            segment.readPosition = segment.commitPosition;
+        }
+        count += result;
+        return result;
+    }
+
+
+    @Override
+    public synchronized long size() {
+        return count;
+    }
+
+
+    /**
+     * Gets the total size of all segment files.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getDiskUsage() {
+        return diskUsage;
+    }
+
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment: segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        segments.clear();
+        checkpoint.force();
+        checkpointChannel.close();
+    }
+
+
+    private Segment roll(int recordSize) throws IOException {
+        long size = Math.max(segmentSize, recordSize);
+        deleteCommitted();
+        if (diskUsage + size > maxSize) {
+            discardExpired();
+        }
+        if (diskUsage + size > maxSize) {
+            throw new IOException(String.format("journal is full (directory: %s, diskUsage: %d, maxSize: %d)", directory, diskUsage, maxSize));
+        }
+        long id = nextSegmentId++;
+        Path file = directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        Segment result = new Segment(id, file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), Instant.now());
+        segments.addLast(result);
+        diskUsage += size;
+        return result;
+    }
+
+
+    private void deleteCommitted() {
+        while (!segments.isEmpty() && segments.getFirst().commitPosition == segments.getFirst().writePosition) {
+            delete(segments.removeFirst());
+        }
+    }
+
+
+    private void discardExpired() {
+        if (Objects.isNull(retention) || retention.isZero()) {
+            return;
+        }
+        Instant threshold = Instant.now().minus(retention);
+        Iterator<Segment> iterator = segments.iterator();
+        while (iterator.hasNext()) {
+            Segment segment = iterator.next();
+            if (segment == segments.getLast() || segment.created.isAfter(threshold) || segment.commitPosition < segment.readPosition) {
+                return;
+            }
+            iterator.remove();
+            count -= segment.count;
+            LOGGER.warn("discarding expired journal segment (file: {}, unread records: {})", segment.file, segment.count);
+            delete(segment);
+        }
+    }
+
+
+    private void recover() throws IOException {
+        long checkpointId = checkpoint.getLong(0);
+        int checkpointPosition = checkpoint.getInt(Long.BYTES);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(Comparator.comparing(Path::getFileName));
+        for (Path file: files) {
+            String fileName = file.getFileName().toString();
+            long id = Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(id,
+                    file,
+                    channel,
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()),
+                    Files.getLastModifiedTime(file).toInstant());
+            diskUsage += segment.buffer.capacity();
+            nextSegmentId = Math.max(nextSegmentId, id + 1);
+            if (id < checkpointId) {
+                delete(segment);
+                continue;
+            }
+            scan(segment, id == checkpointId ? checkpointPosition : 0);
+            segments.addLast(segment);
+            count += segment.count;
+        }
+        nextSegmentId = Math.max(nextSegmentId, checkpointId + 1);
+        if (count > 0) {
+            LOGGER.info("recovered journal (directory: {}, records: {}, segments: {})", directory, count, segments.size());
+        }
+    }
+
+
+    private void scan(Segment segment, int readPosition) {
+        int position = 0;
+        while (position + RECORD_HEADER_SIZE <= segment.buffer.capacity()) {
+            int length = segment.buffer.getInt(position);
+            if (length <= 0 || length > segment.buffer.capacity() - position - RECORD_HEADER_SIZE) {
+                break;
+            }
+            byte[] data = new byte[length];
+            segment.buffer.get(position + RECORD_HEADER_SIZE, data);
+            crc.reset();
+            crc.update(data);
+            if ((int) crc.getValue() != segment.buffer.getInt(position + Integer.BYTES)) {
+                LOGGER.warn("journal segment contains corrupted record, ignoring remaining records (file: {}, position: {})", segment.file, position);
+                break;
+            }
+            if (position >= readPosition) {
+                segment.count++;
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        segment.writePosition = position;
+        segment.readPosition = Math.min(readPosition, position);
+        segment.commitPosition = segment.readPosition;
+    }
+
+
+    private void delete(Segment segment) {
+        diskUsage -= segment.buffer.capacity();
+        try {
+            segment.channel.close();
+            Files.deleteIfExists(segment.file);
+        }
+        catch (IOException e) {
+            LOGGER.warn("failed to delete journal segment (file: {}, reason: {})", segment.file, e.getMessage(), e);
+        }
+    }
+
+    private static class Segment {
+        private final long id;
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final Instant created;
+        private int writePosition;
+        private int readPosition;
+        private int commitPosition;
+        private long count;
+
+        private Segment(long id, Path file, FileChannel channel, MappedByteBuffer buffer, Instant created) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+/**
+ * Defines what happens when an event is added to a full {@link BackpressureQueue}.
+ */
+public enum OverflowPolicy {
+    /**
+     * Wait for free space up to the configured timeout, drop the new event if the timeout elapses.
+     */
+    BLOCK,
+    /**
+     * Drop the oldest queued event to make room for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * Drop the new event.
+     */
+    DROP_NEWEST,
+    /**
+     * Write the new event to disk. Events are read back from disk in order once the queue has been drained.
+     */
+    SPILL,
+    /**
+     * Keep only every n-th overflowing event (replacing the oldest queued event) and drop all others.
+     */
+    SAMPLE
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import eu.modapto.digitaltwinmanagement.util.Processor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+
+/**
+ * Splits events into lanes by key, e.g. module ID. Each lane has its own {@link BackpressureQueue} and is consumed by
+ * exactly one {@link Processor}, so events with the same key are handled in the order they have been added while
+ * events with different keys are handled in parallel.
+ *
+ * <p>Keys are assigned to lanes by hash. If rebalancing is enabled and the lane of a key is filled above the rebalance
+ * threshold, the key is moved to the least loaded lane. A key is only moved while none of its events are queued or
+ * being handled, so ordering per key is preserved. Keys are only tracked while they have pending events.
+ *
+ * <p>Metrics (tagged with the queue name): {@code dt.queue.lane.events} (additionally tagged with the lane) and
+ * {@code dt.queue.lane.rebalanced}. Each lane additionally publishes the metrics of {@link BackpressureQueue} with
+ * queue name {@code <name>-<lane>}.
+ *
+ * @param <T> type of events
+ */
+public class PartitionedQueue<T> implements Closeable {
+
+    private static final String TAG_QUEUE = "queue";
+
+    private final String name;
+    private final int batchSize;
+    private final Function<T, String> keyExtractor;
+    private final double rebalanceThreshold;
+    private final List<BackpressureQueue<T>> lanes = new ArrayList<>();
+    private final List<Counter> laneEvents = new ArrayList<>();
+    private final Counter rebalanced;
+    private final Map<String, KeyAssignment> assignments = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param settings settings applied to each lane
+     * @param laneCount number of lanes
+     * @param rebalanceThreshold fill ratio (0..1) of a lane above which keys are moved to other lanes, 0 to disable
+     *            rebalancing
+     * @param keyExtractor function to extract the key from an event
+     * @param codec codec used to write events to disk, see {@link BackpressureQueue}
+     * @param disposer called for every event that is dropped or has been written to disk, see
+     *            {@link BackpressureQueue}
+     * @param meterRegistry registry to publish metrics to
+     * @throws IOException if creating a lane fails
+     */
+    public PartitionedQueue(QueueSettings settings,
+            int laneCount,
+            double rebalanceThreshold,
+            Function<T, String> keyExtractor,
+            EventCodec<T> codec,
+            Consumer<T> disposer,
+            MeterRegistry meterRegistry)
+            throws IOException {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException(String.format("lane count must be at least 1 (queue: %s, laneCount: %d)", settings.getName(), laneCount));
+        }
+        this.name = settings.getName();
+        this.batchSize = settings.getBatchSize();
+        this.meterRegistry = meterRegistry;
+        this.keyExtractor = keyExtractor;
+        this.rebalanceThreshold = rebalanceThreshold;
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new BackpressureQueue<>(
+                    settings.toBuilder()
+                            .name(laneName(i))
+                            .build(),
+                    codec,
+                    disposer,
+                    event -> complete(keyOf(event)),
+                    meterRegistry));
+            laneEvents.add(Counter.builder("dt.queue.lane.events")
+                    .description("Number of events added to a lane")
+                    .tag(TAG_QUEUE, name)
+                    .tag("lane", Integer.toString(i))
+                    .register(meterRegistry));
+        }
+        rebalanced = Counter.builder("dt.queue.lane.rebalanced")
+                .description("Number of keys moved to another lane")
+                .tag(TAG_QUEUE, name)
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Adds an event to the lane assigned to its key.
+     *
+     * @param event the event
+     * @return true if the event has been queued, false if it has been dropped
+     */
+    public boolean offer(T event) {
+        String key = keyOf(event);
+        KeyAssignment assignment = assignments.compute(key, (k, current) -> {
+            KeyAssignment result = Objects.isNull(current) ? new KeyAssignment(defaultLane(k)) : current;
+            if (result.pending == 0 && isHot(result.lane)) {
+                int target = leastLoadedLane();
+                if (target != result.lane) {
+                    result.lane = target;
+                    rebalanced.increment();
+                }
+            }
+            result.pending++;
+            return result;
+        });
+        int lane = assignment.lane;
+        laneEvents.get(lane).increment();
+        if (lanes.get(lane).offer(event)) {
+            return true;
+        }
+        complete(key);
+        return false;
+    }
+
+
+    /**
+     * Creates one processor per lane. For persistent lanes, an event is acknowledged once the handler returns. If the
+     * handler returns with the thread interrupted, the event is considered not handled and all unacknowledged events of
+     * the lane are rewound, so that they are handled again in their original order.
+     *
+     * @param handler the handler to call for each event
+     * @return the processors, to be executed on separate threads
+     */
+    public List<Processor<T>> createProcessors(Consumer<T> handler) {
+        List<Processor<T>> result = new ArrayList<>(lanes.size());
+        for (BackpressureQueue<T> lane: lanes) {
+            result.add(new Processor<>(lane, event -> {
+                try {
+                    handler.accept(event);
+                }
+                finally {
+                    if (lane.isPersistent() && Thread.currentThread().isInterrupted()) {
+                        lane.rewind();
+                    }
+                    else {
+                        lane.acknowledge();
+                        complete(keyOf(event));
+                    }
+                }
+            }, lane.getName(), batchSize, meterRegistry));
+        }
+        return result;
+    }
+
+
+    /**
+     * Gets the number of lanes.
+     *
+     * @return the number of lanes
+     */
+    public int getLaneCount() {
+        return lanes.size();
+    }
+
+
+    /**
+     * Gets the total number of queued events of all lanes.
+     *
+     * @return the number of queued events
+     */
+    public int size() {
+        return lanes.stream().mapToInt(BackpressureQueue::size).sum();
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        for (BackpressureQueue<T> lane: lanes) {
+            try {
+                lane.close();
+            }
+            catch (IOException e) {
+                error = e;
+            }
+        }
+        if (Objects.nonNull(error)) {
+            throw error;
+        }
+    }
+
+
+    int getPending(String key) {
+        KeyAssignment assignment = assignments.get(key);
+        return Objects.isNull(assignment) ? 0 : assignment.pending;
+    }
+
+
+    int getKeyCount() {
+        return assignments.size();
+    }
+
+
+    private String keyOf(T event) {
+        return Objects.requireNonNullElse(keyExtractor.apply(event), "");
+    }
+
+
+    private void complete(String key) {
+        assignments.computeIfPresent(key, (k, current) -> {
+            current.pending--;
+            return current.pending > 0 ? current : null;
+        });
+    }
+
+
+    private int defaultLane(String key) {
+        return Math.floorMod(key.hashCode(), lanes.size());
+    }
+
+
+    private boolean isHot(int lane) {
+        return rebalanceThreshold > 0
+                && lanes.size() > 1
+                && lanes.get(lane).size() >= rebalanceThreshold * lanes.get(lane).capacity();
+    }
+
+
+    private int leastLoadedLane() {
+        int result = 0;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < lanes.size(); i++) {
+            int size = lanes.get(i).size();
+            if (size < min) {
+                min = size;
+                result = i;
+            }
+        }
+        return result;
+    }
+
+
+    private String laneName(int lane) {
+        return name + "-" + lane;
+    }
+
+    private static class KeyAssignment {
+        private int lane;
+        private int pending;
+
+        private KeyAssignment(int lane) {
+            this.lane = lane;
+        }
+    }
+}
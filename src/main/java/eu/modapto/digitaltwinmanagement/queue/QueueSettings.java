@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Settings of a {@link BackpressureQueue}.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueSettings {
+    private String name;
+    private int capacity;
+    @Builder.Default
+    private QueueType queueType = QueueType.ARRAY;
+    @Builder.Default
+    private WaitStrategyType waitStrategy = WaitStrategyType.BLOCKING;
+    @Builder.Default
+    private int batchSize = 1;
+    @Builder.Default
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    @Builder.Default
+    private Duration blockTimeout = Duration.ofSeconds(1);
+    @Builder.Default
+    private int sampleRate = 10;
+    private Path spillDirectory;
+    @Builder.Default
+    private int segmentSize = 64 * 1024 * 1024;
+    @Builder.Default
+    private long maxSpillSize = 1024L * 1024 * 1024;
+    private Duration retention;
+    private boolean persistent;
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Lock-free bounded {@link EventQueue} based on a pre-allocated ring buffer.
+ *
+ * <p>Each slot carries a sequence number that tells producers and consumers whether the slot is free or holds a
+ * published event. Producers and consumers claim slots by a CAS on the tail or head counter respectively, so neither
+ * side ever takes a lock. Multiple consumers are supported as overflow policies may remove events on the producer
+ * side, but the fast path is optimized for a single consumer. How consumers wait for events is defined by a
+ * {@link WaitStrategy}; producers waiting for free space back off by parking briefly.
+ *
+ * <p>The capacity is rounded up to the next power of two.
+ *
+ * @param <T> type of events
+ */
+public class RingBufferQueue<T> implements EventQueue<T> {
+
+    private static final long PRODUCER_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final int capacity;
+    private final int mask;
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final WaitStrategy waitStrategy;
+
+    public RingBufferQueue(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException(String.format("invalid ring buffer capacity (capacity: %d)", capacity));
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new Object[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+
+    @Override
+    public boolean offer(T event) {
+        Objects.requireNonNull(event, "event must be non-null");
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = event;
+                    sequences.setRelease(index, position + 1);
+                    waitStrategy.signal();
+                    return true;
+                }
+            }
+            else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+
+    @Override
+    public boolean offer(T event, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!offer(event)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(PRODUCER_BACKOFF_NANOS);
+        }
+        return true;
+    }
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long difference = sequences.getAcquire(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T result = (T) slots[index];
+                    slots[index] = null;
+                    sequences.setRelease(index, position + capacity);
+                    return result;
+                }
+            }
+            else if (difference < 0) {
+                return null;
+            }
+        }
+    }
+
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            T result = poll();
+            if (Objects.nonNull(result)) {
+                return result;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !waitStrategy.await(this::isAvailable, remaining)) {
+                return poll();
+            }
+        }
+    }
+
+
+    @Override
+    public T take() throws InterruptedException {
+        while (true) {
+            T result = poll();
+            if (Objects.nonNull(result)) {
+                return result;
+            }
+            waitStrategy.await(this::isAvailable, Long.MAX_VALUE);
+        }
+    }
+
+
+    @Override
+    public int size() {
+        long result = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(capacity, result));
+    }
+
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+
+    private boolean isAvailable() {
+        long position = head.get();
+        return sequences.getAcquire((int) (position & mask)) == position + 1;
+    }
+}
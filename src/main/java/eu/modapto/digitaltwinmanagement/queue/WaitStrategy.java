@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * Defines how consumers of a {@link RingBufferQueue} wait for events.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Waits until the condition is met or the timeout elapsed.
+     *
+     * @param condition the condition to wait for
+     * @param timeoutNanos maximum time to wait in nanoseconds
+     * @return true if the condition is met, false if the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean await(BooleanSupplier condition, long timeoutNanos) throws InterruptedException;
+
+
+    /**
+     * Wakes up waiting consumers after an event has been added.
+     */
+    public void signal();
+
+
+    /**
+     * Creates a wait strategy of the given type.
+     *
+     * @param type the type
+     * @return the wait strategy
+     */
+    public static WaitStrategy create(WaitStrategyType type) {
+        return switch (type) {
+            case BLOCKING -> new Blocking();
+            case YIELDING -> new Spinning(true);
+            case BUSY_SPIN -> new Spinning(false);
+        };
+    }
+
+    /**
+     * Parks waiting consumers until signalled. Producers only acquire the lock if a consumer is actually waiting.
+     */
+    public static class Blocking implements WaitStrategy {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition signalled = lock.newCondition();
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        @Override
+        public boolean await(BooleanSupplier condition, long timeoutNanos) throws InterruptedException {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            long remaining = timeoutNanos;
+            lock.lockInterruptibly();
+            try {
+                waiting.incrementAndGet();
+                try {
+                    while (!condition.getAsBoolean()) {
+                        if (remaining <= 0) {
+                            return false;
+                        }
+                        remaining = signalled.awaitNanos(remaining);
+                    }
+                    return true;
+                }
+                finally {
+                    waiting.decrementAndGet();
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+
+        @Override
+        public void signal() {
+            // make the published event visible before checking for waiting consumers
+            VarHandle.fullFence();
+            if (waiting.get() == 0) {
+                return;
+            }
+            lock.lock();
+            try {
+                signalled.signalAll();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Spins on the condition, optionally yielding the CPU after a short spin phase.
+     */
+    public static class Spinning implements WaitStrategy {
+
+        private static final int SPIN_TRIES = 100;
+        private final boolean yield;
+
+        public Spinning(boolean yield) {
+            this.yield = yield;
+        }
+
+
+        @Override
+        public boolean await(BooleanSupplier condition, long timeoutNanos) throws InterruptedException {
+            long deadline = System.nanoTime() + timeoutNanos;
+            int counter = 0;
+            while (!condition.getAsBoolean()) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (timeoutNanos != Long.MAX_VALUE && System.nanoTime() - deadline >= 0) {
+                    return false;
+                }
+                if (yield && counter >= SPIN_TRIES) {
+                    Thread.yield();
+                }
+                else {
+                    counter++;
+                    Thread.onSpinWait();
+                }
+            }
+            return true;
+        }
+
+
+        @Override
+        public void signal() {
+            // consumers are spinning
+        }
+    }
+}
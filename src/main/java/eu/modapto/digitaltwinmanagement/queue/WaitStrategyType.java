@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+/**
+ * Available {@link WaitStrategy} implementations.
+ */
+public enum WaitStrategyType {
+    /**
+     * Consumers are parked until an event is added. Lowest CPU usage.
+     */
+    BLOCKING,
+    /**
+     * Consumers spin briefly and then yield the CPU while waiting.
+     */
+    YIELDING,
+    /**
+     * Consumers spin while waiting. Lowest latency, but fully occupies one core per consumer.
+     */
+    BUSY_SPIN
+}
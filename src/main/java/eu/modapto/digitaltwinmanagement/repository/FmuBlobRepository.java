@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.repository;
+
+import eu.modapto.digitaltwinmanagement.model.FmuBlob;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+
+public interface FmuBlobRepository extends JpaRepository<FmuBlob, String> {
+
+    /**
+     * Updates the time an FMU has last been stored.
+     *
+     * @param hash the hash of the FMU
+     * @param storedAt the time the FMU has been stored
+     * @return number of updated FMUs, i.e. 0 if the FMU does not exist
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update FmuBlob b set b.storedAt = :storedAt where b.hash = :hash")
+    int markStored(@Param("hash") String hash, @Param("storedAt") Instant storedAt);
+
+
+    /**
+     * Deletes all FMUs that are no longer referenced by any smart service and have not been stored since the given
+     * time. FMUs without a timestamp, i.e. stored by previous versions, are always considered.
+     *
+     * @param storedBefore only FMUs stored before this time are deleted
+     * @return number of deleted FMUs
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from FmuBlob b where (b.storedAt is null or b.storedAt < :storedBefore) "
+            + "and not exists (select s from EmbeddedSmartService s where s.fmuBlob = b)")
+    int deleteUnreferenced(@Param("storedBefore") Instant storedBefore);
+}
@@ -14,33 +14,65 @@
  */
 package eu.modapto.digitaltwinmanagement.repository;
 
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import eu.modapto.digitaltwinmanagement.messagebus.OperationFilter;
 import eu.modapto.digitaltwinmanagement.model.Module;
+import eu.modapto.digitaltwinmanagement.model.SmartService;
 import jakarta.annotation.PostConstruct;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
+/**
+ * Holds all deployed modules in memory. Additionally maintains an index from module ID and operation reference to the
+ * smart service implemented by that operation, which is updated whenever a module is (re-)subscribed or unsubscribed.
+ */
 @Component
 public class LiveModuleRepository {
     private final ModuleRepository moduleRepository;
+    private final TransactionTemplate transactionTemplate;
     private final Map<String, Module> modules;
+    private final Map<String, Map<String, SmartService>> servicesByOperation;
 
     @Autowired
-    public LiveModuleRepository(ModuleRepository moduleRepository) {
+    public LiveModuleRepository(ModuleRepository moduleRepository, TransactionTemplate transactionTemplate) {
         this.moduleRepository = moduleRepository;
-        modules = Collections.synchronizedMap(new HashMap<>());
+        this.transactionTemplate = transactionTemplate;
+        modules = new ConcurrentHashMap<>();
+        servicesByOperation = new ConcurrentHashMap<>();
     }
 
 
     @PostConstruct
     public void init() {
-        modules.putAll(moduleRepository.findAll().stream().collect(Collectors.toMap(Module::getId, x -> x)));
+        moduleRepository.findAll().forEach(this::subscribe);
+    }
+
+
+    /**
+     * Loads a module including its lazily fetched models and asset connections. Modules held by this repository
+     * only contain the lightweight columns as they are loaded outside of a transaction.
+     *
+     * @param id the id of the module
+     * @return the fully initialized module if present, otherwise empty
+     */
+    public Optional<Module> loadWithModels(String id) {
+        return transactionTemplate.execute(status -> moduleRepository.findById(id)
+                .map(x -> {
+                    x.getProvidedModel();
+                    x.getActualModel();
+                    x.getAssetConnections();
+                    return x;
+                }));
     }
 
 
@@ -59,18 +91,42 @@ public class LiveModuleRepository {
     }
 
 
+    /**
+     * Finds the smart service of a module that is implemented by the operation with the given reference.
+     *
+     * @param moduleId the id of the module
+     * @param operation reference to the operation
+     * @return the smart service if present, otherwise empty
+     */
+    public Optional<SmartService> findServiceByOperation(String moduleId, Reference operation) {
+        Map<String, SmartService> services = servicesByOperation.get(moduleId);
+        if (Objects.isNull(services) || Objects.isNull(operation)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(services.get(OperationFilter.key(operation)))
+                .filter(x -> ReferenceHelper.equals(operation, x.getReference()));
+    }
+
+
     public void subscribe(Module module) {
+        Map<String, SmartService> services = new HashMap<>();
+        for (SmartService service: module.getServices()) {
+            if (Objects.nonNull(service.getReference())) {
+                services.putIfAbsent(OperationFilter.key(service.getReference()), service);
+            }
+        }
         modules.put(module.getId(), module);
+        servicesByOperation.put(module.getId(), Map.copyOf(services));
     }
 
 
     public void unsubscribe(Module module) {
+        servicesByOperation.remove(module.getId());
         modules.remove(module.getId());
     }
 
 
     public void update(Module module) {
-        moduleRepository.save(module);
-        subscribe(module);
+        subscribe(moduleRepository.save(module));
     }
 }
@@ -16,6 +16,7 @@ package eu.modapto.digitaltwinmanagement.repository;
 
 import eu.modapto.digitaltwinmanagement.model.Module;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 
-public interface ModuleRepository extends JpaRepository<Module, String> {}
+public interface ModuleRepository extends JpaRepository<Module, String>, JpaSpecificationExecutor<Module> {}
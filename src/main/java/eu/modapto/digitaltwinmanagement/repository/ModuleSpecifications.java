@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.repository;
+
+import eu.modapto.digitaltwinmanagement.deployment.DeploymentType;
+import eu.modapto.digitaltwinmanagement.model.Module;
+import java.util.Objects;
+import org.springframework.data.jpa.domain.Specification;
+
+
+/**
+ * Filter criteria for querying modules. Criteria with a null argument do not restrict the result.
+ */
+public class ModuleSpecifications {
+
+    private ModuleSpecifications() {}
+
+
+    public static Specification<Module> idGreaterThan(String id) {
+        return (root, query, cb) -> Objects.isNull(id) ? null : cb.greaterThan(root.get("id"), id);
+    }
+
+
+    public static Specification<Module> nameStartsWith(String name) {
+        return (root, query, cb) -> Objects.isNull(name) ? null : cb.like(root.get("name"), escapeLike(name) + "%", '\\');
+    }
+
+
+    public static Specification<Module> hasType(DeploymentType type) {
+        return (root, query, cb) -> Objects.isNull(type) ? null : cb.equal(root.get("type"), type);
+    }
+
+
+    static String escapeLike(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
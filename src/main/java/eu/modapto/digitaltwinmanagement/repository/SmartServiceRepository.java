@@ -15,7 +15,28 @@
 package eu.modapto.digitaltwinmanagement.repository;
 
 import eu.modapto.digitaltwinmanagement.model.SmartService;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
 
-public interface SmartServiceRepository extends JpaRepository<SmartService, String> {}
+public interface SmartServiceRepository extends JpaRepository<SmartService, String>, JpaSpecificationExecutor<SmartService> {
+
+    /**
+     * Finds the ids of all embedded smart services whose FMU is still stored inline in the smart service table.
+     *
+     * @return ids of embedded smart services not yet migrated to {@link eu.modapto.digitaltwinmanagement.model.FmuBlob}
+     */
+    @Query("select s.id from EmbeddedSmartService s where s.legacyFmu is not null")
+    List<String> findIdsWithLegacyFmu();
+
+
+    /**
+     * Finds the ids of all smart services whose parameters have not been indexed yet.
+     *
+     * @return ids of smart services stored before the parameter index was introduced
+     */
+    @Query("select s.id from SmartService s where s.parameterIndexed = false")
+    List<String> findIdsWithoutParameterIndex();
+}
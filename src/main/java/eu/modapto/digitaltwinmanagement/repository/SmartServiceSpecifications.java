@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.repository;
+
+import eu.modapto.digitaltwinmanagement.exception.BadRequestException;
+import eu.modapto.digitaltwinmanagement.model.EmbeddedSmartService;
+import eu.modapto.digitaltwinmanagement.model.ExternalSmartService;
+import eu.modapto.digitaltwinmanagement.model.InternalSmartService;
+import eu.modapto.digitaltwinmanagement.model.OperationParameter;
+import eu.modapto.digitaltwinmanagement.model.ParameterDirection;
+import eu.modapto.digitaltwinmanagement.model.SmartService;
+import eu.modapto.digitaltwinmanagement.model.request.SmartServiceFilter;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Subquery;
+import java.util.Objects;
+import org.springframework.data.jpa.domain.Specification;
+
+
+/**
+ * Filter criteria for querying smart services. Criteria with a null argument do not restrict the result.
+ */
+public class SmartServiceSpecifications {
+
+    private SmartServiceSpecifications() {}
+
+
+    /**
+     * Combines all criteria of a filter.
+     *
+     * @param filter the filter
+     * @return the specification
+     * @throws BadRequestException if the type of the filter is unknown
+     */
+    public static Specification<SmartService> matches(SmartServiceFilter filter) {
+        return Specification.allOf(
+                belongsToModule(filter.getModuleId()),
+                nameStartsWith(filter.getName()),
+                hasServiceCatalogId(filter.getServiceCatalogId()),
+                hasType(filter.getType()),
+                hasParameter(ParameterDirection.INPUT, filter.getInputParam()),
+                hasParameter(ParameterDirection.OUTPUT, filter.getOutputParam()),
+                hasParameterWithSemanticId(filter.getParameterSemanticId()),
+                hasParameterWithValueType(filter.getParameterValueType()));
+    }
+
+
+    public static Specification<SmartService> idGreaterThan(String id) {
+        return (root, query, cb) -> Objects.isNull(id) ? null : cb.greaterThan(root.get("id"), id);
+    }
+
+
+    public static Specification<SmartService> nameStartsWith(String name) {
+        return (root, query, cb) -> Objects.isNull(name) ? null : cb.like(root.get("name"), ModuleSpecifications.escapeLike(name) + "%", '\\');
+    }
+
+
+    public static Specification<SmartService> hasServiceCatalogId(String serviceCatalogId) {
+        return (root, query, cb) -> Objects.isNull(serviceCatalogId) ? null : cb.equal(root.get("serviceCatalogId"), serviceCatalogId);
+    }
+
+
+    public static Specification<SmartService> belongsToModule(String moduleId) {
+        return (root, query, cb) -> Objects.isNull(moduleId) ? null : cb.equal(root.get("module").get("id"), moduleId);
+    }
+
+
+    /**
+     * Filters by type of smart service.
+     *
+     * @param type the type as used in the JSON representation, i.e., one of 'embedded', 'internal', 'external'
+     * @return the specification
+     * @throws BadRequestException if type is unknown
+     */
+    public static Specification<SmartService> hasType(String type) {
+        if (Objects.isNull(type)) {
+            return (root, query, cb) -> null;
+        }
+        Class<? extends SmartService> typeClass = switch (type.toLowerCase()) {
+            case "embedded" -> EmbeddedSmartService.class;
+            case "internal" -> InternalSmartService.class;
+            case "external" -> ExternalSmartService.class;
+            default -> throw new BadRequestException(String.format("unknown smart service type (type: %s)", type));
+        };
+        return (root, query, cb) -> cb.equal(root.type(), typeClass);
+    }
+
+
+    /**
+     * Filters smart services having a parameter with the given idShort in the given direction. Uses the parameter index
+     * and does not require deserializing the parameter definitions.
+     *
+     * @param direction the direction of the parameter
+     * @param idShort the idShort of the parameter
+     * @return the specification
+     */
+    public static Specification<SmartService> hasParameter(ParameterDirection direction, String idShort) {
+        return (root, query, cb) -> {
+            if (Objects.isNull(idShort)) {
+                return null;
+            }
+            Subquery<Integer> subquery = query.subquery(Integer.class);
+            Join<SmartService, OperationParameter> parameter = subquery.correlate(root).join("parameterIndex");
+            return cb.exists(subquery.select(cb.literal(1)).where(
+                    cb.equal(parameter.get("direction"), direction),
+                    cb.equal(parameter.get("idShort"), idShort)));
+        };
+    }
+
+
+    /**
+     * Filters smart services having an input or output parameter with the given semantic ID.
+     *
+     * @param semanticId the value of the last key of the semantic ID
+     * @return the specification
+     */
+    public static Specification<SmartService> hasParameterWithSemanticId(String semanticId) {
+        return hasParameterWith("semanticId", semanticId);
+    }
+
+
+    /**
+     * Filters smart services having an input or output parameter of the given value type.
+     *
+     * @param valueType the value type, e.g. 'DOUBLE' or 'STRING' (case insensitive)
+     * @return the specification
+     */
+    public static Specification<SmartService> hasParameterWithValueType(String valueType) {
+        return hasParameterWith("valueType", Objects.isNull(valueType) ? null : valueType.toUpperCase());
+    }
+
+
+    private static Specification<SmartService> hasParameterWith(String attribute, String value) {
+        return (root, query, cb) -> {
+            if (Objects.isNull(value)) {
+                return null;
+            }
+            Subquery<Integer> subquery = query.subquery(Integer.class);
+            Join<SmartService, OperationParameter> parameter = subquery.correlate(root).join("parameterIndex");
+            return cb.exists(subquery.select(cb.literal(1)).where(cb.equal(parameter.get(attribute), value)));
+        };
+    }
+
+
+    /**
+     * Fetches the module of each smart service within the same query.
+     *
+     * @return the specification
+     */
+    public static Specification<SmartService> fetchModule() {
+        return (root, query, cb) -> {
+            root.fetch("module", JoinType.LEFT);
+            return null;
+        };
+    }
+}
@@ -14,7 +14,10 @@
  */
 package eu.modapto.digitaltwinmanagement.serialization;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.StreamReadConstraints;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
@@ -26,7 +29,16 @@ import java.io.IOException;
 import java.util.Map;
 
 
+/**
+ * Serializes element values using the valueOnly format. JSON output is embedded as raw value. Binary formats like Smile
+ * or CBOR do not support raw values, therefore the valueOnly JSON is streamed into the generator token by token.
+ */
 public class ElementValueMapSerializer extends JsonSerializer<Map<String, ElementValue>> {
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .streamReadConstraints(StreamReadConstraints.builder()
+                    .maxStringLength(Integer.MAX_VALUE)
+                    .build())
+            .build();
     private final ValueOnlyJsonSerializer serializer;
 
     public ElementValueMapSerializer() {
@@ -37,7 +49,15 @@ public class ElementValueMapSerializer extends JsonSerializer<Map<String, Elemen
     @Override
     public void serialize(Map<String, ElementValue> data, JsonGenerator generator, SerializerProvider serializers) throws IOException {
         try {
-            generator.writeRawValue(serializer.write(data));
+            String json = serializer.write(data);
+            if (!generator.canWriteBinaryNatively()) {
+                generator.writeRawValue(json);
+                return;
+            }
+            try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+                parser.nextToken();
+                generator.copyCurrentStructure(parser);
+            }
         }
         catch (SerializationException | UnsupportedContentModifierException e) {
             throw new JsonMappingException(generator, String.format("Failed to serialize List<SubmodelElement> as valueOnly (reason: %s)", e.getMessage()), e);
@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.service;
+
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.exception.ResourceNotFoundException;
+import eu.modapto.digitaltwinmanagement.model.EmbeddedSmartService;
+import eu.modapto.digitaltwinmanagement.model.FmuBlob;
+import eu.modapto.digitaltwinmanagement.repository.FmuBlobRepository;
+import eu.modapto.digitaltwinmanagement.repository.SmartServiceRepository;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+/**
+ * Manages FMU content of embedded smart services. FMUs are stored deduplicated by content hash in {@link FmuBlob}. To
+ * deploy FMUs they are streamed into a local cache directory ({@code dt-management.fmu.cache.directory}), again named
+ * by content hash.
+ */
+@Service
+public class FmuService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FmuService.class);
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final String FILE_EXTENSION = ".fmu";
+
+    private final FmuBlobRepository fmuBlobRepository;
+    private final SmartServiceRepository smartServiceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate insertTransactionTemplate;
+    private final Path cacheDirectory;
+    private final Duration gracePeriod;
+
+    @Autowired
+    public FmuService(
+            FmuBlobRepository fmuBlobRepository,
+            SmartServiceRepository smartServiceRepository,
+            TransactionTemplate transactionTemplate,
+            DigitalTwinManagementConfig config) {
+        this.fmuBlobRepository = fmuBlobRepository;
+        this.smartServiceRepository = smartServiceRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.insertTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.insertTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cacheDirectory = Path.of(config.getFmuCacheDirectory());
+        this.gracePeriod = Duration.ofMillis(config.getFmuGracePeriod());
+    }
+
+
+    /**
+     * Stores the FMU provided with the service (if any) and links the service to it. If an FMU with the same content
+     * already exists it is reused.
+     *
+     * @param service the service
+     */
+    @Transactional
+    public void attach(EmbeddedSmartService service) {
+        byte[] content = service.getFmu();
+        if (Objects.isNull(content)) {
+            return;
+        }
+        service.setFmuBlob(store(content));
+        service.setLegacyFmu(null);
+    }
+
+
+    /**
+     * Stores an FMU if no FMU with the same content exists yet. New FMUs are inserted in a separate transaction so that
+     * concurrent uploads of the same FMU do not fail on the primary key; the loser re-reads the row stored by the
+     * winner. As the reference to the FMU is only committed with the calling transaction, the time the FMU has been
+     * stored is updated in the same separate transaction, which protects it from {@link #deleteUnreferenced()} for the
+     * configured grace period. FMUs stored for a transaction that is rolled back afterwards are removed once the grace
+     * period has passed.
+     *
+     * @param content the FMU content
+     * @return the stored FMU
+     */
+    @Transactional
+    public FmuBlob store(byte[] content) {
+        String hash = hash(content);
+        Instant now = Instant.now();
+        try {
+            insertTransactionTemplate.executeWithoutResult(status -> {
+                if (fmuBlobRepository.markStored(hash, now) > 0) {
+                    return;
+                }
+                LOGGER.debug("storing new FMU (hash: {}, size: {})", hash, content.length);
+                fmuBlobRepository.saveAndFlush(FmuBlob.builder()
+                        .hash(hash)
+                        .size(content.length)
+                        .storedAt(now)
+                        .content(BlobProxy.generateProxy(content))
+                        .build());
+            });
+        }
+        catch (DataIntegrityViolationException e) {
+            LOGGER.debug("FMU has been stored concurrently (hash: {})", hash);
+        }
+        return fmuBlobRepository.findById(hash)
+                .orElseThrow(() -> new IllegalStateException(String.format("FMU not found after storing it (hash: %s)", hash)));
+    }
+
+
+    /**
+     * Gets a local file containing the FMU of an embedded smart service. FMUs stored in the database are streamed into
+     * the cache directory once and reused as long as the file exists and has the expected size, so they are never fully
+     * read into memory.
+     *
+     * @param service the service
+     * @return path to the FMU file
+     * @throws IOException if writing the file fails
+     * @throws ResourceNotFoundException if the service does not have an FMU
+     */
+    @Transactional(readOnly = true)
+    public Path getFile(EmbeddedSmartService service) throws IOException {
+        if (Objects.nonNull(service.getFmuBlob())) {
+            FmuBlob blob = service.getFmuBlob();
+            Path result = cacheDirectory.resolve(blob.getHash() + FILE_EXTENSION);
+            if (!isCached(result, blob.getSize())) {
+                try (InputStream in = blob.openStream()) {
+                    writeAtomically(in, result);
+                }
+            }
+            return result;
+        }
+        byte[] content = service.getFmu();
+        if (Objects.isNull(content)) {
+            throw new ResourceNotFoundException(String.format("Smart service does not have an FMU (id: %s)", service.getId()));
+        }
+        Path result = cacheDirectory.resolve(hash(content) + FILE_EXTENSION);
+        if (!isCached(result, content.length)) {
+            writeAtomically(new ByteArrayInputStream(content), result);
+        }
+        return result;
+    }
+
+
+    private static boolean isCached(Path file, long size) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        if (Files.size(file) == size) {
+            return true;
+        }
+        LOGGER.debug("cached FMU file has unexpected size, replacing it (file: {}, expected size: {})", file, size);
+        return false;
+    }
+
+
+    private static void writeAtomically(InputStream in, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+
+    /**
+     * Streams the FMU of an embedded smart service to the given output stream without materializing it in memory.
+     *
+     * @param serviceId the id of the service
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     * @throws ResourceNotFoundException if no embedded smart service with given id exists or it does not have an FMU
+     */
+    @Transactional(readOnly = true)
+    public void copyFmu(String serviceId, OutputStream out) throws IOException {
+        EmbeddedSmartService service = smartServiceRepository.findById(serviceId)
+                .filter(EmbeddedSmartService.class::isInstance)
+                .map(EmbeddedSmartService.class::cast)
+                .orElseThrow(() -> new ResourceNotFoundException(String.format("Embedded smart service not found (id: %s)", serviceId)));
+        if (Objects.nonNull(service.getFmuBlob())) {
+            try (InputStream in = service.getFmuBlob().openStream()) {
+                in.transferTo(out);
+            }
+        }
+        else if (Objects.nonNull(service.getLegacyFmu())) {
+            out.write(service.getLegacyFmu());
+        }
+        else {
+            throw new ResourceNotFoundException(String.format("Smart service does not have an FMU (id: %s)", serviceId));
+        }
+    }
+
+
+    /**
+     * Deletes all FMUs not referenced by any smart service anymore, including their cached files. FMUs stored within
+     * the grace period are kept.
+     */
+    @Transactional
+    public void deleteUnreferenced() {
+        int deleted = fmuBlobRepository.deleteUnreferenced(Instant.now().minus(gracePeriod));
+        if (deleted > 0) {
+            LOGGER.debug("deleted unreferenced FMUs (count: {})", deleted);
+            deleteUnreferencedFiles();
+        }
+    }
+
+
+    private void deleteUnreferencedFiles() {
+        if (!Files.isDirectory(cacheDirectory)) {
+            return;
+        }
+        try (var files = Files.list(cacheDirectory)) {
+            for (Path file: files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(FILE_EXTENSION) && !fmuBlobRepository.existsById(name.substring(0, name.length() - FILE_EXTENSION.length()))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        catch (IOException e) {
+            LOGGER.debug("failed to delete cached FMU files (reason: {})", e.getMessage(), e);
+        }
+    }
+
+
+    /**
+     * Moves FMUs stored inline by previous versions to {@link FmuBlob}. Each service is migrated in its own transaction
+     * so that the application stays available while the migration is running.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyFmus() {
+        List<String> ids = smartServiceRepository.findIdsWithLegacyFmu();
+        if (ids.isEmpty()) {
+            return;
+        }
+        LOGGER.info("migrating FMUs to deduplicated storage (count: {})", ids.size());
+        for (String id: ids) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> smartServiceRepository.findById(id)
+                        .filter(EmbeddedSmartService.class::isInstance)
+                        .map(EmbeddedSmartService.class::cast)
+                        .filter(x -> Objects.nonNull(x.getLegacyFmu()))
+                        .ifPresent(x -> {
+                            x.setFmuBlob(store(x.getLegacyFmu()));
+                            x.setLegacyFmu(null);
+                        }));
+            }
+            catch (Exception e) {
+                LOGGER.warn("failed to migrate FMU (serviceId: {}, reason: {})", id, e.getMessage(), e);
+            }
+        }
+        LOGGER.info("FMU migration finished");
+    }
+
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance(HASH_ALGORITHM).digest(content));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(String.format("hash algorithm not available (algorithm: %s)", HASH_ALGORITHM), e);
+        }
+    }
+}
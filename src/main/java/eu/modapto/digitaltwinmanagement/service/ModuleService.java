@@ -15,9 +15,12 @@
 package eu.modapto.digitaltwinmanagement.service;
 
 import de.fraunhofer.iosb.ilt.faaast.service.util.StringHelper;
+import eu.modapto.digitaltwinmanagement.deployment.DeploymentType;
 import eu.modapto.digitaltwinmanagement.deployment.DigitalTwinManager;
 import eu.modapto.digitaltwinmanagement.exception.BadRequestException;
 import eu.modapto.digitaltwinmanagement.exception.ResourceNotFoundException;
+import eu.modapto.digitaltwinmanagement.messagebus.EventOutbox;
+import eu.modapto.digitaltwinmanagement.messagebus.InvocationTracker;
 import eu.modapto.digitaltwinmanagement.messagebus.KafkaBridge;
 import eu.modapto.digitaltwinmanagement.model.Module;
 import eu.modapto.digitaltwinmanagement.model.event.ModuleCreatedEvent;
@@ -25,8 +28,11 @@ import eu.modapto.digitaltwinmanagement.model.event.ModuleDeletedEvent;
 import eu.modapto.digitaltwinmanagement.model.event.ModuleUpdatedEvent;
 import eu.modapto.digitaltwinmanagement.model.event.payload.ModuleDetailsPayload;
 import eu.modapto.digitaltwinmanagement.repository.ModuleRepository;
+import eu.modapto.digitaltwinmanagement.repository.ModuleSpecifications;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,12 +44,23 @@ public class ModuleService {
     private static final String ERROR_MSG_MODULE_NOT_FOUND = "module not found";
     private final DigitalTwinManager dtManager;
     private final ModuleRepository moduleRepository;
+    private final EventOutbox eventOutbox;
+    private final FmuService fmuService;
+    private final InvocationTracker invocationTracker;
     private final KafkaBridge kafkaBridge;
 
     @Autowired
-    public ModuleService(DigitalTwinManager dtManager, ModuleRepository moduleRepository, KafkaBridge kafkaBridge) {
+    public ModuleService(DigitalTwinManager dtManager,
+            ModuleRepository moduleRepository,
+            EventOutbox eventOutbox,
+            FmuService fmuService,
+            InvocationTracker invocationTracker,
+            KafkaBridge kafkaBridge) {
         this.dtManager = dtManager;
         this.moduleRepository = moduleRepository;
+        this.eventOutbox = eventOutbox;
+        this.fmuService = fmuService;
+        this.invocationTracker = invocationTracker;
         this.kafkaBridge = kafkaBridge;
     }
 
@@ -63,20 +80,15 @@ public class ModuleService {
     public Module createModule(Module module) throws Exception {
         setModuleNameIfNotPresent(module);
         Module result = moduleRepository.save(module);
-        dtManager.deploy(module);
-        kafkaBridge.publish(ModuleCreatedEvent.builder()
+        dtManager.deploy(result);
+        eventOutbox.publish(ModuleCreatedEvent.builder()
                 .payload(ModuleDetailsPayload.builder()
-                        .moduleId(module.getId())
-                        .name(module.getName())
-                        .endpoint(module.getExternalEndpoint())
+                        .moduleId(result.getId())
+                        .name(result.getName())
+                        .endpoint(result.getExternalEndpoint())
                         .build())
                 .build());
-        return moduleRepository.save(result);
-    }
-
-
-    public List<Module> getAllModules() {
-        return moduleRepository.findAll();
+        return result;
     }
 
 
@@ -90,14 +102,14 @@ public class ModuleService {
         module.setType(newModule.getType());
         module.setAssetConnections(newModule.getAssetConnections());
         dtManager.update(module);
-        kafkaBridge.publish(ModuleUpdatedEvent.builder()
+        eventOutbox.publish(ModuleUpdatedEvent.builder()
                 .payload(ModuleDetailsPayload.builder()
                         .moduleId(module.getId())
                         .name(newModule.getName())
                         .endpoint(module.getExternalEndpoint())
                         .build())
                 .build());
-        return moduleRepository.save(module);
+        return initializeServices(module);
     }
 
 
@@ -109,14 +121,66 @@ public class ModuleService {
             x.setModule(null);
         });
         moduleRepository.delete(module);
-        kafkaBridge.publish(ModuleDeletedEvent.builder()
+        fmuService.deleteUnreferenced();
+        invocationTracker.removeModule(moduleId);
+        eventOutbox.publish(ModuleDeletedEvent.builder()
                 .moduleId(moduleId)
                 .build());
+        kafkaBridge.removeModule(moduleId);
     }
 
 
+    /**
+     * Gets a page of modules ordered by id.
+     *
+     * @param name if present, only modules whose name starts with this value are returned
+     * @param type if present, only modules of this deployment type are returned
+     * @param after if present, only modules with an id greater than this value are returned
+     * @param limit maximum number of modules to return
+     * @param includeServices whether to load the smart services of the modules including their parameters
+     * @return the modules
+     */
+    @Transactional(readOnly = true)
+    public List<Module> getModules(String name, DeploymentType type, String after, int limit, boolean includeServices) {
+        List<Module> result = moduleRepository.findBy(
+                Specification.allOf(
+                        ModuleSpecifications.idGreaterThan(after),
+                        ModuleSpecifications.nameStartsWith(name),
+                        ModuleSpecifications.hasType(type)),
+                x -> x.sortBy(Sort.by("id")).limit(limit).all());
+        if (includeServices) {
+            result.forEach(ModuleService::initializeServices);
+        }
+        return result;
+    }
+
+
+    @Transactional(readOnly = true)
     public Module getModuleById(String moduleId) {
-        return moduleRepository.findById(moduleId)
+        return initializeServices(moduleRepository.findById(moduleId)
+                .orElseThrow(() -> new ResourceNotFoundException(ERROR_MSG_MODULE_NOT_FOUND)));
+    }
+
+
+    /**
+     * Gets a module including its provided and actual model.
+     *
+     * @param moduleId the id of the module
+     * @return the module
+     * @throws ResourceNotFoundException if no module with given id exists
+     */
+    @Transactional(readOnly = true)
+    public Module getModuleWithModels(String moduleId) {
+        Module result = moduleRepository.findById(moduleId)
                 .orElseThrow(() -> new ResourceNotFoundException(ERROR_MSG_MODULE_NOT_FOUND));
+        result.getProvidedModel();
+        result.getActualModel();
+        return result;
+    }
+
+
+    private static Module initializeServices(Module module) {
+        module.getServices().forEach(x -> SmartServiceService.initialize(x, true));
+        return module;
     }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.service;
+
+import eu.modapto.digitaltwinmanagement.model.SmartService;
+import eu.modapto.digitaltwinmanagement.repository.SmartServiceRepository;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+/**
+ * Maintains the parameter index of smart services (see {@link SmartService#getParameterIndex()}). The index itself is
+ * updated by the entity whenever its parameters change, this service only builds it for services stored by previous
+ * versions.
+ */
+@Service
+public class ParameterIndexService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParameterIndexService.class);
+
+    private final SmartServiceRepository smartServiceRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public ParameterIndexService(SmartServiceRepository smartServiceRepository, TransactionTemplate transactionTemplate) {
+        this.smartServiceRepository = smartServiceRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+
+    /**
+     * Builds the parameter index for all services that do not have one yet. Each service is indexed in its own
+     * transaction so that the application stays available while the migration is running.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexLegacyServices() {
+        List<String> ids = smartServiceRepository.findIdsWithoutParameterIndex();
+        if (ids.isEmpty()) {
+            return;
+        }
+        LOGGER.info("building parameter index for smart services (count: {})", ids.size());
+        for (String id: ids) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> smartServiceRepository.findById(id)
+                        .ifPresent(SmartService::updateParameterIndex));
+            }
+            catch (Exception e) {
+                LOGGER.warn("failed to build parameter index (serviceId: {}, reason: {})", id, e.getMessage(), e);
+            }
+        }
+        LOGGER.info("parameter index built");
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.service;
+
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.SerializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.json.ValueOnlyJsonSerializer;
+import de.fraunhofer.iosb.ilt.faaast.service.model.exception.UnsupportedContentModifierException;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.exception.ResourceNotFoundException;
+import eu.modapto.digitaltwinmanagement.model.event.payload.ResultReference;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+
+/**
+ * Local blob store for smart service results that are too large to be published as part of an event (claim check).
+ * Used for the last output arguments of summary events if aggregation is enabled, i.e. results are serialized at most
+ * once per aggregation window and smart service. Results whose valueOnly JSON exceeds
+ * {@code dt-management.events.claim-check.threshold} characters are written to
+ * {@code dt-management.events.claim-check.directory}, the event only carries a {@link ResultReference}. Stored results
+ * can be streamed via {@code GET /results/{resultId}} and are deleted after
+ * {@code dt-management.events.claim-check.retention}.
+ */
+@Service
+public class ResultService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultService.class);
+    private static final String FILE_EXTENSION = ".json";
+    private static final String HREF_PREFIX = "/results/";
+    private static final long CLEANUP_INTERVAL_MAX = TimeUnit.HOURS.toMillis(1);
+    private final DigitalTwinManagementConfig config;
+    private final ValueOnlyJsonSerializer serializer = new ValueOnlyJsonSerializer();
+    private Path directory;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ResultService(DigitalTwinManagementConfig config) {
+        this.config = config;
+    }
+
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!config.isClaimCheckEnabled()) {
+            return;
+        }
+        directory = Path.of(config.getClaimCheckDirectory());
+        Files.createDirectories(directory);
+        long interval = Math.max(1000, Math.min(config.getClaimCheckRetention() / 10, CLEANUP_INTERVAL_MAX));
+        scheduler = Executors.newSingleThreadScheduledExecutor(x -> {
+            Thread result = new Thread(x, "result-cleanup");
+            result.setDaemon(true);
+            return result;
+        });
+        scheduler.scheduleWithFixedDelay(this::deleteExpired, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+
+    @PreDestroy
+    public void tearDown() {
+        if (Objects.nonNull(scheduler)) {
+            scheduler.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Stores the output arguments of a smart service invocation if they exceed the configured threshold.
+     *
+     * @param arguments the output arguments
+     * @return reference to the stored result, or null if the result is small enough to be kept in the event or
+     *         offloading is disabled
+     */
+    public ResultReference offload(Map<String, ElementValue> arguments) {
+        if (!config.isClaimCheckEnabled() || Objects.isNull(arguments) || arguments.isEmpty()) {
+            return null;
+        }
+        String json;
+        try {
+            json = serializer.write(arguments);
+        }
+        catch (SerializationException | UnsupportedContentModifierException e) {
+            LOGGER.warn("failed to serialize smart service result (reason: {})", e.getMessage(), e);
+            return null;
+        }
+        if (json.length() <= config.getClaimCheckThreshold()) {
+            return null;
+        }
+        String id = UUID.randomUUID().toString();
+        Path file = directory.resolve(id + FILE_EXTENSION);
+        try {
+            Path temp = Files.createTempFile(directory, id, ".tmp");
+            byte[] content = json.getBytes(StandardCharsets.UTF_8);
+            Files.write(temp, content);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            Map<String, String> types = new LinkedHashMap<>();
+            arguments.forEach((name, value) -> types.put(name, Objects.nonNull(value) ? value.getClass().getSimpleName() : null));
+            ResultReference result = ResultReference.builder()
+                    .id(id)
+                    .href(HREF_PREFIX + id)
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .size(content.length)
+                    .arguments(types)
+                    .build();
+            LOGGER.debug("smart service result offloaded (id: {}, size: {})", id, result.getSize());
+            return result;
+        }
+        catch (IOException e) {
+            LOGGER.warn("failed to store smart service result (id: {}, reason: {})", id, e.getMessage(), e);
+            return null;
+        }
+    }
+
+
+    /**
+     * Opens a stored result for reading. Size and content must be read from the returned channel, as the result may be
+     * deleted by the retention cleanup at any time once the channel is closed.
+     *
+     * @param resultId the ID of the result
+     * @return channel to read the result from, must be closed by the caller
+     * @throws IOException if opening the result fails
+     * @throws ResourceNotFoundException if there is no result with the given ID, e.g. because it has expired
+     */
+    public FileChannel openResult(String resultId) throws IOException {
+        try {
+            return FileChannel.open(resolve(resultId));
+        }
+        catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException(String.format("Result not found (id: %s)", resultId));
+        }
+    }
+
+
+    /**
+     * Streams a stored result.
+     *
+     * @param resultId the ID of the result
+     * @param out the stream to write to
+     * @throws IOException if reading the result fails
+     * @throws ResourceNotFoundException if there is no result with the given ID
+     */
+    public void copyResult(String resultId, OutputStream out) throws IOException {
+        try (FileChannel channel = openResult(resultId)) {
+            Channels.newInputStream(channel).transferTo(out);
+        }
+    }
+
+
+    private Path resolve(String resultId) {
+        if (Objects.isNull(directory)) {
+            throw new ResourceNotFoundException(String.format("Result not found (id: %s)", resultId));
+        }
+        try {
+            // parsing as UUID prevents path traversal
+            return directory.resolve(UUID.fromString(resultId) + FILE_EXTENSION);
+        }
+        catch (IllegalArgumentException e) {
+            throw new ResourceNotFoundException(String.format("Result not found (id: %s)", resultId));
+        }
+    }
+
+
+    void deleteExpired() {
+        Instant threshold = Instant.now().minusMillis(config.getClaimCheckRetention());
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file: files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(threshold) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            LOGGER.warn("failed to delete expired smart service results (reason: {})", e.getMessage(), e);
+        }
+        if (deleted > 0) {
+            LOGGER.debug("expired smart service results deleted (count: {})", deleted);
+        }
+    }
+}
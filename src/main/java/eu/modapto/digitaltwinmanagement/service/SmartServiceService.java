@@ -18,24 +18,31 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
 import eu.modapto.digitaltwinmanagement.deployment.DigitalTwinManager;
 import eu.modapto.digitaltwinmanagement.exception.ResourceNotFoundException;
-import eu.modapto.digitaltwinmanagement.messagebus.KafkaBridge;
+import eu.modapto.digitaltwinmanagement.messagebus.EventOutbox;
+import eu.modapto.digitaltwinmanagement.messagebus.InvocationTracker;
+import eu.modapto.digitaltwinmanagement.model.EmbeddedSmartService;
 import eu.modapto.digitaltwinmanagement.model.Module;
 import eu.modapto.digitaltwinmanagement.model.SmartService;
 import eu.modapto.digitaltwinmanagement.model.event.SmartServiceAssignedEvent;
 import eu.modapto.digitaltwinmanagement.model.event.SmartServiceUnassignedEvent;
 import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceAssignedPayload;
 import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceUnassignedPayload;
+import eu.modapto.digitaltwinmanagement.model.request.SmartServiceFilter;
 import eu.modapto.digitaltwinmanagement.model.request.SmartServiceRequestDto;
 import eu.modapto.digitaltwinmanagement.model.response.external.catalog.ServiceDetailsResponseDto;
 import eu.modapto.digitaltwinmanagement.repository.ModuleRepository;
 import eu.modapto.digitaltwinmanagement.repository.SmartServiceRepository;
+import eu.modapto.digitaltwinmanagement.repository.SmartServiceSpecifications;
 import eu.modapto.digitaltwinmanagement.util.IdHelper;
 import java.util.List;
 import java.util.Objects;
 import java.util.Random;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -58,7 +65,9 @@ public class SmartServiceService {
     private final ModuleRepository moduleRepository;
     private final ObjectMapper mapper;
     private final DigitalTwinManager dtManager;
-    private final KafkaBridge kafkaBridge;
+    private final EventOutbox eventOutbox;
+    private final FmuService fmuService;
+    private final InvocationTracker invocationTracker;
 
     @Autowired
     public SmartServiceService(DigitalTwinManagementConfig config,
@@ -66,24 +75,68 @@ public class SmartServiceService {
             ModuleRepository moduleRepository,
             ObjectMapper mapper,
             DigitalTwinManager dtManager,
-            KafkaBridge kafkaBridge) {
+            EventOutbox eventOutbox,
+            FmuService fmuService,
+            InvocationTracker invocationTracker) {
         this.config = config;
         this.smartServiceRepository = smartServiceRepository;
         this.moduleRepository = moduleRepository;
         this.mapper = mapper;
         this.dtManager = dtManager;
-        this.kafkaBridge = kafkaBridge;
+        this.eventOutbox = eventOutbox;
+        this.fmuService = fmuService;
+        this.invocationTracker = invocationTracker;
     }
 
 
-    public List<SmartService> getAllSmartServices() {
-        return smartServiceRepository.findAll();
+    /**
+     * Gets a page of smart services ordered by id.
+     *
+     * @param filter the criteria smart services must match
+     * @param after if present, only smart services with an id greater than this value are returned
+     * @param limit maximum number of smart services to return
+     * @param includeParameters whether to load the input and output parameters
+     * @return the smart services
+     * @throws ResourceNotFoundException if a moduleId is present but no such module exists
+     */
+    @Transactional(readOnly = true)
+    public List<SmartService> getSmartServices(SmartServiceFilter filter, String after, int limit, boolean includeParameters) {
+        if (Objects.nonNull(filter.getModuleId()) && !moduleRepository.existsById(filter.getModuleId())) {
+            throw new ResourceNotFoundException(String.format("Module not found (id: %s)", filter.getModuleId()));
+        }
+        List<SmartService> result = smartServiceRepository.findBy(
+                Specification.allOf(
+                        SmartServiceSpecifications.fetchModule(),
+                        SmartServiceSpecifications.idGreaterThan(after),
+                        SmartServiceSpecifications.matches(filter)),
+                x -> x.sortBy(Sort.by("id")).limit(limit).all());
+        result.forEach(x -> initialize(x, includeParameters));
+        return result;
     }
 
 
+    @Transactional(readOnly = true)
     public SmartService getSmartServiceById(String serviceId) {
-        return smartServiceRepository.findById(serviceId)
-                .orElseThrow(() -> new ResourceNotFoundException("SmartService not found"));
+        return initialize(smartServiceRepository.findById(serviceId)
+                .orElseThrow(() -> new ResourceNotFoundException("SmartService not found")), true);
+    }
+
+
+    /**
+     * Loads the lazily fetched state of a smart service needed to map it to a DTO after the transaction has ended.
+     *
+     * @param service the smart service
+     * @param includeParameters whether to load the input and output parameters
+     * @return the smart service
+     */
+    static SmartService initialize(SmartService service, boolean includeParameters) {
+        Hibernate.initialize(service.getInputArgumentTypes());
+        Hibernate.initialize(service.getOutputArgumentTypes());
+        if (includeParameters) {
+            Hibernate.initialize(service.getInputParameters());
+            Hibernate.initialize(service.getOutputParameters());
+        }
+        return service;
     }
 
 
@@ -111,13 +164,14 @@ public class SmartServiceService {
             service.setProperties(request.getProperties());
             applyRequestOverrides(service, request);
             service.setModule(module);
+            if (service instanceof EmbeddedSmartService embedded) {
+                fmuService.attach(embedded);
+            }
             smartServiceRepository.save(service);
             module.getServices().add(service);
             dtManager.update(module);
-            moduleRepository.save(module);
-            smartServiceRepository.save(service);
             fireServiceAssignedSuccess(service);
-            return module.getServiceById(service.getId());
+            return initialize(module.getServiceById(service.getId()), true);
         }
         catch (Exception e) {
             fireServiceAssignedFailed(moduleId, request);
@@ -149,8 +203,9 @@ public class SmartServiceService {
         try {
             service.getModule().getServices().removeIf(x -> Objects.equals(x.getId(), service.getId()));
             dtManager.update(service.getModule());
-            moduleRepository.save(service.getModule());
             smartServiceRepository.delete(service);
+            fmuService.deleteUnreferenced();
+            invocationTracker.removeService(service.getId());
             fireServiceUnassignedEvent(service, true);
         }
         catch (Exception e) {
@@ -180,14 +235,15 @@ public class SmartServiceService {
                                     response.getStatusCode(),
                                     new String(response.getBody().readAllBytes())));
                 });
-        result.setId(IdHelper.uuid());
+        result.setId(IdHelper.timeOrderedUuid());
         result.setServiceCatalogId(serviceCatalogId);
         return result;
     }
 
 
     private void fireServiceAssignedFailed(String moduleId, SmartServiceRequestDto service) {
-        kafkaBridge.publish(SmartServiceAssignedEvent.builder()
+        // the transaction of the failed assignment is rolled back, so the event must be stored independently
+        eventOutbox.publishIndependently(SmartServiceAssignedEvent.builder()
                 .moduleId(moduleId)
                 .payload(SmartServiceAssignedPayload.builder()
                         .name(service.getName())
@@ -199,7 +255,7 @@ public class SmartServiceService {
 
 
     private void fireServiceAssignedSuccess(SmartService service) {
-        kafkaBridge.publish(SmartServiceAssignedEvent.builder()
+        eventOutbox.publish(SmartServiceAssignedEvent.builder()
                 .moduleId(service.getModule().getId())
                 .payload(SmartServiceAssignedPayload.builder()
                         .serviceId(service.getId())
@@ -213,7 +269,7 @@ public class SmartServiceService {
 
 
     private void fireServiceUnassignedEvent(SmartService service, boolean success) {
-        kafkaBridge.publish(SmartServiceUnassignedEvent.builder()
+        SmartServiceUnassignedEvent event = SmartServiceUnassignedEvent.builder()
                 .moduleId(service.getModule().getId())
                 .payload(SmartServiceUnassignedPayload.builder()
                         .serviceId(service.getId())
@@ -222,7 +278,13 @@ public class SmartServiceService {
                         .endpoint(service.getExternalEndpoint())
                         .success(success)
                         .build())
-                .build());
+                .build();
+        if (success) {
+            eventOutbox.publish(event);
+        }
+        else {
+            eventOutbox.publishIndependently(event);
+        }
     }
 
 
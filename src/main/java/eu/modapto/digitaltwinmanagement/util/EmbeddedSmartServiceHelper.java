@@ -43,6 +43,7 @@ import eu.modapto.dt.faaast.service.smt.simulation.Constants;
 import eu.modapto.dt.faaast.service.smt.simulation.FmuHelper;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -91,10 +92,8 @@ public class EmbeddedSmartServiceHelper {
     private EmbeddedSmartServiceHelper() {}
 
 
-    private static void initializeOperation(Operation operation, EmbeddedSmartService service) {
-        try {
-            Fmu fmu = FmuHelper.loadFmu(service.getName(), service.getFmu());
-
+    private static void initializeOperation(Operation operation, EmbeddedSmartService service, Path fmuFile) {
+        try (Fmu fmu = Fmu.from(fmuFile.toFile())) {
             List<OperationVariable> inputVariables = new ArrayList<>(List.of(
                     ARG_CURRENT_TIME,
                     ARG_TIME_STEP,
@@ -135,13 +134,23 @@ public class EmbeddedSmartServiceHelper {
     }
 
 
-    public static void addSmartService(EnvironmentContext environmentContext, Submodel submodel, EmbeddedSmartService service, Operation operation) {
+    /**
+     * Adds an embedded smart service to the simulation submodel of an environment.
+     *
+     * @param environmentContext the environment
+     * @param submodel the simulation submodel
+     * @param service the service
+     * @param operation the operation implementing the service
+     * @param fmuFile local file containing the FMU of the service, it is referenced by the environment and only read
+     *            when the environment is serialized
+     */
+    public static void addSmartService(EnvironmentContext environmentContext, Submodel submodel, EmbeddedSmartService service, Operation operation, Path fmuFile) {
         if (!ReferenceHelper.equals(SEMANTIC_ID_SMT_SIMULATION, submodel.getSemanticId())) {
             submodel.setSemanticId(SEMANTIC_ID_SMT_SIMULATION);
         }
         SubmodelElementCollection smcSimulationModel = createSimulationModel(service);
         submodel.getSubmodelElements().add(smcSimulationModel);
-        environmentContext.getFiles().add(new InMemoryFile(service.getFmu(), getFmuFilename(service)));
+        environmentContext.getFiles().add(new FileBackedFile(fmuFile, getFmuFilename(service)));
 
         if (service.getInitialArguments().isPresent()) {
             smcSimulationModel.getValue().add(new DefaultFile.Builder()
@@ -155,7 +164,7 @@ public class EmbeddedSmartServiceHelper {
         if (submodel.getSubmodelElements().stream()
                 .filter(Operation.class::isInstance)
                 .noneMatch(x -> Objects.equals(operation.getIdShort(), x.getIdShort()))) {
-            initializeOperation(operation, service);
+            initializeOperation(operation, service, fmuFile);
             submodel.getSubmodelElements().add(operation);
         }
         linkOperationToFmu(submodel, operation, service);
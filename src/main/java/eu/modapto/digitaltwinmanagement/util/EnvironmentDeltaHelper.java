@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.util;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.EnvironmentContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.aasx.InMemoryFile;
+import org.eclipse.digitaltwin.aas4j.v3.model.AssetAdministrationShell;
+import org.eclipse.digitaltwin.aas4j.v3.model.ConceptDescription;
+import org.eclipse.digitaltwin.aas4j.v3.model.Environment;
+import org.eclipse.digitaltwin.aas4j.v3.model.Identifiable;
+import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultEnvironment;
+
+
+/**
+ * Computes and applies deltas between two models. A delta contains all identifiables and files of the target model
+ * that are either not present in or differ from the base model. Removing elements of the base model cannot be
+ * expressed as a delta.
+ */
+public class EnvironmentDeltaHelper {
+
+    private EnvironmentDeltaHelper() {}
+
+
+    /**
+     * Computes the delta from base to target.
+     *
+     * @param base the base model
+     * @param target the target model
+     * @return the delta or empty if target can not be expressed as delta on base, i.e., if target does not contain all
+     *         identifiables and files of base
+     */
+    public static Optional<EnvironmentContext> diff(EnvironmentContext base, EnvironmentContext target) {
+        if (Objects.isNull(base) || Objects.isNull(base.getEnvironment()) || Objects.isNull(target) || Objects.isNull(target.getEnvironment())) {
+            return Optional.empty();
+        }
+        Environment baseEnvironment = base.getEnvironment();
+        Environment targetEnvironment = target.getEnvironment();
+        Optional<List<AssetAdministrationShell>> shells = diff(baseEnvironment.getAssetAdministrationShells(), targetEnvironment.getAssetAdministrationShells());
+        Optional<List<Submodel>> submodels = diff(baseEnvironment.getSubmodels(), targetEnvironment.getSubmodels());
+        Optional<List<ConceptDescription>> conceptDescriptions = diff(baseEnvironment.getConceptDescriptions(), targetEnvironment.getConceptDescriptions());
+        Optional<List<InMemoryFile>> files = diffFiles(base.getFiles(), target.getFiles());
+        if (shells.isEmpty() || submodels.isEmpty() || conceptDescriptions.isEmpty() || files.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(EnvironmentContext.builder()
+                .environment(new DefaultEnvironment.Builder()
+                        .assetAdministrationShells(shells.get())
+                        .submodels(submodels.get())
+                        .conceptDescriptions(conceptDescriptions.get())
+                        .build())
+                .files(files.get())
+                .build());
+    }
+
+
+    /**
+     * Applies a delta to a base model. Neither base nor delta are modified.
+     *
+     * @param base the base model
+     * @param delta the delta
+     * @return the resulting model
+     */
+    public static EnvironmentContext apply(EnvironmentContext base, EnvironmentContext delta) {
+        EnvironmentContext result = EnvironmentHelper.deepCopy(base);
+        EnvironmentContext copy = EnvironmentHelper.deepCopy(delta);
+        Environment environment = result.getEnvironment();
+        environment.setAssetAdministrationShells(apply(environment.getAssetAdministrationShells(), copy.getEnvironment().getAssetAdministrationShells(), Identifiable::getId));
+        environment.setSubmodels(apply(environment.getSubmodels(), copy.getEnvironment().getSubmodels(), Identifiable::getId));
+        environment.setConceptDescriptions(apply(environment.getConceptDescriptions(), copy.getEnvironment().getConceptDescriptions(), Identifiable::getId));
+        result.setFiles(apply(result.getFiles(), copy.getFiles(), InMemoryFile::getPath));
+        return result;
+    }
+
+
+    private static <T extends Identifiable> Optional<List<T>> diff(List<T> base, List<T> target) {
+        Map<String, T> baseById = nonNull(base).stream().collect(Collectors.toMap(Identifiable::getId, Function.identity(), (x, y) -> x));
+        Map<String, T> targetById = nonNull(target).stream().collect(Collectors.toMap(Identifiable::getId, Function.identity(), (x, y) -> x));
+        if (!targetById.keySet().containsAll(baseById.keySet())) {
+            return Optional.empty();
+        }
+        return Optional.of(nonNull(target).stream()
+                .filter(x -> !Objects.equals(baseById.get(x.getId()), x))
+                .toList());
+    }
+
+
+    private static Optional<List<InMemoryFile>> diffFiles(List<InMemoryFile> base, List<InMemoryFile> target) {
+        Map<String, InMemoryFile> baseByPath = nonNull(base).stream().collect(Collectors.toMap(InMemoryFile::getPath, Function.identity(), (x, y) -> x));
+        Map<String, InMemoryFile> targetByPath = nonNull(target).stream().collect(Collectors.toMap(InMemoryFile::getPath, Function.identity(), (x, y) -> x));
+        if (!targetByPath.keySet().containsAll(baseByPath.keySet())) {
+            return Optional.empty();
+        }
+        return Optional.of(nonNull(target).stream()
+                .filter(x -> !baseByPath.containsKey(x.getPath())
+                        || !FileBackedFile.hasSameContent(baseByPath.get(x.getPath()), x))
+                .toList());
+    }
+
+
+    private static <T> List<T> apply(List<T> base, List<T> delta, Function<T, String> idExtractor) {
+        List<T> result = new ArrayList<>(nonNull(base));
+        for (T element: nonNull(delta)) {
+            String id = idExtractor.apply(element);
+            int index = -1;
+            for (int i = 0; i < result.size(); i++) {
+                if (Objects.equals(idExtractor.apply(result.get(i)), id)) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index >= 0) {
+                result.set(index, element);
+            }
+            else {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+
+    private static <T> List<T> nonNull(List<T> list) {
+        return Objects.requireNonNullElse(list, List.of());
+    }
+}
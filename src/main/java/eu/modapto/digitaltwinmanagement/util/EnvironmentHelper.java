@@ -31,9 +31,11 @@ public class EnvironmentHelper {
         return EnvironmentContext.builder()
                 .environment(DeepCopyHelper.deepCopy(environmentContext.getEnvironment()))
                 .files(environmentContext.getFiles().stream()
-                        .map(x -> new InMemoryFile(
-                                Arrays.copyOf(x.getFileContent(), x.getFileContent().length),
-                                x.getPath()))
+                        .map(x -> x instanceof FileBackedFile
+                                ? x
+                                : new InMemoryFile(
+                                        Arrays.copyOf(x.getFileContent(), x.getFileContent().length),
+                                        x.getPath()))
                         .collect(Collectors.toList()))
                 .build();
     }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.aasx.InMemoryFile;
+
+
+/**
+ * File of an AAS environment whose content is kept on disk and only read when accessed, e.g. when the environment is
+ * serialized. Used for large files such as FMUs that should not be held in memory while building a model.
+ */
+public class FileBackedFile extends InMemoryFile {
+
+    private static final int BUFFER_SIZE = 8192;
+    private final Path file;
+
+    public FileBackedFile(Path file, String path) {
+        super(null, path);
+        this.file = file;
+    }
+
+
+    public Path getFile() {
+        return file;
+    }
+
+
+    @Override
+    public byte[] getFileContent() {
+        try {
+            return Files.readAllBytes(file);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(String.format("error reading file (file: %s)", file), e);
+        }
+    }
+
+
+    /**
+     * Checks whether two files have the same content. Content of file-backed files is compared by size first and then
+     * streamed, so it is never fully read into memory. As FMU files are named by content hash, file-backed files
+     * referring to the same file are equal without reading them at all.
+     *
+     * @param first the first file
+     * @param second the second file
+     * @return true if both files have the same content, otherwise false
+     */
+    public static boolean hasSameContent(InMemoryFile first, InMemoryFile second) {
+        if (first instanceof FileBackedFile fileBacked) {
+            return fileBacked.hasContent(second);
+        }
+        if (second instanceof FileBackedFile fileBacked) {
+            return fileBacked.hasContent(first);
+        }
+        return Arrays.equals(first.getFileContent(), second.getFileContent());
+    }
+
+
+    private boolean hasContent(InMemoryFile other) {
+        try {
+            if (other instanceof FileBackedFile fileBacked) {
+                return Objects.equals(file, fileBacked.file) || Files.mismatch(file, fileBacked.file) < 0;
+            }
+            byte[] content = other.getFileContent();
+            if (Objects.isNull(content) || Files.size(file) != content.length) {
+                return false;
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int offset = 0;
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    if (offset + read > content.length || !Arrays.equals(buffer, 0, read, content, offset, offset + read)) {
+                        return false;
+                    }
+                    offset += read;
+                }
+                return offset == content.length;
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(String.format("error reading file (file: %s)", file), e);
+        }
+    }
+
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (Objects.isNull(obj) || getClass() != obj.getClass()) {
+            return false;
+        }
+        FileBackedFile other = (FileBackedFile) obj;
+        return Objects.equals(file, other.file)
+                && Objects.equals(getPath(), other.getPath());
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(file, getPath());
+    }
+}
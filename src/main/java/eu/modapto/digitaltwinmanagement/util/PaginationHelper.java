@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.exception.BadRequestException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.http.ResponseEntity;
+
+
+/**
+ * Helper for keyset-paginated list responses. Results are returned as plain JSON array. If more results might be
+ * available, the cursor to request the next page is returned in the {@value #HEADER_NEXT_CURSOR} header and can be
+ * passed as query parameter 'after'.
+ */
+public class PaginationHelper {
+
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    public static final String PAGINATION_DESCRIPTION = "Results are paginated. Without 'limit', at most 'dt-management.api.page-size.default' "
+            + "(100 by default) elements are returned. Pass the '" + HEADER_NEXT_CURSOR + "' header as 'after' to request the next page.";
+
+    private PaginationHelper() {}
+
+
+    /**
+     * Resolves the page size to use.
+     *
+     * @param limit the requested page size, may be null
+     * @param config the config
+     * @return the page size to use
+     * @throws BadRequestException if limit is not positive
+     */
+    public static int resolveLimit(Integer limit, DigitalTwinManagementConfig config) {
+        if (Objects.isNull(limit)) {
+            return config.getApiDefaultPageSize();
+        }
+        if (limit <= 0) {
+            throw new BadRequestException(String.format("limit must be positive (limit: %d)", limit));
+        }
+        return Math.min(limit, config.getApiMaxPageSize());
+    }
+
+
+    /**
+     * Creates the response for a page of results.
+     *
+     * @param <T> the type of the elements
+     * @param <D> the type of the DTOs
+     * @param page the elements of the page
+     * @param limit the page size used to query the elements
+     * @param idExtractor function to get the id of an element, used as cursor
+     * @param dtoMapper function to map an element to its DTO
+     * @param fields if non-empty, only these properties of the DTOs are returned
+     * @param mapper the object mapper
+     * @return the response
+     */
+    public static <T, D> ResponseEntity<List<?>> response(List<T> page,
+            int limit,
+            Function<T, String> idExtractor,
+            Function<T, D> dtoMapper,
+            Set<String> fields,
+            ObjectMapper mapper) {
+        ResponseEntity.BodyBuilder result = ResponseEntity.ok();
+        if (page.size() >= limit && !page.isEmpty()) {
+            result.header(HEADER_NEXT_CURSOR, idExtractor.apply(page.get(page.size() - 1)));
+        }
+        List<D> dtos = page.stream().map(dtoMapper).toList();
+        if (Objects.isNull(fields) || fields.isEmpty()) {
+            return result.body(dtos);
+        }
+        return result.body(dtos.stream()
+                .map(x -> {
+                    ObjectNode node = mapper.valueToTree(x);
+                    node.retain(fields);
+                    return node;
+                })
+                .toList());
+    }
+}
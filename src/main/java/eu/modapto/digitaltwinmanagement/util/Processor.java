@@ -14,8 +14,15 @@
  */
 package eu.modapto.digitaltwinmanagement.util;
 
+import eu.modapto.digitaltwinmanagement.queue.EventQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.time.Instant;
-import java.util.concurrent.BlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,13 +39,33 @@ public class Processor<T> implements Runnable {
         STOPPED
     }
 
-    private final BlockingQueue<T> queue;
+    private final EventQueue<T> queue;
     private final Consumer<T> consumer;
     private final String name;
-    private Status status = Status.CREATED;
-    private Instant workStarted;
+    private final int batchSize;
+    private final MeterRegistry meterRegistry;
+    private final Timer handleTimer;
+    private volatile Status status = Status.CREATED;
+    private volatile Instant workStarted;
+    private volatile Thread worker;
 
-    public Processor(BlockingQueue<T> queue, Consumer<T> consumer, String name) {
+    public Processor(EventQueue<T> queue, Consumer<T> consumer, String name) {
+        this(queue, consumer, name, 1, null);
+    }
+
+
+    /**
+     * Creates a processor that removes up to {@code batchSize} available events from the queue per wake-up and hands
+     * them to the consumer one by one.
+     *
+     * @param queue the queue to consume
+     * @param consumer the consumer to call for each event
+     * @param name the name used for logging
+     * @param batchSize maximum number of events to remove at once
+     * @param meterRegistry registry to publish handling duration ({@code dt.processor.handle}) and exceptions
+     *            ({@code dt.processor.errors}) to, tagged with the processor name, may be null
+     */
+    public Processor(EventQueue<T> queue, Consumer<T> consumer, String name, int batchSize, MeterRegistry meterRegistry) {
         if (queue == null) {
             throw new IllegalArgumentException("queue must be non-null");
         }
@@ -51,30 +78,63 @@ public class Processor<T> implements Runnable {
         else {
             this.name = name;
         }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
         this.queue = queue;
         this.consumer = consumer;
+        this.batchSize = batchSize;
+        this.meterRegistry = meterRegistry;
+        this.handleTimer = Objects.isNull(meterRegistry)
+                ? null
+                : Timer.builder("dt.processor.handle")
+                        .description("Time to handle a single event")
+                        .tag("processor", this.name)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+    }
+
+
+    /**
+     * Creates a new processor with the same queue, consumer and settings, e.g. to replace a stalled one.
+     *
+     * @return the new processor
+     */
+    public Processor<T> copy() {
+        return new Processor<>(queue, consumer, name, batchSize, meterRegistry);
     }
 
 
     @Override
     public void run() {
         LOGGER.debug("starting {}-Thread", name);
+        worker = Thread.currentThread();
+        List<T> batch = new ArrayList<>(batchSize);
         while (!Thread.currentThread().isInterrupted()) {
-            T event;
             try {
                 status = Status.WAITING;
-                event = queue.take();
-                status = Status.WORKING;
+                batch.add(queue.take());
+                if (batchSize > 1) {
+                    queue.drainTo(batch, batchSize - 1);
+                }
                 workStarted = Instant.now();
-                consumer.accept(event);
+                status = Status.WORKING;
+                for (int i = 0; i < batch.size(); i++) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        queue.handBack(List.copyOf(batch.subList(i, batch.size())));
+                        break;
+                    }
+                    workStarted = Instant.now();
+                    handle(batch.get(i));
+                }
             }
             catch (InterruptedException ex) {
                 LOGGER.trace("{} interrupted", name, ex);
                 Thread.currentThread().interrupt();
                 break;
             }
-            catch (Exception ex) {
-                LOGGER.warn("Exception while executing {}", name, ex);
+            finally {
+                batch.clear();
             }
         }
         status = Status.STOPPED;
@@ -82,6 +142,52 @@ public class Processor<T> implements Runnable {
     }
 
 
+    private void handle(T event) {
+        long start = System.nanoTime();
+        try {
+            consumer.accept(event);
+        }
+        catch (Exception ex) {
+            LOGGER.warn("Exception while executing {}", name, ex);
+            if (Objects.nonNull(meterRegistry)) {
+                Counter.builder("dt.processor.errors")
+                        .description("Number of exceptions thrown while handling events")
+                        .tag("processor", name)
+                        .tag("exception", ex.getClass().getSimpleName())
+                        .register(meterRegistry)
+                        .increment();
+            }
+        }
+        finally {
+            if (Objects.nonNull(handleTimer)) {
+                handleTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+
+    /**
+     * Interrupts the thread executing this processor so that it stops after handling the current event. Events of the
+     * current batch that have not been handled yet are handed back to the queue, see {@link EventQueue#handBack(List)}.
+     */
+    public void interrupt() {
+        Thread thread = worker;
+        if (Objects.nonNull(thread)) {
+            thread.interrupt();
+        }
+    }
+
+
+    public String getName() {
+        return name;
+    }
+
+
+    public Instant getWorkStarted() {
+        return workStarted;
+    }
+
+
     public Status getStatus() {
         return status;
     }
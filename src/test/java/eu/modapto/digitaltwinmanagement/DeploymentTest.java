@@ -19,12 +19,14 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static eu.modapto.digitaltwinmanagement.util.Constants.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -80,9 +82,11 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.SerializationException;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonSerializer;
 import org.eclipse.digitaltwin.aas4j.v3.model.AssetKind;
@@ -180,7 +184,7 @@ class DeploymentTest {
     }
 
     @MockitoBean
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
 
     @InjectMocks
     private KafkaBridge kafkaBridge;
@@ -258,6 +262,7 @@ class DeploymentTest {
     @BeforeEach
     void resetMocks() {
         MockitoAnnotations.openMocks(this);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
     }
 
 
@@ -353,7 +358,7 @@ class DeploymentTest {
                 }
             }
         }
-        smartServiceService.getAllSmartServices().stream()
+        smartServiceRepository.findAll().stream()
                 .filter(InternalSmartService.class::isInstance)
                 .map(InternalSmartService.class::cast)
                 .filter(x -> Objects.nonNull(x.getContainerId()))
@@ -782,7 +787,7 @@ class DeploymentTest {
         assertKafkaEvent(serviceAssignedEvent(service2));
         assertInvokeServiceResponse(service2, EXTERNAL_INVOKE_PAYLOAD, EXTERNAL_EXPECTED_RESULT);
         // validate moduleId has not changed
-        List<Module> modules = moduleService.getAllModules();
+        List<Module> modules = moduleRepository.findAll();
         assertThat(modules.size()).isEqualTo(1);
         Module actualModule = modules.get(0);
         assertThat(actualModule.getServices().size()).isEqualTo(2);
@@ -815,6 +820,22 @@ class DeploymentTest {
     }
 
 
+    @Test
+    void testCreateServiceNotInCatalogStillPublishesFailedEvent() throws Exception {
+        String serviceId = "test-service-not-in-catalog";
+        Module module = moduleService.createModule(newDefaultModule());
+        assertKafkaEvent(moduleCreatedEvent(module.getId(), module.getName()));
+        assertThrows(Exception.class, () -> smartServiceService.addServiceToModule(
+                module.getId(),
+                SmartServiceRequestDto.builder()
+                        .serviceCatalogId(serviceId)
+                        .build(),
+                jwtToken));
+        assertKafkaEvent(serviceAssignedFailedEvent(module.getId(), serviceId));
+        assertThat(smartServiceRepository.count()).isZero();
+    }
+
+
     @Test
     void testDeleteModule() throws Exception {
         String serviceId = "test-delete-module";
@@ -934,11 +955,11 @@ class DeploymentTest {
 
     private <T extends AbstractEvent> void assertKafkaEvents(List<EventInfo> events) {
         for (var event: events) {
-            verify(kafkaTemplate, timeout(KAFKA_TIMEOUT_IN_MS)).send(anyString(), argThat(new ArgumentMatcher<>() {
+            verify(kafkaTemplate, timeout(KAFKA_TIMEOUT_IN_MS)).send(argThat(new ArgumentMatcher<ProducerRecord<String, byte[]>>() {
                 @Override
-                public boolean matches(String value) {
+                public boolean matches(ProducerRecord<String, byte[]> record) {
                     try {
-                        if (event.check.test(mapper.readValue(value, event.type))) {
+                        if (event.check.test(mapper.readValue(record.value(), event.type))) {
                             return true;
                         }
                     }
@@ -949,7 +970,7 @@ class DeploymentTest {
                 }
             }));
         }
-        Mockito.reset(kafkaTemplate);
+        Mockito.clearInvocations(kafkaTemplate);
     }
 
 
@@ -989,6 +1010,15 @@ class DeploymentTest {
     }
 
 
+    private EventInfo<SmartServiceAssignedEvent> serviceAssignedFailedEvent(String moduleId, String serviceCatalogId) {
+        return new EventInfo<>(SmartServiceAssignedEvent.class,
+                x -> checkCommonEventProperties(SmartServiceAssignedEvent.class, x)
+                        && Objects.equals(moduleId, x.getModuleId())
+                        && Objects.equals(serviceCatalogId, x.getPayload().getServiceCatalogId())
+                        && Objects.equals(false, x.getPayload().isSuccess()));
+    }
+
+
     private EventInfo<SmartServiceUnassignedEvent> serviceUnassignedEvent(SmartServiceResponseDto service) {
         return new EventInfo<>(SmartServiceUnassignedEvent.class,
                 x -> checkCommonEventProperties(SmartServiceUnassignedEvent.class, x)
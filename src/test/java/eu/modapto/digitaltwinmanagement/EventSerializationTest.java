@@ -15,13 +15,19 @@
 package eu.modapto.digitaltwinmanagement;
 
 import static eu.modapto.digitaltwinmanagement.util.Constants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import de.fraunhofer.iosb.ilt.faaast.service.model.exception.ValueFormatException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.Datatype;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.PropertyValue;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.SubmodelElementCollectionValue;
 import eu.modapto.digitaltwinmanagement.config.ObjectMapperConfig;
+import eu.modapto.digitaltwinmanagement.messagebus.EventEncoder;
+import eu.modapto.digitaltwinmanagement.messagebus.EventEncoding;
 import eu.modapto.digitaltwinmanagement.model.event.SmartServiceFinishedEvent;
 import eu.modapto.digitaltwinmanagement.model.event.SmartServiceInvokedEvent;
 import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceFinishedPayload;
@@ -29,6 +35,7 @@ import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceInvokedP
 import java.io.IOException;
 import java.nio.file.Files;
 import java.time.LocalDateTime;
+import java.util.Map;
 import org.json.JSONException;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -130,6 +137,15 @@ class EventSerializationTest {
     }
 
 
+    @Test
+    void binaryEncodingsMatchJson() throws IOException {
+        EventEncoder encoder = new EventEncoder(mapper, EventEncoding.JSON, Map.of());
+        JsonNode expected = mapper.readTree(encoder.encode(EVENT_SERVICE_FINISHED, EventEncoding.JSON));
+        assertEquals(expected, new ObjectMapper(new SmileFactory()).readTree(encoder.encode(EVENT_SERVICE_FINISHED, EventEncoding.SMILE)));
+        assertEquals(expected, new ObjectMapper(new CBORFactory()).readTree(encoder.encode(EVENT_SERVICE_FINISHED, EventEncoding.CBOR)));
+    }
+
+
     private void assertSerialize(Object event, String filename) throws JSONException, IOException {
         String expected = Files.readString(new ClassPathResource("/" + PATH_EVENT + "/" + filename).getFile().toPath());
         String actual = mapper.writeValueAsString(event);
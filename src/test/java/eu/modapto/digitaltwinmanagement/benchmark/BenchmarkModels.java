@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.benchmark;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.EnvironmentContext;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.aasx.InMemoryFile;
+import org.eclipse.digitaltwin.aas4j.v3.model.AssetKind;
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultAssetAdministrationShell;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultAssetInformation;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultEnvironment;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultFile;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodel;
+
+
+/**
+ * Creates synthetic AAS models of configurable size for benchmarking.
+ */
+public class BenchmarkModels {
+
+    private static final String FILE_PATH = "/benchmark.bin";
+
+    private BenchmarkModels() {}
+
+
+    /**
+     * Creates a model containing one AAS with a single submodel.
+     *
+     * @param propertyCount number of properties in the submodel
+     * @param fileSize size of the supplementary file in bytes
+     * @return the model
+     */
+    public static EnvironmentContext environment(int propertyCount, int fileSize) {
+        List<SubmodelElement> elements = new ArrayList<>();
+        for (int i = 0; i < propertyCount; i++) {
+            elements.add(new DefaultProperty.Builder()
+                    .idShort("property" + i)
+                    .valueType(DataTypeDefXsd.DOUBLE)
+                    .value(Double.toString(i * 0.5))
+                    .build());
+        }
+        elements.add(new DefaultFile.Builder()
+                .idShort("file")
+                .contentType("application/octet-stream")
+                .value(FILE_PATH)
+                .build());
+        Submodel submodel = new DefaultSubmodel.Builder()
+                .id("http://example.org/submodel/benchmark")
+                .idShort("benchmark")
+                .submodelElements(elements)
+                .build();
+        byte[] fileContent = new byte[fileSize];
+        new Random(42).nextBytes(fileContent);
+        return EnvironmentContext.builder()
+                .environment(new DefaultEnvironment.Builder()
+                        .assetAdministrationShells(new DefaultAssetAdministrationShell.Builder()
+                                .id("http://example.org/aas/benchmark")
+                                .idShort("BenchmarkAAS")
+                                .assetInformation(new DefaultAssetInformation.Builder()
+                                        .assetKind(AssetKind.INSTANCE)
+                                        .globalAssetId("http://example.org/asset/benchmark")
+                                        .build())
+                                .submodels(ReferenceBuilder.forSubmodel(submodel.getId()))
+                                .build())
+                        .submodels(submodel)
+                        .build())
+                .files(new ArrayList<>(List.of(new InMemoryFile(fileContent, FILE_PATH))))
+                .build();
+    }
+}
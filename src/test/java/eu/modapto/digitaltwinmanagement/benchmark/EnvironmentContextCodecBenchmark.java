@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.benchmark;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.EnvironmentContext;
+import eu.modapto.digitaltwinmanagement.jpa.codec.EnvironmentContextCodec;
+import eu.modapto.digitaltwinmanagement.jpa.codec.EnvironmentContextCodecs;
+import eu.modapto.digitaltwinmanagement.jpa.codec.ModelStorageFormat;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares write and read cost of the available model storage formats for different model sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnvironmentContextCodecBenchmark {
+
+    @Param({
+            "10",
+            "100",
+            "1000"
+    })
+    private int propertyCount;
+
+    @Param({
+            "AASX",
+            "SMILE"
+    })
+    private ModelStorageFormat format;
+
+    private EnvironmentContextCodec codec;
+    private EnvironmentContext model;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws Exception {
+        codec = EnvironmentContextCodecs.forFormat(format);
+        model = BenchmarkModels.environment(propertyCount, 64 * 1024);
+        encoded = codec.encode(model);
+    }
+
+
+    @Benchmark
+    public byte[] write() throws Exception {
+        return codec.encode(model);
+    }
+
+
+    @Benchmark
+    public EnvironmentContext read() throws Exception {
+        return codec.decode(encoded);
+    }
+
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EnvironmentContextCodecBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
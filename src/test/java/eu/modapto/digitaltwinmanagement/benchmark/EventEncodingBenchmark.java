@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.modapto.digitaltwinmanagement.config.ObjectMapperConfig;
+import eu.modapto.digitaltwinmanagement.messagebus.EventEncoder;
+import eu.modapto.digitaltwinmanagement.messagebus.EventEncoding;
+import eu.modapto.digitaltwinmanagement.model.event.SmartServiceFinishedEvent;
+import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceFinishedPayload;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Compares the cost of encoding events for Kafka as JSON string (as done before binary encodings were introduced), as
+ * JSON bytes and in the binary encodings. The encoded size per encoding is logged during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventEncodingBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventEncodingBenchmark.class);
+    private static final String JSON_STRING = "JSON_STRING";
+
+    @Param({
+            JSON_STRING,
+            "JSON",
+            "SMILE",
+            "CBOR"
+    })
+    private String encoding;
+
+    private ObjectMapper mapper;
+    private EventEncoder encoder;
+    private SmartServiceFinishedEvent event;
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = new ObjectMapperConfig().objectMapper();
+        encoder = new EventEncoder(mapper, EventEncoding.JSON, Map.of());
+        event = SmartServiceFinishedEvent.builder()
+                .moduleId(UUID.randomUUID().toString())
+                .payload(SmartServiceFinishedPayload.builder()
+                        .serviceId(UUID.randomUUID().toString())
+                        .serviceCatalogId("benchmark-service")
+                        .name("BenchmarkService")
+                        .endpoint("http://example.org/api/v3.0/submodels/benchmark/operation/invoke")
+                        .invocationId(UUID.randomUUID().toString())
+                        .success(true)
+                        .durationMs(42L)
+                        .build())
+                .build();
+        LOGGER.info("encoded size (encoding: {}): {} bytes", encoding, encode().length);
+    }
+
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        if (JSON_STRING.equals(encoding)) {
+            return mapper.writeValueAsString(event).getBytes(StandardCharsets.UTF_8);
+        }
+        return encoder.encode(event, EventEncoding.valueOf(encoding));
+    }
+
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EventEncodingBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.benchmark;
+
+import eu.modapto.digitaltwinmanagement.queue.ArrayEventQueue;
+import eu.modapto.digitaltwinmanagement.queue.EventQueue;
+import eu.modapto.digitaltwinmanagement.queue.RingBufferQueue;
+import eu.modapto.digitaltwinmanagement.queue.WaitStrategy;
+import eu.modapto.digitaltwinmanagement.queue.WaitStrategyType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares throughput and latency (including percentiles) of the in-memory event queue implementations with three
+ * producers and one consumer, consuming single events or batches.
+ */
+@State(Scope.Group)
+@BenchmarkMode({
+        Mode.Throughput,
+        Mode.SampleTime
+})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventQueueBenchmark {
+
+    private static final Object EVENT = new Object();
+    private static final long TIMEOUT_MILLIS = 1;
+
+    @Param({
+            "ARRAY",
+            "RING_BUFFER_BLOCKING",
+            "RING_BUFFER_YIELDING",
+            "RING_BUFFER_BUSY_SPIN"
+    })
+    private String queueType;
+
+    @Param({
+            "1024"
+    })
+    private int capacity;
+
+    @Param({
+            "1",
+            "32"
+    })
+    private int batchSize;
+
+    private EventQueue<Object> queue;
+    private List<Object> batch;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        queue = switch (queueType) {
+            case "ARRAY" -> new ArrayEventQueue<>(capacity);
+            case "RING_BUFFER_BLOCKING" -> new RingBufferQueue<>(capacity, WaitStrategy.create(WaitStrategyType.BLOCKING));
+            case "RING_BUFFER_YIELDING" -> new RingBufferQueue<>(capacity, WaitStrategy.create(WaitStrategyType.YIELDING));
+            case "RING_BUFFER_BUSY_SPIN" -> new RingBufferQueue<>(capacity, WaitStrategy.create(WaitStrategyType.BUSY_SPIN));
+            default -> throw new IllegalArgumentException(queueType);
+        };
+        batch = new ArrayList<>(batchSize);
+    }
+
+
+    @Benchmark
+    @Group("queue")
+    @GroupThreads(3)
+    public boolean offer() throws InterruptedException {
+        return queue.offer(EVENT, TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+
+    @Benchmark
+    @Group("queue")
+    @GroupThreads(1)
+    public int consume() throws InterruptedException {
+        Object first = queue.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        if (batchSize == 1) {
+            return 1;
+        }
+        batch.clear();
+        return 1 + queue.drainTo(batch, batchSize - 1);
+    }
+
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EventQueueBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
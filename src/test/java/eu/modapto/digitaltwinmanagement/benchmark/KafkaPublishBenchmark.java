@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.benchmark;
+
+import eu.modapto.digitaltwinmanagement.config.KafkaConfig;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+
+/**
+ * Measures events/sec published to an embedded Kafka broker when waiting for each acknowledgement (as done by the
+ * persistent queue) vs. sending asynchronously, for different linger times and compression types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class KafkaPublishBenchmark {
+
+    private static final String TOPIC = "benchmark";
+    private static final int PARTITIONS = 4;
+    private static final int EVENTS_PER_INVOCATION = 1000;
+
+    @Param({
+            "SYNC",
+            "ASYNC"
+    })
+    private String mode;
+
+    @Param({
+            "0",
+            "5"
+    })
+    private long linger;
+
+    @Param({
+            "none",
+            "lz4"
+    })
+    private String compressionType;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    private String key;
+    private byte[] value;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, TOPIC);
+        broker.afterPropertiesSet();
+        KafkaConfig config = new KafkaConfig();
+        config.setMessageBusUrl(broker.getBrokersAsString());
+        config.setProducerBatchSize(65536);
+        config.setProducerLinger(linger);
+        config.setProducerCompressionType(compressionType);
+        config.setProducerAcks("all");
+        config.setProducerIdempotence(true);
+        config.setProducerMaxInFlightRequests(5);
+        config.setProducerRetryBackoff(100);
+        config.setProducerRetryBackoffMax(1000);
+        config.setProducerDeliveryTimeout(120000);
+        kafkaTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config.producerProperties()));
+        key = UUID.randomUUID().toString();
+        value = createEvent();
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        kafkaTemplate.destroy();
+        broker.destroy();
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void publish() throws Exception {
+        if ("SYNC".equals(mode)) {
+            for (int i = 0; i < EVENTS_PER_INVOCATION; i++) {
+                kafkaTemplate.send(TOPIC, key, value).get();
+            }
+            return;
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[EVENTS_PER_INVOCATION];
+        for (int i = 0; i < EVENTS_PER_INVOCATION; i++) {
+            futures[i] = kafkaTemplate.send(TOPIC, key, value);
+        }
+        CompletableFuture.allOf(futures).get();
+    }
+
+
+    private static byte[] createEvent() {
+        StringBuilder result = new StringBuilder()
+                .append("{\"id\":\"").append(UUID.randomUUID())
+                .append("\",\"moduleId\":\"").append(UUID.randomUUID())
+                .append("\",\"topic\":\"smart-service-finished\",\"payload\":{\"outputArguments\":{");
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) {
+                result.append(',');
+            }
+            result.append("\"output").append(i).append("\":").append(i * 0.5);
+        }
+        return result.append("},\"success\":true}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(KafkaPublishBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.benchmark;
+
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.config.ObjectMapperConfig;
+import eu.modapto.digitaltwinmanagement.deployment.DeploymentType;
+import eu.modapto.digitaltwinmanagement.jpa.cache.DecodeCache;
+import eu.modapto.digitaltwinmanagement.model.ArgumentMapping;
+import eu.modapto.digitaltwinmanagement.model.ArgumentType;
+import eu.modapto.digitaltwinmanagement.model.ExternalSmartService;
+import eu.modapto.digitaltwinmanagement.model.Module;
+import eu.modapto.digitaltwinmanagement.repository.ModuleRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+
+/**
+ * Measures how many modules with a given number of services can be inserted per second. Each module results in one
+ * insert for the module, one per service and one per argument mapping. Runs against in-memory H2 and against
+ * PostgreSQL started via Testcontainers (requires Docker), with and without JDBC batching.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ModulePersistenceBenchmark {
+
+    private static final String POSTGRES_IMAGE = "postgres:16-alpine";
+    private static final int ARGUMENTS_PER_SERVICE = 5;
+
+    @Param({
+            "H2",
+            "POSTGRESQL"
+    })
+    private Database database;
+
+    @Param({
+            "10",
+            "100"
+    })
+    private int servicesPerModule;
+
+    @Param({
+            "1",
+            "50"
+    })
+    private int batchSize;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private ModuleRepository moduleRepository;
+    private TransactionTemplate transactionTemplate;
+
+    public enum Database {
+        H2,
+        POSTGRESQL
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Module.class)
+    @EnableJpaRepositories(basePackageClasses = ModuleRepository.class)
+    @Import({
+            DigitalTwinManagementConfig.class,
+            ObjectMapperConfig.class,
+            DecodeCache.class
+    })
+    static class PersistenceContext {}
+
+    @Setup
+    public void setup() {
+        List<String> args = new ArrayList<>();
+        if (database == Database.POSTGRESQL) {
+            postgres = new PostgreSQLContainer<>(POSTGRES_IMAGE);
+            postgres.start();
+            args.add("--spring.datasource.url=" + postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+            args.add("--spring.datasource.username=" + postgres.getUsername());
+            args.add("--spring.datasource.password=" + postgres.getPassword());
+            args.add("--spring.datasource.driverClassName=org.postgresql.Driver");
+            args.add("--spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect");
+        }
+        else {
+            args.add("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        }
+        args.add("--spring.jpa.hibernate.ddl-auto=create-drop");
+        args.add("--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        args.add("--logging.level.root=WARN");
+        args.add("--logging.level.eu.modapto.digitaltwinmanagement=WARN");
+        context = new SpringApplicationBuilder(PersistenceContext.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        moduleRepository = context.getBean(ModuleRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+
+    @TearDown
+    public void tearDown() {
+        if (Objects.nonNull(context)) {
+            context.close();
+        }
+        if (Objects.nonNull(postgres)) {
+            postgres.stop();
+        }
+    }
+
+
+    @Benchmark
+    public String insertModule() {
+        return transactionTemplate.execute(status -> moduleRepository.save(createModule()).getId());
+    }
+
+
+    private Module createModule() {
+        Module result = Module.builder()
+                .name("benchmark")
+                .type(DeploymentType.INTERNAL)
+                .build();
+        for (int i = 0; i < servicesPerModule; i++) {
+            ExternalSmartService.ExternalSmartServiceBuilder<?, ?> service = ExternalSmartService.builder()
+                    .name("service" + i)
+                    .httpEndpoint("http://example.org/service/" + i)
+                    .method("POST")
+                    .module(result);
+            Map<String, ArgumentMapping> argumentTypes = new HashMap<>();
+            for (int j = 0; j < ARGUMENTS_PER_SERVICE; j++) {
+                String idShort = "argument" + j;
+                service.inputParameter(new DefaultProperty.Builder()
+                        .idShort(idShort)
+                        .valueType(DataTypeDefXsd.DOUBLE)
+                        .build());
+                argumentTypes.put(idShort, ArgumentMapping.builder()
+                        .type(ArgumentType.CONSTANT)
+                        .value(Integer.toString(j))
+                        .build());
+            }
+            result.getServices().add(service
+                    .inputArgumentTypes(argumentTypes)
+                    .build());
+        }
+        return result;
+    }
+
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ModulePersistenceBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.jpa.codec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.EnvironmentContext;
+import eu.modapto.digitaltwinmanagement.benchmark.BenchmarkModels;
+import org.junit.jupiter.api.Test;
+
+
+class EnvironmentContextCodecTest {
+
+    @Test
+    void smileRoundTrip() throws Exception {
+        assertRoundTrip(ModelStorageFormat.SMILE);
+    }
+
+
+    @Test
+    void legacyAasxIsDetected() throws Exception {
+        byte[] data = EnvironmentContextCodecs.forFormat(ModelStorageFormat.AASX).encode(BenchmarkModels.environment(5, 16));
+        assertEquals(ModelStorageFormat.AASX, EnvironmentContextCodecs.detectFormat(data));
+    }
+
+
+    private static void assertRoundTrip(ModelStorageFormat format) throws Exception {
+        EnvironmentContext expected = BenchmarkModels.environment(20, 1024);
+        byte[] data = EnvironmentContextCodecs.forFormat(format).encode(expected);
+        assertEquals(format, EnvironmentContextCodecs.detectFormat(data));
+        EnvironmentContext actual = EnvironmentContextCodecs.detect(data).decode(data);
+        assertEquals(expected.getEnvironment(), actual.getEnvironment());
+        assertEquals(expected.getFiles().size(), actual.getFiles().size());
+        assertEquals(expected.getFiles().get(0).getPath(), actual.getFiles().get(0).getPath());
+        assertArrayEquals(expected.getFiles().get(0).getFileContent(), actual.getFiles().get(0).getFileContent());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.json.JsonEventSerializer;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.ExecuteEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.OperationFinishEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.OperationInvokeEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.Datatype;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.PropertyValue;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.SubmodelElementCollectionValue;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceBuilder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.eclipse.digitaltwin.aas4j.v3.model.Reference;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultOperation;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodel;
+import org.junit.jupiter.api.Test;
+
+
+class DigitalTwinEventDecoderTest {
+
+    private static final String MODULE_ID = "0192a3b4-c5d6-7e8f-9a0b-1c2d3e4f5a6b";
+    private static final Reference ELEMENT = ReferenceBuilder.forSubmodel(
+            new DefaultSubmodel.Builder()
+                    .id("http://example.org/submodel")
+                    .build(),
+            new DefaultOperation.Builder()
+                    .idShort("op")
+                    .build());
+
+    @Test
+    void parseModuleId() {
+        assertEquals(MODULE_ID, DigitalTwinEventDecoder.parseModuleId("module/" + MODULE_ID + "/OperationInvokeEventMessage"));
+        assertEquals(MODULE_ID, DigitalTwinEventDecoder.parseModuleId("module/" + MODULE_ID + "/OperationFinishEventMessage"));
+        assertNull(DigitalTwinEventDecoder.parseModuleId("module/" + MODULE_ID + "/ValueChangeEventMessage"));
+        assertNull(DigitalTwinEventDecoder.parseModuleId("module/" + MODULE_ID + "/OperationInvokeEventMessageX"));
+        assertNull(DigitalTwinEventDecoder.parseModuleId("module/" + MODULE_ID.replace('a', 'x') + "/OperationInvokeEventMessage"));
+        assertNull(DigitalTwinEventDecoder.parseModuleId("modules/" + MODULE_ID + "/OperationInvokeEventMessage"));
+        assertNull(DigitalTwinEventDecoder.parseModuleId("module/"));
+    }
+
+
+    @Test
+    void decodeInvokeEventFromHeapBuffer() throws Exception {
+        ExecuteEventMessage event = invokeEvent();
+        assertDecode(event, Unpooled.wrappedBuffer(serialize(event)));
+    }
+
+
+    @Test
+    void decodeInvokeEventFromDirectBuffer() throws Exception {
+        ExecuteEventMessage event = invokeEvent();
+        ByteBuf payload = Unpooled.directBuffer();
+        payload.writeBytes(serialize(event));
+        assertDecode(event, payload);
+    }
+
+
+    @Test
+    void decodeFinishEvent() throws Exception {
+        ExecuteEventMessage event = OperationFinishEventMessage.builder()
+                .element(ELEMENT)
+                .invocationId("42")
+                .success(true)
+                .output(Map.of("result", PropertyValue.of(Datatype.STRING, "done")))
+                .build();
+        assertDecode(event, Unpooled.wrappedBuffer(serialize(event)));
+    }
+
+
+    @Test
+    void writeMatchesSerializer() throws Exception {
+        ExecuteEventMessage event = invokeEvent();
+        assertEquals(new String(serialize(event), StandardCharsets.UTF_8), new String(new DigitalTwinEventDecoder().write(event), StandardCharsets.UTF_8));
+    }
+
+
+    private static ExecuteEventMessage invokeEvent() throws Exception {
+        return OperationInvokeEventMessage.builder()
+                .element(ELEMENT)
+                .invocationId("42")
+                .input(Map.of(
+                        "a", SubmodelElementCollectionValue.builder()
+                                .value("nested", PropertyValue.of(Datatype.INT, "1"))
+                                .build(),
+                        "b", PropertyValue.of(Datatype.STRING, "foo")))
+                .build();
+    }
+
+
+    private static byte[] serialize(ExecuteEventMessage event) throws Exception {
+        return new JsonEventSerializer().write(event).getBytes(StandardCharsets.UTF_8);
+    }
+
+
+    private static void assertDecode(ExecuteEventMessage expected, ByteBuf payload) throws Exception {
+        DigitalTwinEventDecoder decoder = new DigitalTwinEventDecoder();
+        int readerIndex = payload.readerIndex();
+        assertEquals(ELEMENT, decoder.readElement(payload));
+        assertEquals(readerIndex, payload.readerIndex());
+        assertEquals(expected, decoder.read(payload));
+        assertEquals(readerIndex, payload.readerIndex());
+        payload.release();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.Datatype;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.PropertyValue;
+import eu.modapto.digitaltwinmanagement.model.event.AbstractEvent;
+import eu.modapto.digitaltwinmanagement.model.event.SmartServiceFinishedEvent;
+import eu.modapto.digitaltwinmanagement.model.event.SmartServiceInvokedEvent;
+import eu.modapto.digitaltwinmanagement.model.event.SmartServiceSummaryEvent;
+import eu.modapto.digitaltwinmanagement.model.event.payload.ResultReference;
+import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceFinishedPayload;
+import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceInvokedPayload;
+import eu.modapto.digitaltwinmanagement.model.event.payload.SmartServiceSummaryPayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+
+class EventAggregatorTest {
+
+    private static final String MODULE_ID = "module-1";
+    private static final String SERVICE_ID = "service-1";
+    private static final String SUFFIX = "-raw";
+
+    @Test
+    void summarizeWindow() {
+        List<AbstractEvent<?>> published = new ArrayList<>();
+        EventAggregator aggregator = new EventAggregator(Duration.ofHours(1), 0, SUFFIX, published::add, new SimpleMeterRegistry());
+        assertNull(aggregator.add(invoked("1")));
+        assertNull(aggregator.add(finished("1", true, 10)));
+        assertNull(aggregator.add(invoked("2")));
+        assertNull(aggregator.add(finished("2", false, 30)));
+        aggregator.flush();
+        assertEquals(1, published.size());
+        SmartServiceSummaryPayload summary = ((SmartServiceSummaryEvent) published.get(0)).getPayload();
+        assertEquals(MODULE_ID, published.get(0).getModuleId());
+        assertEquals(SERVICE_ID, summary.getServiceId());
+        assertEquals(2, summary.getInvokedCount());
+        assertEquals(2, summary.getFinishedCount());
+        assertEquals(1, summary.getSuccessCount());
+        assertEquals(0.5, summary.getSuccessRate());
+        assertEquals(10d, summary.getMinMs());
+        assertEquals(30d, summary.getMaxMs());
+        assertEquals("2", summary.getLastInvocationId());
+        aggregator.flush();
+        assertEquals(1, published.size());
+    }
+
+
+    @Test
+    void offloadLastOutputArgumentsOncePerWindow() {
+        List<AbstractEvent<?>> published = new ArrayList<>();
+        List<Map<String, ElementValue>> offloaded = new ArrayList<>();
+        ResultReference reference = ResultReference.builder()
+                .id("result-1")
+                .build();
+        EventAggregator aggregator = new EventAggregator(Duration.ofHours(1), 0, SUFFIX, published::add, x -> {
+            offloaded.add(x);
+            return reference;
+        }, new SimpleMeterRegistry());
+        for (int i = 0; i < 3; i++) {
+            aggregator.add(finished(Integer.toString(i), true, 1, Map.of("value", PropertyValue.of(Datatype.INT, Integer.toString(i)))));
+        }
+        aggregator.flush();
+        assertEquals(1, offloaded.size());
+        assertEquals(PropertyValue.of(Datatype.INT, "2"), offloaded.get(0).get("value"));
+        SmartServiceSummaryPayload summary = ((SmartServiceSummaryEvent) published.get(0)).getPayload();
+        assertSame(reference, summary.getLastResult());
+        assertTrue(summary.getLastOutputArguments().isEmpty());
+    }
+
+
+    @Test
+    void sampleRawEventsByInvocation() {
+        EventAggregator aggregator = new EventAggregator(Duration.ofHours(1), 3, SUFFIX, x -> {}, new SimpleMeterRegistry());
+        int sampled = 0;
+        for (int i = 0; i < 300; i++) {
+            String invocationId = Integer.toString(i);
+            String invokedTopic = aggregator.add(invoked(invocationId));
+            String finishedTopic = aggregator.add(finished(invocationId, true, 1));
+            if (invokedTopic != null) {
+                sampled++;
+                assertEquals("smart-service-invoke" + SUFFIX, invokedTopic);
+                assertEquals("smart-service-finish" + SUFFIX, finishedTopic);
+            }
+            else {
+                assertNull(finishedTopic);
+            }
+        }
+        assertEquals(100, sampled);
+    }
+
+
+    private static SmartServiceInvokedEvent invoked(String invocationId) {
+        return SmartServiceInvokedEvent.builder()
+                .moduleId(MODULE_ID)
+                .payload(SmartServiceInvokedPayload.builder()
+                        .serviceId(SERVICE_ID)
+                        .invocationId(invocationId)
+                        .build())
+                .build();
+    }
+
+
+    private static SmartServiceFinishedEvent finished(String invocationId, boolean success, long durationMs) {
+        return finished(invocationId, success, durationMs, Map.of());
+    }
+
+
+    private static SmartServiceFinishedEvent finished(String invocationId, boolean success, long durationMs, Map<String, ElementValue> outputArguments) {
+        return SmartServiceFinishedEvent.builder()
+                .moduleId(MODULE_ID)
+                .payload(SmartServiceFinishedPayload.builder()
+                        .serviceId(SERVICE_ID)
+                        .invocationId(invocationId)
+                        .success(success)
+                        .durationMs(durationMs)
+                        .outputArguments(outputArguments)
+                        .build())
+                .build();
+    }
+}
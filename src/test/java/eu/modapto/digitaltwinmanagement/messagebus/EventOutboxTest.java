@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import eu.modapto.digitaltwinmanagement.config.KafkaConfig;
+import eu.modapto.digitaltwinmanagement.model.OutboxEvent;
+import eu.modapto.digitaltwinmanagement.model.event.ModuleDeletedEvent;
+import eu.modapto.digitaltwinmanagement.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+
+class EventOutboxTest {
+
+    private final KafkaConfig kafkaConfig = new KafkaConfig();
+    private final KafkaBridge kafkaBridge = mock(KafkaBridge.class);
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final OutboxRelay outboxRelay = mock(OutboxRelay.class);
+    private final ModuleDeletedEvent event = ModuleDeletedEvent.builder()
+            .moduleId("module-1")
+            .build();
+    private EventOutbox outbox;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        kafkaConfig.setOutboxEnabled(true);
+        kafkaConfig.setOutboxMode(OutboxMode.NOTIFY);
+        when(kafkaBridge.prepare(event)).thenReturn(new OutboundMessage("module-1", event.getTopic(), EventEncoding.JSON, new byte[0]));
+        outbox = new EventOutbox(kafkaConfig, kafkaBridge, outboxEventRepository, outboxRelay);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+
+    @Test
+    void relayEventsOnlyAfterCommit() {
+        outbox.publish(event);
+        verify(outboxEventRepository).save(any(OutboxEvent.class));
+        verify(outboxRelay, never()).wakeUp();
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        verify(outboxRelay).wakeUp();
+        verify(kafkaBridge, never()).publish(any());
+    }
+
+
+    @Test
+    void doNotRelayEventsOnRollback() {
+        outbox.publish(event);
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        verify(outboxRelay, never()).wakeUp();
+    }
+
+
+    @Test
+    void publishDirectlyIfOutboxDisabled() {
+        kafkaConfig.setOutboxEnabled(false);
+        outbox.publish(event);
+        verify(kafkaBridge).publish(event);
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+    }
+}
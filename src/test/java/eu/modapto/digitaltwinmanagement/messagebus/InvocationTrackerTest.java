@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.model.InternalSmartService;
+import eu.modapto.digitaltwinmanagement.model.Module;
+import eu.modapto.digitaltwinmanagement.model.SmartService;
+import eu.modapto.digitaltwinmanagement.model.response.InvocationStatisticsResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+class InvocationTrackerTest {
+
+    private static final String MODULE_ID = "module-1";
+    private static final String SERVICE_ID = "service-1";
+    private static final int MAX_PENDING = 2;
+    private static final long TIMEOUT = 1000;
+
+    private final SmartService service = InternalSmartService.builder()
+            .id(SERVICE_ID)
+            .module(Module.builder()
+                    .id(MODULE_ID)
+                    .build())
+            .build();
+    private MeterRegistry meterRegistry;
+    private InvocationTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        DigitalTwinManagementConfig config = new DigitalTwinManagementConfig();
+        config.setInvocationTrackingEnabled(true);
+        config.setInvocationTrackingMaxPending(MAX_PENDING);
+        config.setInvocationTrackingTimeout(TIMEOUT);
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new InvocationTracker(config, meterRegistry);
+        tracker.init();
+    }
+
+
+    @AfterEach
+    void tearDown() {
+        tracker.tearDown();
+    }
+
+
+    @Test
+    void recordLatencyBetweenInvokeAndFinish() {
+        long now = InvocationTracker.now();
+        tracker.invoked(service, "1", now);
+        tracker.invoked(service, "2", now);
+        assertEquals(OptionalLong.of(10), tracker.finished(service, "1", true, now + TimeUnit.MILLISECONDS.toMicros(10)));
+        assertEquals(OptionalLong.of(30), tracker.finished(service, "2", false, now + TimeUnit.MILLISECONDS.toMicros(30)));
+        assertEquals(OptionalLong.empty(), tracker.finished(service, "unknown", true, now));
+        InvocationStatisticsResponseDto statistics = tracker.getServiceStatistics(SERVICE_ID);
+        assertEquals(1, statistics.getSuccessCount());
+        assertEquals(1, statistics.getFailureCount());
+        assertEquals(0.5, statistics.getSuccessRate());
+        assertEquals(10, statistics.getMinMs(), 0.1);
+        assertEquals(30, statistics.getMaxMs(), 0.1);
+        assertEquals(0.5, tracker.getModuleStatistics(MODULE_ID).getSuccessRate());
+        assertEquals(2, meterRegistry.get("dt.invocation.duration").timer().count());
+    }
+
+
+    @Test
+    void evictTimedOutInvocations() {
+        tracker.invoked(service, "1", InvocationTracker.now() - TimeUnit.MILLISECONDS.toMicros(2 * TIMEOUT));
+        tracker.invoked(service, "2", InvocationTracker.now());
+        tracker.evictExpired();
+        assertEquals(1, meterRegistry.get("dt.invocation.pending").gauge().value());
+        assertEquals(1, tracker.getServiceStatistics(SERVICE_ID).getTimeoutCount());
+        assertEquals(OptionalLong.empty(), tracker.finished(service, "1", true, InvocationTracker.now()));
+        assertTrue(tracker.finished(service, "2", true, InvocationTracker.now()).isPresent());
+    }
+
+
+    @Test
+    void boundPendingInvocations() {
+        for (int i = 0; i < MAX_PENDING + 1; i++) {
+            tracker.invoked(service, Integer.toString(i), InvocationTracker.now());
+        }
+        assertEquals(MAX_PENDING, meterRegistry.get("dt.invocation.pending").gauge().value());
+        assertEquals(1, meterRegistry.get("dt.invocation.untracked").counter().count());
+        assertEquals(OptionalLong.empty(), tracker.finished(service, Integer.toString(MAX_PENDING), true, InvocationTracker.now()));
+    }
+
+
+    @Test
+    void removeStatisticsAndMetersOfDeletedServicesAndModules() {
+        long now = InvocationTracker.now();
+        tracker.invoked(service, "1", now);
+        tracker.finished(service, "1", true, now + 1000);
+        tracker.invoked(service, "2", now);
+        tracker.removeService(SERVICE_ID);
+        assertEquals(0, tracker.getServiceStatistics(SERVICE_ID).getSuccessCount());
+        assertNull(meterRegistry.find("dt.invocation.duration").timer());
+        assertNull(meterRegistry.find("dt.invocation.completed").counter());
+        assertEquals(0, meterRegistry.get("dt.invocation.pending").gauge().value());
+        assertEquals(1, tracker.getModuleStatistics(MODULE_ID).getSuccessCount());
+        tracker.invoked(service, "3", now);
+        tracker.finished(service, "3", true, now + 1000);
+        tracker.removeModule(MODULE_ID);
+        assertEquals(0, tracker.getModuleStatistics(MODULE_ID).getSuccessCount());
+        assertEquals(0, tracker.getServiceStatistics(SERVICE_ID).getSuccessCount());
+        assertNull(meterRegistry.find("dt.invocation.duration").timer());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import eu.modapto.digitaltwinmanagement.config.KafkaConfig;
+import eu.modapto.digitaltwinmanagement.model.OutboxEvent;
+import eu.modapto.digitaltwinmanagement.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+class OutboxRelayTest {
+
+    private static final String TOPIC = "topic";
+
+    private final KafkaBridge kafkaBridge = mock(KafkaBridge.class);
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+    private MeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        KafkaConfig kafkaConfig = new KafkaConfig();
+        kafkaConfig.setOutboxBatchSize(3);
+        meterRegistry = new SimpleMeterRegistry();
+        when(kafkaBridge.send(any(OutboundMessage.class))).thenAnswer(x -> {
+            OutboundMessage message = x.getArgument(0);
+            return failing.contains(message.key())
+                    ? CompletableFuture.failedFuture(new IllegalStateException("Kafka not reachable"))
+                    : CompletableFuture.completedFuture(null);
+        });
+        relay = new OutboxRelay(
+                kafkaConfig,
+                kafkaBridge,
+                outboxEventRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                meterRegistry);
+    }
+
+
+    @Test
+    void deleteRelayedEventsInBatches() throws Exception {
+        when(outboxEventRepository.findByOrderByIdAsc(any(Limit.class))).thenReturn(
+                List.of(event(1), event(2), event(3)),
+                List.of(event(4)),
+                List.of());
+        assertTrue(relay.drain());
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(4L));
+        assertEquals(4, meterRegistry.get("dt.outbox.relayed").counter().count());
+    }
+
+
+    @Test
+    void keepEventsFromFirstFailureForRetry() throws Exception {
+        failing.add(key(2));
+        when(outboxEventRepository.findByOrderByIdAsc(any(Limit.class))).thenReturn(
+                List.of(event(1), event(2), event(3)),
+                List.of(event(2), event(3)),
+                List.of());
+        assertFalse(relay.drain());
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+        assertEquals(1, meterRegistry.get("dt.outbox.failed").counter().count());
+        failing.clear();
+        assertTrue(relay.drain());
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(2L, 3L));
+        assertEquals(3, meterRegistry.get("dt.outbox.relayed").counter().count());
+    }
+
+
+    private static OutboxEvent event(long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .eventKey(key(id))
+                .topic(TOPIC)
+                .encoding(EventEncoding.JSON)
+                .value(new byte[0])
+                .build();
+    }
+
+
+    private static String key(long id) {
+        return "key-" + id;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.messagebus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.queue.ArrayEventQueue;
+import eu.modapto.digitaltwinmanagement.util.Processor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+class ProcessorWatchdogTest {
+
+    private static final long STALL_TIMEOUT = 50;
+    private static final String NAME = "test";
+
+    private MeterRegistry meterRegistry;
+    private ProcessorWatchdog watchdog;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void init() {
+        DigitalTwinManagementConfig config = mock(DigitalTwinManagementConfig.class);
+        when(config.getProcessorWatchdogInterval()).thenReturn(0L);
+        when(config.getProcessorWatchdogStallTimeout()).thenReturn(STALL_TIMEOUT);
+        when(config.isProcessorWatchdogRestart()).thenReturn(true);
+        when(config.getProcessorWatchdogMaxRestarts()).thenReturn(3);
+        meterRegistry = new SimpleMeterRegistry();
+        watchdog = new ProcessorWatchdog(config, meterRegistry);
+        executor = Executors.newCachedThreadPool();
+    }
+
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+
+    @Test
+    void interruptibleStalledProcessorIsReplaced() throws Exception {
+        CountDownLatch handled = new CountDownLatch(1);
+        ArrayEventQueue<String> queue = new ArrayEventQueue<>(10);
+        Processor<String> processor = start(queue, event -> {
+            if ("stall".equals(event)) {
+                try {
+                    Thread.sleep(Long.MAX_VALUE);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            handled.countDown();
+        });
+        stall(queue, processor);
+        watchdog.check();
+        assertEquals(1, count("dt.processor.stalls"));
+        awaitCondition(() -> processor.getStatus() == Processor.Status.STOPPED);
+        watchdog.check();
+        assertEquals(1, count("dt.processor.restarts"));
+        assertTrue(queue.offer("next"));
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    void nonInterruptibleStalledProcessorIsReportedOnce() throws Exception {
+        AtomicBoolean release = new AtomicBoolean();
+        ArrayEventQueue<String> queue = new ArrayEventQueue<>(10);
+        Processor<String> processor = start(queue, event -> {
+            while (!release.get()) {
+                Thread.onSpinWait();
+            }
+        });
+        stall(queue, processor);
+        watchdog.check();
+        assertEquals(1, count("dt.processor.stalls"));
+        Thread.sleep(STALL_TIMEOUT * 2);
+        watchdog.check();
+        watchdog.check();
+        assertEquals(2, count("dt.processor.stalls"));
+        assertEquals(0, count("dt.processor.restarts"));
+        release.set(true);
+        awaitCondition(() -> processor.getStatus() == Processor.Status.STOPPED);
+        watchdog.check();
+        assertEquals(1, count("dt.processor.restarts"));
+    }
+
+
+    private Processor<String> start(ArrayEventQueue<String> queue, Consumer<String> consumer) {
+        Processor<String> result = new Processor<>(queue, consumer, NAME);
+        watchdog.watch(List.of(result), executor);
+        executor.submit(result);
+        return result;
+    }
+
+
+    private static void stall(ArrayEventQueue<String> queue, Processor<String> processor) throws InterruptedException {
+        assertTrue(queue.offer("stall"));
+        awaitCondition(() -> processor.getStatus() == Processor.Status.WORKING);
+        Thread.sleep(STALL_TIMEOUT * 2);
+    }
+
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within timeout");
+            Thread.sleep(10);
+        }
+    }
+
+
+    private double count(String name) {
+        return meterRegistry.counter(name, "processor", NAME).count();
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+class BackpressureQueueTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 5_000;
+    private static final int CAPACITY = 16;
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void blockLosesNoEventsUnderLoad() throws Exception {
+        assertNoLoss(OverflowPolicy.BLOCK);
+    }
+
+
+    @Test
+    void spillLosesNoEventsUnderLoad() throws Exception {
+        MeterRegistry meterRegistry = assertNoLoss(OverflowPolicy.SPILL);
+        assertTrue(meterRegistry.get("dt.queue.spilled").counter().count() > 0);
+    }
+
+
+    @Test
+    void dropNewestKeepsOldestEvents() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (BackpressureQueue<Event> queue = create(OverflowPolicy.DROP_NEWEST, meterRegistry)) {
+            for (int i = 0; i < CAPACITY * 2; i++) {
+                queue.offer(new Event(0, i));
+            }
+            assertEquals(CAPACITY, queue.size());
+            assertEquals(0, queue.poll().sequence());
+            assertEquals(CAPACITY, meterRegistry.get("dt.queue.dropped").counter().count());
+        }
+    }
+
+
+    @Test
+    void dropOldestKeepsNewestEvents() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (BackpressureQueue<Event> queue = create(OverflowPolicy.DROP_OLDEST, meterRegistry)) {
+            for (int i = 0; i < CAPACITY * 2; i++) {
+                assertTrue(queue.offer(new Event(0, i)));
+            }
+            assertEquals(CAPACITY, queue.size());
+            assertEquals(CAPACITY, queue.poll().sequence());
+            assertEquals(CAPACITY, meterRegistry.get("dt.queue.dropped").counter().count());
+        }
+    }
+
+
+    @Test
+    void persistentQueueRedeliversUnacknowledgedEventsInOrder() throws Exception {
+        try (BackpressureQueue<Event> queue = new BackpressureQueue<>(
+                QueueSettings.builder()
+                        .name("persistent")
+                        .capacity(CAPACITY)
+                        .overflowPolicy(OverflowPolicy.BLOCK)
+                        .spillDirectory(spillDirectory)
+                        .persistent(true)
+                        .build(),
+                new EventCodecImpl(),
+                null,
+                new SimpleMeterRegistry())) {
+            for (int i = 0; i < 5; i++) {
+                assertTrue(queue.offer(new Event(0, i)));
+            }
+            assertEquals(0, queue.take().sequence());
+            queue.acknowledge();
+            assertEquals(1, queue.take().sequence());
+            assertEquals(2, queue.take().sequence());
+            queue.rewind();
+            assertEquals(4, queue.size());
+            for (int i = 1; i < 5; i++) {
+                assertEquals(i, queue.poll(1, TimeUnit.SECONDS).sequence());
+                queue.acknowledge();
+            }
+            assertNull(queue.poll());
+        }
+    }
+
+
+    @Test
+    void handedBackEventsAreRemovedFirst() throws Exception {
+        try (BackpressureQueue<Event> queue = create(OverflowPolicy.SPILL, new SimpleMeterRegistry())) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(queue.offer(new Event(0, i)));
+            }
+            Event first = queue.take();
+            Event second = queue.take();
+            queue.handBack(List.of(first, second));
+            assertEquals(4, queue.size());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i, queue.take().sequence());
+            }
+        }
+    }
+
+
+    private MeterRegistry assertNoLoss(OverflowPolicy policy) throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        try (BackpressureQueue<Event> queue = create(policy, meterRegistry)) {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                int producer = p;
+                producers.add(executor.submit(() -> {
+                    for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                        assertTrue(queue.offer(new Event(producer, i)));
+                    }
+                }));
+            }
+            int[] expected = new int[PRODUCERS];
+            for (int i = 0; i < PRODUCERS * EVENTS_PER_PRODUCER; i++) {
+                Event event = queue.poll(10, TimeUnit.SECONDS);
+                assertTrue(event != null, "event lost");
+                assertEquals(expected[event.producer()]++, event.sequence());
+                if (i % 1000 == 0) {
+                    Thread.sleep(1);
+                }
+            }
+            for (Future<?> producer: producers) {
+                producer.get();
+            }
+            assertEquals(0, queue.size());
+            assertEquals(0, meterRegistry.get("dt.queue.dropped").counter().count());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        return meterRegistry;
+    }
+
+
+    private BackpressureQueue<Event> create(OverflowPolicy policy, MeterRegistry meterRegistry) throws IOException {
+        return new BackpressureQueue<>(
+                QueueSettings.builder()
+                        .name("test")
+                        .capacity(CAPACITY)
+                        .overflowPolicy(policy)
+                        .blockTimeout(Duration.ofSeconds(30))
+                        .spillDirectory(spillDirectory)
+                        .build(),
+                new EventCodecImpl(),
+                null,
+                meterRegistry);
+    }
+
+    private record Event(int producer, int sequence) {}
+
+    private static class EventCodecImpl implements EventCodec<Event> {
+
+        @Override
+        public byte[] encode(Event event) throws IOException {
+            ByteArrayOutputStream result = new ByteArrayOutputStream(8);
+            try (DataOutputStream out = new DataOutputStream(result)) {
+                out.writeInt(event.producer());
+                out.writeInt(event.sequence());
+            }
+            return result.toByteArray();
+        }
+
+
+        @Override
+        public Event decode(byte[] data) throws IOException {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+                return new Event(in.readInt(), in.readInt());
+            }
+        }
+    }
+}
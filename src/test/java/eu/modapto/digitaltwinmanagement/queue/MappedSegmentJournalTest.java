@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+class MappedSegmentJournalTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsAreReadInOrderAcrossSegments() throws IOException {
+        try (MappedSegmentJournal journal = open(Long.MAX_VALUE)) {
+            for (int i = 0; i < 200; i++) {
+                journal.append(record(i));
+            }
+            assertEquals(200, journal.size());
+            assertTrue(countSegments() > 1);
+            for (int i = 0; i < 200; i++) {
+                assertArrayEquals(record(i), journal.poll());
+            }
+            assertNull(journal.poll());
+            assertEquals(1, countSegments());
+        }
+    }
+
+
+    @Test
+    void unreadRecordsAreReplayedAfterRestart() throws IOException {
+        try (MappedSegmentJournal journal = open(Long.MAX_VALUE)) {
+            for (int i = 0; i < 100; i++) {
+                journal.append(record(i));
+            }
+            for (int i = 0; i < 40; i++) {
+                journal.poll();
+            }
+        }
+        try (MappedSegmentJournal journal = open(Long.MAX_VALUE)) {
+            assertEquals(60, journal.size());
+            journal.append(record(100));
+            for (int i = 40; i <= 100; i++) {
+                assertArrayEquals(record(i), journal.poll());
+            }
+            assertNull(journal.poll());
+        }
+    }
+
+
+    @Test
+    void uncommittedRecordsAreRewoundAndReplayedAfterRestart() throws IOException {
+        try (MappedSegmentJournal journal = open(Long.MAX_VALUE)) {
+            for (int i = 0; i < 100; i++) {
+                journal.append(record(i));
+            }
+            for (int i = 0; i < 60; i++) {
+                assertArrayEquals(record(i), journal.read());
+            }
+            for (int i = 0; i < 50; i++) {
+                journal.commit();
+            }
+            assertEquals(40, journal.size());
+            assertEquals(10, journal.rewind());
+            assertEquals(50, journal.size());
+            assertArrayEquals(record(50), journal.read());
+            assertArrayEquals(record(51), journal.read());
+            journal.commit();
+        }
+        try (MappedSegmentJournal journal = open(Long.MAX_VALUE)) {
+            assertEquals(49, journal.size());
+            for (int i = 51; i < 100; i++) {
+                assertArrayEquals(record(i), journal.read());
+                journal.commit();
+            }
+            assertNull(journal.read());
+            assertThrows(IllegalStateException.class, journal::commit);
+            assertEquals(1, countSegments());
+        }
+    }
+
+
+    @Test
+    void appendFailsWhenDiskLimitIsReached() throws IOException {
+        try (MappedSegmentJournal journal = open(2 * SEGMENT_SIZE)) {
+            assertThrows(IOException.class, () -> {
+                for (int i = 0; i < 1000; i++) {
+                    journal.append(record(i));
+                }
+            });
+            assertTrue(journal.getDiskUsage() <= 2 * SEGMENT_SIZE);
+            assertArrayEquals(record(0), journal.poll());
+        }
+    }
+
+
+    @Test
+    void committedSegmentsAreDeletedWhenDiskLimitIsReached() throws IOException {
+        try (MappedSegmentJournal journal = open(2 * SEGMENT_SIZE)) {
+            int perSegment = SEGMENT_SIZE / (record(0).length + 2 * Integer.BYTES);
+            for (int i = 0; i < 2 * perSegment; i++) {
+                journal.append(record(i));
+            }
+            for (int i = 0; i < perSegment; i++) {
+                assertArrayEquals(record(i), journal.read());
+                journal.commit();
+            }
+            journal.append(record(2 * perSegment));
+            assertEquals(2, countSegments());
+            for (int i = perSegment; i <= 2 * perSegment; i++) {
+                assertArrayEquals(record(i), journal.poll());
+            }
+        }
+    }
+
+
+    @Test
+    void expiredSegmentsWithUncommittedRecordsAreKept() throws Exception {
+        try (MappedSegmentJournal journal = new MappedSegmentJournal(directory, SEGMENT_SIZE, 2 * SEGMENT_SIZE, Duration.ofMillis(1))) {
+            int perSegment = SEGMENT_SIZE / (record(0).length + 2 * Integer.BYTES);
+            for (int i = 0; i < 2 * perSegment; i++) {
+                journal.append(record(i));
+            }
+            Thread.sleep(10);
+            assertArrayEquals(record(0), journal.read());
+            assertThrows(IOException.class, () -> journal.append(record(2 * perSegment)));
+            journal.commit();
+            journal.append(record(2 * perSegment));
+            assertEquals(perSegment + 1, journal.size());
+            assertArrayEquals(record(perSegment), journal.read());
+            journal.commit();
+        }
+    }
+
+
+    private MappedSegmentJournal open(long maxSize) throws IOException {
+        return new MappedSegmentJournal(directory, SEGMENT_SIZE, maxSize, Duration.ZERO);
+    }
+
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(x -> x.getFileName().toString().endsWith(".segment")).count();
+        }
+    }
+
+
+    private static byte[] record(int i) {
+        return String.format("event-%05d", i).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.modapto.digitaltwinmanagement.util.Processor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+
+class PartitionedQueueTest {
+
+    private static final int LANES = 4;
+    private static final int KEYS = 16;
+    private static final int EVENTS_PER_KEY = 2_000;
+
+    @Test
+    void eventsWithSameKeyAreHandledInOrder() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Map<String, AtomicInteger> expected = new ConcurrentHashMap<>();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(KEYS * EVENTS_PER_KEY);
+        ExecutorService executor = Executors.newFixedThreadPool(LANES);
+        try (PartitionedQueue<Event> queue = new PartitionedQueue<>(
+                QueueSettings.builder()
+                        .name("test")
+                        .capacity(8)
+                        .overflowPolicy(OverflowPolicy.BLOCK)
+                        .blockTimeout(Duration.ofSeconds(30))
+                        .build(),
+                LANES,
+                0.5,
+                Event::key,
+                null,
+                null,
+                meterRegistry)) {
+            List<Processor<Event>> processors = queue.createProcessors(event -> {
+                if (expected.computeIfAbsent(event.key(), x -> new AtomicInteger()).getAndIncrement() != event.sequence()) {
+                    outOfOrder.incrementAndGet();
+                }
+                done.countDown();
+            });
+            processors.forEach(executor::submit);
+            for (int i = 0; i < EVENTS_PER_KEY; i++) {
+                for (int k = 0; k < KEYS; k++) {
+                    assertTrue(queue.offer(new Event("module-" + k, i)));
+                }
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+            assertEquals(0, outOfOrder.get());
+            double total = meterRegistry.find("dt.queue.lane.events").counters().stream().mapToDouble(x -> x.count()).sum();
+            assertEquals(KEYS * EVENTS_PER_KEY, total);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test
+    void keysAreRemovedOnceDrained() throws Exception {
+        CountDownLatch done = new CountDownLatch(KEYS);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (PartitionedQueue<Event> queue = new PartitionedQueue<>(
+                QueueSettings.builder()
+                        .name("test-drained")
+                        .capacity(KEYS)
+                        .build(),
+                1,
+                0,
+                Event::key,
+                null,
+                null,
+                new SimpleMeterRegistry())) {
+            for (int k = 0; k < KEYS; k++) {
+                assertTrue(queue.offer(new Event("invocation-" + k, 0)));
+            }
+            assertEquals(KEYS, queue.getKeyCount());
+            queue.createProcessors(event -> done.countDown()).forEach(executor::submit);
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+            long timeout = System.currentTimeMillis() + 5000;
+            while (queue.getKeyCount() > 0 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, queue.getKeyCount());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test
+    void evictedEventsAreNoLongerPending() throws Exception {
+        assertEvictedEventsAreNoLongerPending(OverflowPolicy.DROP_OLDEST);
+        assertEvictedEventsAreNoLongerPending(OverflowPolicy.SAMPLE);
+    }
+
+
+    private void assertEvictedEventsAreNoLongerPending(OverflowPolicy policy) throws Exception {
+        try (PartitionedQueue<Event> queue = new PartitionedQueue<>(
+                QueueSettings.builder()
+                        .name("test-" + policy)
+                        .capacity(4)
+                        .overflowPolicy(policy)
+                        .sampleRate(1)
+                        .build(),
+                1,
+                0,
+                Event::key,
+                null,
+                null,
+                new SimpleMeterRegistry())) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(queue.offer(new Event("module", i)));
+            }
+            assertEquals(4, queue.size());
+            assertEquals(4, queue.getPending("module"));
+        }
+    }
+
+    private record Event(String key, int sequence) {}
+}
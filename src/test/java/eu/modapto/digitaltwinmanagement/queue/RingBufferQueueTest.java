@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+
+class RingBufferQueueTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 50_000;
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategyType.class)
+    void boundedAndFifo(WaitStrategyType waitStrategy) throws Exception {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(5, WaitStrategy.create(waitStrategy));
+        assertEquals(8, queue.capacity());
+        for (int i = 0; i < 8; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(8));
+        List<Integer> batch = new ArrayList<>();
+        assertEquals(8, queue.drainTo(batch, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), batch);
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategyType.class)
+    void concurrentProducersKeepOrderPerProducer(WaitStrategyType waitStrategy) throws Exception {
+        RingBufferQueue<long[]> queue = new RingBufferQueue<>(64, WaitStrategy.create(waitStrategy));
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                long producer = p;
+                producers.add(executor.submit(() -> {
+                    for (long i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                        assertTrue(queue.offer(new long[] {
+                                producer,
+                                i
+                        }, 10, TimeUnit.SECONDS));
+                    }
+                    return null;
+                }));
+            }
+            long[] expected = new long[PRODUCERS];
+            for (int i = 0; i < PRODUCERS * EVENTS_PER_PRODUCER; i++) {
+                long[] event = queue.take();
+                assertEquals(expected[(int) event[0]]++, event[1]);
+            }
+            for (Future<?> producer: producers) {
+                producer.get();
+            }
+            assertEquals(0, queue.size());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.config.ObjectMapperConfig;
+import eu.modapto.digitaltwinmanagement.jpa.cache.DecodeCache;
+import eu.modapto.digitaltwinmanagement.model.FmuBlob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+
+@DataJpaTest
+@Import({
+        DigitalTwinManagementConfig.class,
+        DecodeCache.class,
+        ObjectMapperConfig.class,
+        SimpleMeterRegistry.class
+})
+class FmuBlobRepositoryTest {
+
+    private static final Duration GRACE_PERIOD = Duration.ofMinutes(10);
+
+    @Autowired
+    private FmuBlobRepository fmuBlobRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void deleteUnreferencedKeepsFmusWithinGracePeriod() {
+        Instant now = Instant.now();
+        fmuBlobRepository.save(blob("recent", now));
+        fmuBlobRepository.save(blob("old", now.minus(GRACE_PERIOD.multipliedBy(2))));
+        fmuBlobRepository.save(blob("legacy", null));
+        entityManager.flush();
+        int deleted = fmuBlobRepository.deleteUnreferenced(now.minus(GRACE_PERIOD));
+        entityManager.clear();
+        assertThat(deleted).isEqualTo(2);
+        assertThat(fmuBlobRepository.findAll()).extracting(FmuBlob::getHash).containsExactly("recent");
+    }
+
+
+    @Test
+    void markStoredProtectsExistingFmu() {
+        Instant now = Instant.now();
+        fmuBlobRepository.save(blob("old", now.minus(GRACE_PERIOD.multipliedBy(2))));
+        entityManager.flush();
+        assertThat(fmuBlobRepository.markStored("old", now)).isEqualTo(1);
+        assertThat(fmuBlobRepository.markStored("missing", now)).isZero();
+        assertThat(fmuBlobRepository.deleteUnreferenced(now.minus(GRACE_PERIOD))).isZero();
+        entityManager.clear();
+        assertThat(fmuBlobRepository.findById("old")).isPresent();
+    }
+
+
+    private static FmuBlob blob(String hash, Instant storedAt) {
+        byte[] content = hash.getBytes(StandardCharsets.UTF_8);
+        return FmuBlob.builder()
+                .hash(hash)
+                .size(content.length)
+                .storedAt(storedAt)
+                .content(BlobProxy.generateProxy(content))
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.config.ObjectMapperConfig;
+import eu.modapto.digitaltwinmanagement.jpa.cache.DecodeCache;
+import eu.modapto.digitaltwinmanagement.messagebus.EventEncoding;
+import eu.modapto.digitaltwinmanagement.model.OutboxEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+
+@DataJpaTest
+@Import({
+        DigitalTwinManagementConfig.class,
+        DecodeCache.class,
+        ObjectMapperConfig.class,
+        SimpleMeterRegistry.class
+})
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void findOldestEventsInInsertionOrder() {
+        OutboxEvent first = outboxEventRepository.save(event("module-1", "first"));
+        OutboxEvent second = outboxEventRepository.save(event("module-2", "second"));
+        outboxEventRepository.save(event("module-1", "third"));
+        entityManager.flush();
+        entityManager.clear();
+        List<OutboxEvent> actual = outboxEventRepository.findByOrderByIdAsc(Limit.of(2));
+        assertThat(actual).extracting(OutboxEvent::getId).containsExactly(first.getId(), second.getId());
+        assertThat(new String(actual.get(0).getValue(), StandardCharsets.UTF_8)).isEqualTo("first");
+        assertThat(actual.get(0).getEncoding()).isEqualTo(EventEncoding.JSON);
+    }
+
+
+    @Test
+    void deleteRelayedEventsInBatch() {
+        OutboxEvent first = outboxEventRepository.save(event("module-1", "first"));
+        OutboxEvent second = outboxEventRepository.save(event("module-1", "second"));
+        OutboxEvent third = outboxEventRepository.save(event("module-1", "third"));
+        entityManager.flush();
+        outboxEventRepository.deleteAllByIdInBatch(List.of(first.getId(), second.getId()));
+        entityManager.clear();
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getId).containsExactly(third.getId());
+    }
+
+
+    private static OutboxEvent event(String key, String value) {
+        return OutboxEvent.builder()
+                .eventKey(key)
+                .topic("topic")
+                .encoding(EventEncoding.JSON)
+                .value(value.getBytes(StandardCharsets.UTF_8))
+                .createdAt(Instant.now())
+                .build();
+    }
+}
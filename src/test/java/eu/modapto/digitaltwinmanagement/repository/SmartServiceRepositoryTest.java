@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceBuilder;
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.config.ObjectMapperConfig;
+import eu.modapto.digitaltwinmanagement.jpa.cache.DecodeCache;
+import eu.modapto.digitaltwinmanagement.model.ExternalSmartService;
+import eu.modapto.digitaltwinmanagement.model.SmartService;
+import eu.modapto.digitaltwinmanagement.model.request.SmartServiceFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Objects;
+import org.eclipse.digitaltwin.aas4j.v3.model.DataTypeDefXsd;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+
+@DataJpaTest
+@Import({
+        DigitalTwinManagementConfig.class,
+        DecodeCache.class,
+        ObjectMapperConfig.class,
+        SimpleMeterRegistry.class
+})
+class SmartServiceRepositoryTest {
+
+    private static final String SEMANTIC_ID_TEMPERATURE = "http://example.org/semantics/temperature";
+
+    @Autowired
+    private SmartServiceRepository smartServiceRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private String alphaId;
+    private String betaId;
+
+    @BeforeEach
+    void init() {
+        alphaId = smartServiceRepository.save(ExternalSmartService.builder()
+                .name("alpha")
+                .httpEndpoint("http://example.org/alpha")
+                .method("POST")
+                .inputParameter(property("temperature", DataTypeDefXsd.DOUBLE, SEMANTIC_ID_TEMPERATURE))
+                .outputParameter(property("result", DataTypeDefXsd.STRING, null))
+                .build())
+                .getId();
+        betaId = smartServiceRepository.save(ExternalSmartService.builder()
+                .name("beta")
+                .httpEndpoint("http://example.org/beta")
+                .method("POST")
+                .inputParameter(property("pressure", DataTypeDefXsd.INT, null))
+                .outputParameter(property("temperature", DataTypeDefXsd.DOUBLE, null))
+                .build())
+                .getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+
+    @Test
+    void filterByParameterName() {
+        assertThat(find(SmartServiceFilter.builder().inputParam("temperature").build())).containsExactly(alphaId);
+        assertThat(find(SmartServiceFilter.builder().outputParam("temperature").build())).containsExactly(betaId);
+        assertThat(find(SmartServiceFilter.builder().inputParam("result").build())).isEmpty();
+        assertThat(find(SmartServiceFilter.builder().inputParam("temperature").outputParam("result").build())).containsExactly(alphaId);
+    }
+
+
+    @Test
+    void filterByParameterValueType() {
+        assertThat(find(SmartServiceFilter.builder().parameterValueType("double").build())).containsExactlyInAnyOrder(alphaId, betaId);
+        assertThat(find(SmartServiceFilter.builder().parameterValueType("INT").build())).containsExactly(betaId);
+        assertThat(find(SmartServiceFilter.builder().parameterValueType("boolean").build())).isEmpty();
+    }
+
+
+    @Test
+    void filterByParameterSemanticId() {
+        assertThat(find(SmartServiceFilter.builder().parameterSemanticId(SEMANTIC_ID_TEMPERATURE).build())).containsExactly(alphaId);
+    }
+
+
+    @Test
+    void filterByParameterAndName() {
+        assertThat(find(SmartServiceFilter.builder().name("be").parameterValueType("double").build())).containsExactly(betaId);
+        assertThat(find(SmartServiceFilter.builder().name("al").outputParam("temperature").build())).isEmpty();
+    }
+
+
+    @Test
+    void changedParametersAreReindexed() {
+        SmartService alpha = smartServiceRepository.findById(alphaId).orElseThrow();
+        alpha.setInputParameters(List.of(property("humidity", DataTypeDefXsd.DOUBLE, null)));
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(find(SmartServiceFilter.builder().inputParam("temperature").build())).isEmpty();
+        assertThat(find(SmartServiceFilter.builder().inputParam("humidity").build())).containsExactly(alphaId);
+    }
+
+
+    @Test
+    void parametersCannotBeChangedInPlace() {
+        SmartService alpha = smartServiceRepository.findById(alphaId).orElseThrow();
+        SubmodelElement parameter = property("humidity", DataTypeDefXsd.DOUBLE, null);
+        assertThatThrownBy(() -> alpha.getInputParameters().add(parameter)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> alpha.getOutputParameters().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+
+    private List<String> find(SmartServiceFilter filter) {
+        return smartServiceRepository.findAll(SmartServiceSpecifications.matches(filter)).stream()
+                .map(SmartService::getId)
+                .toList();
+    }
+
+
+    private static SubmodelElement property(String idShort, DataTypeDefXsd valueType, String semanticId) {
+        return new DefaultProperty.Builder()
+                .idShort(idShort)
+                .valueType(valueType)
+                .semanticId(Objects.isNull(semanticId) ? null : ReferenceBuilder.global(semanticId))
+                .build();
+    }
+}
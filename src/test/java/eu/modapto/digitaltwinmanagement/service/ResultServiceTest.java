@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.Datatype;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.PropertyValue;
+import eu.modapto.digitaltwinmanagement.config.DigitalTwinManagementConfig;
+import eu.modapto.digitaltwinmanagement.exception.ResourceNotFoundException;
+import eu.modapto.digitaltwinmanagement.model.event.payload.ResultReference;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+class ResultServiceTest {
+
+    private static final long THRESHOLD = 64;
+    private static final long RETENTION = 60000;
+
+    @TempDir
+    private Path directory;
+
+    private ResultService resultService;
+
+    @BeforeEach
+    void init() throws Exception {
+        DigitalTwinManagementConfig config = mock(DigitalTwinManagementConfig.class);
+        when(config.isClaimCheckEnabled()).thenReturn(true);
+        when(config.getClaimCheckThreshold()).thenReturn(THRESHOLD);
+        when(config.getClaimCheckDirectory()).thenReturn(directory.toString());
+        when(config.getClaimCheckRetention()).thenReturn(RETENTION);
+        resultService = new ResultService(config);
+        resultService.init();
+    }
+
+
+    @AfterEach
+    void tearDown() {
+        resultService.tearDown();
+    }
+
+
+    @Test
+    void smallResultIsNotOffloaded() throws Exception {
+        assertNull(resultService.offload(Map.of("value", PropertyValue.of(Datatype.INT, "42"))));
+    }
+
+
+    @Test
+    void largeResultIsOffloaded() throws Exception {
+        Map<String, ElementValue> arguments = Map.of("value", PropertyValue.of(Datatype.STRING, "x".repeat((int) THRESHOLD * 2)));
+        ResultReference reference = resultService.offload(arguments);
+        assertNotNull(reference);
+        assertEquals("/results/" + reference.getId(), reference.getHref());
+        assertEquals("PropertyValue", reference.getArguments().get("value"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        resultService.copyResult(reference.getId(), out);
+        assertEquals(reference.getSize(), out.size());
+        try (FileChannel channel = resultService.openResult(reference.getId())) {
+            assertEquals(reference.getSize(), channel.size());
+        }
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("x".repeat((int) THRESHOLD * 2)));
+    }
+
+
+    @Test
+    void expiredResultIsNotFound() throws Exception {
+        ResultReference reference = offloadLargeResult();
+        expire(reference);
+        resultService.deleteExpired();
+        assertThrows(ResourceNotFoundException.class, () -> resultService.openResult(reference.getId()));
+        assertThrows(ResourceNotFoundException.class, () -> resultService.copyResult(reference.getId(), new ByteArrayOutputStream()));
+    }
+
+
+    @Test
+    void openResultIsReadableAfterExpiry() throws Exception {
+        ResultReference reference = offloadLargeResult();
+        try (FileChannel channel = resultService.openResult(reference.getId())) {
+            expire(reference);
+            resultService.deleteExpired();
+            assertEquals(reference.getSize(), channel.size());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Channels.newInputStream(channel).transferTo(out);
+            assertEquals(reference.getSize(), out.size());
+        }
+    }
+
+
+    @Test
+    void unknownResultIsNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> resultService.copyResult("00000000-0000-0000-0000-000000000000", new ByteArrayOutputStream()));
+        assertThrows(ResourceNotFoundException.class, () -> resultService.copyResult("../application.properties", new ByteArrayOutputStream()));
+    }
+
+
+    private ResultReference offloadLargeResult() throws Exception {
+        ResultReference result = resultService.offload(Map.of("value", PropertyValue.of(Datatype.STRING, "x".repeat((int) THRESHOLD * 2))));
+        assertNotNull(result);
+        return result;
+    }
+
+
+    private void expire(ResultReference reference) throws Exception {
+        Files.setLastModifiedTime(
+                directory.resolve(reference.getId() + ".json"),
+                FileTime.from(Instant.now().minusMillis(RETENTION * 2)));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2024 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.modapto.digitaltwinmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.aasx.InMemoryFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+class FileBackedFileTest {
+
+    private static final String PATH = "/aasx/files/service.fmu";
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void sameContentInMemoryAndOnDisk() throws Exception {
+        byte[] content = content(20000);
+        FileBackedFile file = new FileBackedFile(write("a.fmu", content), PATH);
+        assertTrue(FileBackedFile.hasSameContent(file, new InMemoryFile(content, PATH)));
+        assertTrue(FileBackedFile.hasSameContent(new InMemoryFile(content, PATH), file));
+        assertTrue(FileBackedFile.hasSameContent(file, new FileBackedFile(write("b.fmu", content), PATH)));
+    }
+
+
+    @Test
+    void differentContentInMemoryAndOnDisk() throws Exception {
+        byte[] content = content(20000);
+        byte[] changed = content.clone();
+        changed[changed.length - 1] ^= 1;
+        FileBackedFile file = new FileBackedFile(write("a.fmu", content), PATH);
+        assertFalse(FileBackedFile.hasSameContent(file, new InMemoryFile(changed, PATH)));
+        assertFalse(FileBackedFile.hasSameContent(file, new InMemoryFile(content(10), PATH)));
+        assertFalse(FileBackedFile.hasSameContent(file, new FileBackedFile(write("b.fmu", changed), PATH)));
+    }
+
+
+    private Path write(String name, byte[] content) throws Exception {
+        return Files.write(directory.resolve(name), content);
+    }
+
+
+    private static byte[] content(int size) {
+        byte[] result = new byte[size];
+        new Random(42).nextBytes(result);
+        return result;
+    }
+}